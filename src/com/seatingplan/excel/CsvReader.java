@@ -0,0 +1,490 @@
+package com.seatingplan.excel;
+
+import com.seatingplan.excel.ExcelReader.ExcelParseException;
+import com.seatingplan.model.Roster;
+import com.seatingplan.model.Student;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Fast importer for flat CSV/TSV student exports.
+ *
+ * The file is split into line-aligned chunks that are parsed in parallel
+ * straight into {@link Roster} columns: name and roll number bytes are copied
+ * into the pooled columns without decoding, year and semester are parsed from
+ * the bytes, and branches are matched against a small per-chunk dictionary, so
+ * no String is created per field for well-formed rows.
+ *
+ * Each chunk is read with positional reads through a fixed-size buffer. The
+ * file is not memory-mapped: on Windows a mapped file cannot be replaced until
+ * the mapping is garbage collected, so Excel or an editor could not save the
+ * roster while it is loaded or watched.
+ *
+ * Headers are recognised with the same rules as {@link ExcelReader}. The
+ * delimiter is a tab if the header line contains one, otherwise a comma.
+ * Fields may be quoted ("" escapes a quote) but must not contain line breaks.
+ */
+public class CsvReader {
+
+    // Chunks are at least this large, so small files are parsed in one piece
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+    // Bytes a chunk reads at a time; grown for longer lines
+    private static final int READ_SIZE = 1 << 20;
+    // Window read while looking for a line end
+    private static final int SCAN_WINDOW = 64 * 1024;
+
+    private static final int NAME = 0;
+    private static final int ROLL = 1;
+    private static final int YEAR = 2;
+    private static final int SEMESTER = 3;
+    private static final int BRANCH = 4;
+
+    /**
+     * Whether a file should be read by this importer rather than as a workbook.
+     */
+    public static boolean isDelimitedText(File file) {
+        String name = file.getName().toLowerCase();
+        return name.endsWith(".csv") || name.endsWith(".tsv") || name.endsWith(".txt");
+    }
+
+    /**
+     * Read students from a CSV/TSV file.
+     *
+     * @return List of students sorted by roll number
+     */
+    public static List<Student> readStudents(File file) throws IOException, ExcelParseException {
+        return readRoster(file).toStudents();
+    }
+
+    /**
+     * Read a CSV/TSV file into a roster.
+     *
+     * @return Roster sorted by roll number
+     * @throws IOException If file cannot be read
+     * @throws ExcelParseException If the header is missing or incomplete, or no row could be parsed
+     */
+    public static Roster readRoster(File file) throws IOException, ExcelParseException {
+        if (!file.exists()) {
+            throw new IOException("File not found: " + file.getAbsolutePath());
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            Header header = readHeader(channel, size);
+
+            int threads = Runtime.getRuntime().availableProcessors();
+            long[] bounds = chunkBounds(channel, header.dataStart, size, threads);
+
+            List<Chunk> chunks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                chunks.add(new Chunk(channel, bounds[i], bounds[i + 1], header));
+            }
+
+            if (chunks.size() == 1) {
+                chunks.get(0).call();
+            } else {
+                ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, chunks.size()));
+                try {
+                    for (Future<Chunk> future : pool.invokeAll(chunks)) {
+                        future.get();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("CSV import interrupted", e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException("CSV import failed", e.getCause());
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+
+            return merge(chunks);
+        }
+    }
+
+    /**
+     * Concatenate chunk rosters in file order and turn chunk-local error lines
+     * into file row numbers.
+     */
+    private static Roster merge(List<Chunk> chunks) throws ExcelParseException {
+        Roster roster = new Roster();
+        List<String> errors = new ArrayList<>();
+        int linesBefore = 1;    // header
+
+        for (Chunk chunk : chunks) {
+            roster.addAll(chunk.roster);
+            for (int i = 0; i < chunk.errorLines.size(); i++) {
+                errors.add("Row " + (linesBefore + chunk.errorLines.get(i) + 1) + ": " + chunk.errorMessages.get(i));
+            }
+            linesBefore += chunk.lines;
+        }
+
+        if (!errors.isEmpty() && roster.isEmpty()) {
+            throw new ExcelParseException("Failed to parse any students. Errors:\n" + String.join("\n", errors));
+        }
+        return roster.sortedByRollNo();
+    }
+
+    // ==================== HEADER AND CHUNKS ====================
+
+    private static class Header {
+        long dataStart;
+        byte delimiter;
+        // Column index -> NAME..BRANCH, or -1
+        int[] slotOf;
+    }
+
+    private static Header readHeader(FileChannel channel, long size) throws IOException, ExcelParseException {
+        long start = 0;
+        if (size >= 3) {
+            byte[] bom = new byte[3];
+            readFully(channel, ByteBuffer.wrap(bom), 0);
+            if ((bom[0] & 0xFF) == 0xEF && (bom[1] & 0xFF) == 0xBB && (bom[2] & 0xFF) == 0xBF) {
+                start = 3;
+            }
+        }
+
+        long lineEnd = findLineEnd(channel, start, size);
+        if (lineEnd <= start && lineEnd >= size) {
+            throw new ExcelParseException("CSV file has no header row");
+        }
+
+        int length = (int) Math.min(lineEnd - start, Integer.MAX_VALUE);
+        byte[] bytes = new byte[length];
+        readFully(channel, ByteBuffer.wrap(bytes), start);
+        String line = new String(bytes, StandardCharsets.UTF_8);
+        if (line.endsWith("\r")) {
+            line = line.substring(0, line.length() - 1);
+        }
+
+        Header header = new Header();
+        header.delimiter = (byte) (line.indexOf('\t') >= 0 ? '\t' : ',');
+        header.dataStart = Math.min(lineEnd + 1, size);
+
+        int[] columnIndices = ExcelReader.findColumnIndices(splitHeader(line, (char) header.delimiter));
+        int maxColumn = 0;
+        for (int column : columnIndices) {
+            maxColumn = Math.max(maxColumn, column);
+        }
+        header.slotOf = new int[maxColumn + 1];
+        Arrays.fill(header.slotOf, -1);
+        for (int slot = 0; slot < columnIndices.length; slot++) {
+            header.slotOf[columnIndices[slot]] = slot;
+        }
+        return header;
+    }
+
+    private static List<String> splitHeader(String line, char delimiter) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    /**
+     * Split [dataStart, size) into line-aligned chunks of similar size.
+     */
+    private static long[] chunkBounds(FileChannel channel, long dataStart, long size, int threads)
+            throws IOException {
+        long remaining = size - dataStart;
+        long count = Math.max(1, Math.min(threads * 2L, remaining / MIN_CHUNK_SIZE));
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(dataStart);
+        for (long i = 1; i < count; i++) {
+            long nominal = dataStart + remaining * i / count;
+            // First line start at or after the nominal position
+            long boundary = Math.min(findLineEnd(channel, nominal - 1, size) + 1, size);
+            if (boundary > bounds.get(bounds.size() - 1) && boundary < size) {
+                bounds.add(boundary);
+            }
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Position of the next '\n' at or after {@code from}, or {@code size} if there is none.
+     */
+    private static long findLineEnd(FileChannel channel, long from, long size) throws IOException {
+        byte[] window = new byte[(int) Math.min(SCAN_WINDOW, Math.max(size - from, 0))];
+        long position = from;
+        while (position < size) {
+            int length = (int) Math.min(window.length, size - position);
+            readFully(channel, ByteBuffer.wrap(window, 0, length), position);
+            for (int i = 0; i < length; i++) {
+                if (window[i] == '\n') {
+                    return position + i;
+                }
+            }
+            position += length;
+        }
+        return size;
+    }
+
+    /**
+     * Fill the buffer from the file, starting at {@code position}.
+     *
+     * @throws IOException If the file ends first, i.e. it was truncated while being read
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("File was truncated while being read");
+            }
+            position += read;
+        }
+    }
+
+    // ==================== CHUNK PARSER ====================
+
+    /**
+     * Parses one line-aligned region of the file into its own roster.
+     */
+    private static class Chunk implements Callable<Chunk> {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final byte delimiter;
+        private final int[] slotOf;
+
+        final Roster roster = new Roster();
+        final List<Integer> errorLines = new ArrayList<>();
+        final List<String> errorMessages = new ArrayList<>();
+        int lines;
+
+        // Unquoted bytes of the wanted fields of the current line
+        private byte[] fieldData = new byte[256];
+        private final int[] fieldStart = new int[5];
+        private final int[] fieldLength = new int[5];
+
+        // Branch dictionary: trimmed bytes -> upper-cased pooled String
+        private final List<byte[]> branchKeys = new ArrayList<>();
+        private final List<String> branchValues = new ArrayList<>();
+
+        Chunk(FileChannel channel, long start, long end, Header header) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.delimiter = header.delimiter;
+            this.slotOf = header.slotOf;
+        }
+
+        /**
+         * Read the region a buffer at a time. A line cut off at the end of the
+         * buffer is moved to its front and completed by the next read.
+         */
+        @Override
+        public Chunk call() throws IOException {
+            byte[] buffer = new byte[(int) Math.min(READ_SIZE, end - start)];
+            long filePosition = start;
+            int filled = 0;
+
+            while (true) {
+                int length = (int) Math.min(buffer.length - filled, end - filePosition);
+                readFully(channel, ByteBuffer.wrap(buffer, filled, length), filePosition);
+                filePosition += length;
+                filled += length;
+                boolean last = filePosition == end;
+
+                int position = 0;
+                while (position < filled) {
+                    int lineEnd = position;
+                    while (lineEnd < filled && buffer[lineEnd] != '\n') {
+                        lineEnd++;
+                    }
+                    if (lineEnd == filled && !last) {
+                        break;      // rest of the line is not read yet
+                    }
+                    int contentEnd = lineEnd;
+                    if (contentEnd > position && buffer[contentEnd - 1] == '\r') {
+                        contentEnd--;
+                    }
+
+                    try {
+                        parseLine(buffer, position, contentEnd);
+                    } catch (RuntimeException e) {
+                        errorLines.add(lines);
+                        errorMessages.add(e.getMessage());
+                    }
+
+                    lines++;
+                    position = lineEnd + 1;
+                }
+
+                if (last) {
+                    break;
+                }
+                filled -= position;
+                System.arraycopy(buffer, position, buffer, 0, filled);
+                if (filled == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+
+            roster.trimToSize();
+            return this;
+        }
+
+        private void parseLine(byte[] buffer, int from, int to) {
+            Arrays.fill(fieldLength, 0);
+            int used = 0;
+            boolean blank = true;
+            int column = 0;
+            int p = from;
+
+            while (p <= to) {
+                int slot = column < slotOf.length ? slotOf[column] : -1;
+                if (slot >= 0) {
+                    fieldStart[slot] = used;
+                }
+
+                // A quote after leading blanks still opens a quoted field
+                int q = p;
+                while (q < to && (buffer[q] & 0xFF) <= ' ' && buffer[q] != delimiter) {
+                    q++;
+                }
+                boolean quoted = q < to && buffer[q] == '"';
+                if (quoted) {
+                    p = q + 1;
+                }
+                while (p < to) {
+                    byte b = buffer[p];
+                    if (quoted && b == '"') {
+                        if (p + 1 < to && buffer[p + 1] == '"') {
+                            p++;
+                        } else {
+                            quoted = false;
+                            p++;
+                            continue;
+                        }
+                    } else if (!quoted && b == delimiter) {
+                        break;
+                    }
+                    if ((b & 0xFF) > ' ') {
+                        blank = false;
+                    }
+                    if (slot >= 0) {
+                        if (used == fieldData.length) {
+                            fieldData = Arrays.copyOf(fieldData, used * 2);
+                        }
+                        fieldData[used++] = b;
+                    }
+                    p++;
+                }
+
+                if (slot >= 0) {
+                    fieldLength[slot] = used - fieldStart[slot];
+                    trim(slot);
+                }
+                column++;
+                p++;    // skip delimiter (or step past the end)
+            }
+
+            if (blank || fieldLength[ROLL] == 0) {
+                return;     // empty row, or no roll number
+            }
+
+            int year = parseInt(YEAR, "Invalid year value: ");
+            int semester = parseInt(SEMESTER, "Invalid semester value: ");
+
+            roster.addEncoded(fieldData, fieldStart[NAME], fieldLength[NAME],
+                              fieldStart[ROLL], fieldLength[ROLL], year, semester, branch());
+        }
+
+        private void trim(int slot) {
+            int s = fieldStart[slot];
+            int e = s + fieldLength[slot];
+            while (s < e && (fieldData[s] & 0xFF) <= ' ') s++;
+            while (e > s && (fieldData[e - 1] & 0xFF) <= ' ') e--;
+            fieldStart[slot] = s;
+            fieldLength[slot] = e - s;
+        }
+
+        /**
+         * Parse a plain integer straight from the bytes; anything else
+         * ("3.0", signs, overflow) goes through the same rules as ExcelReader.
+         */
+        private int parseInt(int slot, String errorPrefix) {
+            int s = fieldStart[slot];
+            int length = fieldLength[slot];
+            if (length == 0) {
+                return 0;
+            }
+            if (length <= 9) {
+                int value = 0;
+                int i = 0;
+                for (; i < length; i++) {
+                    int digit = fieldData[s + i] - '0';
+                    if (digit < 0 || digit > 9) break;
+                    value = value * 10 + digit;
+                }
+                if (i == length) {
+                    return value;
+                }
+            }
+
+            String text = new String(fieldData, s, length, StandardCharsets.UTF_8);
+            try {
+                if (text.contains(".")) {
+                    return (int) Double.parseDouble(text);
+                }
+                return Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException(errorPrefix + text);
+            }
+        }
+
+        private String branch() {
+            int s = fieldStart[BRANCH];
+            int length = fieldLength[BRANCH];
+            for (int i = 0; i < branchKeys.size(); i++) {
+                byte[] key = branchKeys.get(i);
+                if (Arrays.equals(key, 0, key.length, fieldData, s, s + length)) {
+                    return branchValues.get(i);
+                }
+            }
+            String branch = new String(fieldData, s, length, StandardCharsets.UTF_8).toUpperCase();
+            branchKeys.add(Arrays.copyOfRange(fieldData, s, s + length));
+            branchValues.add(branch);
+            return branch;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.seatingplan.excel;
+
+import com.seatingplan.excel.ExcelReader.ExcelParseException;
+import com.seatingplan.model.Classroom;
+import com.seatingplan.model.SeatingPlan;
+import com.seatingplan.model.SeatingPlan.SeatAssignment;
+import com.seatingplan.model.SeatingPlan.SeatLocation;
+import com.seatingplan.model.Student;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Exports seating plans as .xlsx spreadsheets (Room, Seat, Roll No, Name,
+ * Branch, Year), one row per seated student.
+ *
+ * Uses POI's streaming {@link SXSSFWorkbook}: only a fixed window of rows is
+ * kept in memory and older rows are flushed to a compressed temporary file,
+ * and assignments are read from {@link SeatingPlan#assignments()} as they are
+ * written. Memory use therefore does not depend on the size of the plan.
+ *
+ * {@link #writeBack} instead copies a department's own roster sheet and adds
+ * Room and Seat columns to it, streaming the source with the same event
+ * readers as the importer.
+ */
+public class ExcelExporter {
+
+    private static final String[] HEADERS = {"Room", "Seat", "Roll No", "Name", "Branch", "Year"};
+    private static final int[] COLUMN_WIDTHS = {14, 8, 16, 30, 10, 6};   // in characters
+
+    // Rows kept in memory per sheet before flushing to disk
+    private static final int ROW_WINDOW = 200;
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    // Values the readers produced from numeric cells; written back as numbers
+    private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9][0-9]{0,14})(\\.[0-9]+)?");
+
+    /**
+     * Export all assignments to a single sheet.
+     *
+     * @throws IOException If the file cannot be written
+     */
+    public static void exportPlan(SeatingPlan plan, File file) throws IOException {
+        exportPlan(plan, file, false);
+    }
+
+    /**
+     * Export the plan to an .xlsx file.
+     *
+     * @param sheetPerRoom Write one sheet per room instead of one sheet for all rooms
+     * @throws IOException If the file cannot be written
+     */
+    public static void exportPlan(SeatingPlan plan, File file, boolean sheetPerRoom) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            exportPlan(plan, out, sheetPerRoom);
+        }
+    }
+
+    /**
+     * Export the plan as .xlsx to a stream. The stream is not closed.
+     *
+     * @param sheetPerRoom Write one sheet per room instead of one sheet for all rooms
+     * @throws IOException If writing fails
+     */
+    public static void exportPlan(SeatingPlan plan, OutputStream out, boolean sheetPerRoom) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            SheetWriter writer = new SheetWriter(workbook);
+            if (sheetPerRoom) {
+                for (Classroom classroom : plan.getClassrooms()) {
+                    writer.startSheet(classroom.getRoomName());
+                    writer.writeAll(SeatingPlan.assignments(classroom));
+                }
+            } else {
+                writer.startSheet("Seating Plan");
+                writer.writeAll(plan.assignments());
+            }
+            workbook.write(out);
+        } finally {
+            workbook.close();       // also deletes the temporary files
+        }
+    }
+
+    /**
+     * Copy the first sheet of a roster workbook (.xlsx or .xls) with Room and
+     * Seat columns filled in from the plan. Row order, empty rows and extra
+     * columns are kept; values are copied, formatting and formulas are not.
+     * Existing "Room" and "Seat" columns are overwritten, otherwise the two
+     * columns are appended after the last header column (replacing any
+     * values in those columns that have no header).
+     *
+     * The source is streamed row by row and each roll number is looked up in
+     * the plan's roll-number index, so the file is processed in one pass with
+     * memory use independent of its size.
+     *
+     * The copy is written to a temporary file next to the target, which only
+     * replaces the target once it is complete; on failure the target is left
+     * as it was.
+     *
+     * @param source Roster file the plan's students were imported from
+     * @param target .xlsx file to write; must not be the source
+     * @throws IOException If a file cannot be read or written
+     * @throws ExcelParseException If the source has no roll number column
+     * @throws IllegalArgumentException If the target is the source file
+     */
+    public static WriteBackResult writeBack(SeatingPlan plan, File source, File target)
+            throws IOException, ExcelParseException {
+        if (!source.exists()) {
+            throw new IOException("File not found: " + source.getAbsolutePath());
+        }
+        if (target.exists() && Files.isSameFile(source.toPath(), target.toPath())) {
+            throw new IllegalArgumentException("Cannot overwrite the source roster: " + target.getAbsolutePath());
+        }
+        String sheetName = ExcelReader.sheetNames(source).stream().findFirst().orElse("Roster");
+
+        Path temp = Files.createTempFile(target.getAbsoluteFile().getParentFile().toPath(),
+                                         target.getName(), ".tmp");
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            WriteBackHandler handler = new WriteBackHandler(plan, workbook.createSheet(
+                    WorkbookUtil.createSafeSheetName(sheetName)));
+            ExcelReader.readSheet(source, 0, handler);
+            if (handler.rollColumn < 0) {
+                throw new ExcelParseException("Excel file has no header row");
+            }
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                workbook.write(out);
+            }
+            try {
+                Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                           StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return handler.result;
+        } finally {
+            workbook.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Copies source rows into the output sheet, adding each student's seat.
+     */
+    private static class WriteBackHandler implements XlsxSheetReader.RowHandler {
+        private final SeatingPlan plan;
+        private final Sheet sheet;
+        private final WriteBackResult result = new WriteBackResult();
+
+        private int rollColumn = -1;
+        private int roomColumn = -1;
+        private int seatColumn = -1;
+
+        WriteBackHandler(SeatingPlan plan, Sheet sheet) {
+            this.plan = plan;
+            this.sheet = sheet;
+        }
+
+        @Override
+        public void row(int rowNum, List<String> cells) throws ExcelParseException {
+            Row row = sheet.createRow(rowNum);
+            for (int col = 0; col < cells.size(); col++) {
+                if (col != roomColumn && col != seatColumn && !cells.get(col).isEmpty()) {
+                    setValue(row.createCell(col), cells.get(col));
+                }
+            }
+
+            if (rollColumn < 0) {
+                readHeader(row, cells);
+                return;
+            }
+
+            String rollNo = col(cells, rollColumn).trim();
+            if (rollNo.isEmpty()) {
+                return;
+            }
+            result.rows++;
+            SeatLocation location = plan.findSeat(rollNo);
+            if (location != null) {
+                row.createCell(roomColumn).setCellValue(location.getRoomName());
+                row.createCell(seatColumn).setCellValue(location.getSeatLabel());
+                result.seated++;
+            }
+        }
+
+        /**
+         * Roll number column by the importer's rule; Room/Seat reused if present.
+         */
+        private void readHeader(Row row, List<String> cells) throws ExcelParseException {
+            for (int col = 0; col < cells.size(); col++) {
+                String header = cells.get(col).trim().toLowerCase(Locale.ROOT);
+                if (header.contains("roll") && rollColumn < 0) {
+                    rollColumn = col;
+                } else if (header.equals("room")) {
+                    roomColumn = col;
+                } else if (header.equals("seat")) {
+                    seatColumn = col;
+                }
+            }
+            if (rollColumn < 0) {
+                throw new ExcelParseException("Missing required columns: Roll No");
+            }
+            int next = cells.size();
+            if (roomColumn < 0) roomColumn = next++;
+            if (seatColumn < 0) seatColumn = next;
+
+            row.createCell(roomColumn).setCellValue("Room");
+            row.createCell(seatColumn).setCellValue("Seat");
+        }
+
+        private static String col(List<String> cells, int column) {
+            return column < cells.size() ? cells.get(column) : "";
+        }
+
+        private static void setValue(Cell cell, String value) {
+            if (NUMBER.matcher(value).matches()) {
+                cell.setCellValue(Double.parseDouble(value));
+            } else {
+                cell.setCellValue(value);
+            }
+        }
+    }
+
+    /**
+     * Counts from one write-back.
+     */
+    public static class WriteBackResult {
+        private int rows;
+        private int seated;
+
+        /**
+         * Data rows with a roll number.
+         */
+        public int getRows() { return rows; }
+
+        /**
+         * Rows whose student has a seat in the plan.
+         */
+        public int getSeated() { return seated; }
+
+        public int getNotSeated() { return rows - seated; }
+
+        @Override
+        public String toString() {
+            return "WriteBackResult{" + seated + "/" + rows + " seated}";
+        }
+    }
+
+    /**
+     * Writes assignment rows into consecutive sheets, continuing on a new
+     * sheet when one reaches Excel's row limit.
+     */
+    private static class SheetWriter {
+        private final SXSSFWorkbook workbook;
+        private final CellStyle headerStyle;
+        private final Set<String> usedNames = new HashSet<>();
+
+        private Sheet sheet;
+        private String baseName;
+        private int part;
+        private int rowNum;
+
+        SheetWriter(SXSSFWorkbook workbook) {
+            this.workbook = workbook;
+
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            headerStyle = workbook.createCellStyle();
+            headerStyle.setFont(bold);
+            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        }
+
+        void startSheet(String name) {
+            baseName = name;
+            part = 1;
+            newSheet(name);
+        }
+
+        void writeAll(Iterable<SeatAssignment> assignments) {
+            for (SeatAssignment assignment : assignments) {
+                if (rowNum == MAX_ROWS) {
+                    finishSheet();
+                    newSheet(baseName + " (" + ++part + ")");
+                }
+                Student student = assignment.getStudent();
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue(assignment.getRoomName());
+                row.createCell(1).setCellValue(assignment.getSeatLabel());
+                row.createCell(2).setCellValue(student.getRollNo());
+                row.createCell(3).setCellValue(student.getName());
+                row.createCell(4).setCellValue(student.getBranch());
+                row.createCell(5).setCellValue(student.getYear());
+            }
+            finishSheet();
+        }
+
+        private void newSheet(String name) {
+            sheet = workbook.createSheet(uniqueName(name));
+            for (int i = 0; i < COLUMN_WIDTHS.length; i++) {
+                sheet.setColumnWidth(i, COLUMN_WIDTHS[i] * 256);
+            }
+
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                Cell cell = header.createCell(i);
+                cell.setCellValue(HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+            }
+            sheet.createFreezePane(0, 1);
+            rowNum = 1;
+        }
+
+        /**
+         * Filter buttons on the header row make the sheet sortable in Excel.
+         */
+        private void finishSheet() {
+            sheet.setAutoFilter(new CellRangeAddress(0, Math.max(0, rowNum - 1), 0, HEADERS.length - 1));
+        }
+
+        /**
+         * Valid sheet name, unique within the workbook (Excel compares names case-insensitively).
+         */
+        private String uniqueName(String name) {
+            String safe = WorkbookUtil.createSafeSheetName(name);
+            String candidate = safe;
+            for (int n = 2; !usedNames.add(candidate.toLowerCase(Locale.ROOT)); n++) {
+                String suffix = " (" + n + ")";
+                candidate = safe.substring(0, Math.min(safe.length(), 31 - suffix.length())) + suffix;
+            }
+            return candidate;
+        }
+    }
+}
@@ -1,19 +1,25 @@
 package com.seatingplan.excel;
 
+import com.seatingplan.model.Roster;
+import com.seatingplan.model.SeatingConfig.StudentSortOrder;
 import com.seatingplan.model.Student;
+import com.seatingplan.util.StudentOrdering;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.poifs.filesystem.FileMagic;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
 
 /**
- * Reads student data from Excel (.xlsx) files using Apache POI.
+ * Reads student data from Excel (.xlsx and legacy .xls) files using Apache POI.
+ * Sheets are streamed with POI's event APIs (see {@link XlsxSheetReader} and
+ * {@link XlsSheetReader}); the format is detected from the file's content.
  */
 public class ExcelReader {
 
@@ -43,68 +49,168 @@ public class ExcelReader {
      */
     public static List<Student> readStudents(File file) throws IOException, ExcelParseException {
         List<Student> students = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
+        readRows(file, (name, rollNo, year, semester, branch) ->
+                students.add(new Student(name, rollNo, year, semester, branch)));
 
+        // Sort by roll number (natural order, so CSE9 comes before CSE10)
+        return StudentOrdering.sort(students, StudentSortOrder.ROLL_NUMBER);
+    }
+
+    /**
+     * Read students from an Excel file into a compact column-oriented roster.
+     * No per-row Student objects are kept.
+     *
+     * @param file The Excel file
+     * @return Roster sorted by roll number
+     * @throws IOException If file cannot be read
+     * @throws ExcelParseException If file format is invalid
+     */
+    public static Roster readRoster(File file) throws IOException, ExcelParseException {
+        return readRoster(file, null);
+    }
+
+    /**
+     * Read students into a roster, passing each one to a listener as soon as
+     * its row has been parsed (in file order). An exception thrown by the
+     * listener, e.g. a {@link CancellationException}, aborts the import.
+     *
+     * @param onRow Listener for parsed rows, or null
+     * @return Roster sorted by roll number
+     */
+    public static Roster readRoster(File file, Consumer<Student> onRow) throws IOException, ExcelParseException {
+        Roster roster = new Roster();
+        if (onRow == null) {
+            readRows(file, roster::add);
+        } else {
+            readRows(file, (name, rollNo, year, semester, branch) -> {
+                roster.add(name, rollNo, year, semester, branch);
+                onRow.accept(new Student(name, rollNo, year, semester, branch));
+            });
+        }
+        return roster.sortedByRollNo();
+    }
+
+    /**
+     * Parse every data row of the first sheet and pass it to the consumer.
+     * The sheet is streamed, so memory use does not depend on the row count.
+     */
+    private static void readRows(File file, RowConsumer consumer) throws IOException, ExcelParseException {
         if (!file.exists()) {
             throw new IOException("File not found: " + file.getAbsolutePath());
         }
 
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = new XSSFWorkbook(fis)) {
+        SheetParser parser = new SheetParser(consumer);
+        readSheet(file, 0, parser);
+        parser.finish();
+    }
 
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null) {
-                throw new ExcelParseException("Excel file has no sheets");
-            }
+    /**
+     * Stream one sheet of a workbook in either format.
+     *
+     * @param sheetIndex Zero-based sheet position in the workbook
+     */
+    static void readSheet(File file, int sheetIndex, XlsxSheetReader.RowHandler handler)
+            throws IOException, ExcelParseException {
+        if (isLegacyFormat(file)) {
+            XlsSheetReader.read(file, sheetIndex, handler);
+        } else {
+            XlsxSheetReader.read(file, sheetIndex, handler);
+        }
+    }
 
-            // Find column indices from header row
-            Row headerRow = sheet.getRow(0);
-            if (headerRow == null) {
-                throw new ExcelParseException("Excel file has no header row");
-            }
+    /**
+     * Sheet names of a workbook in either format, in workbook order.
+     */
+    static List<String> sheetNames(File file) throws IOException, ExcelParseException {
+        return isLegacyFormat(file) ? XlsSheetReader.sheetNames(file) : XlsxSheetReader.sheetNames(file);
+    }
 
-            int[] columnIndices = findColumnIndices(headerRow);
+    /**
+     * True for OLE2 (BIFF, .xls) files, whatever their extension.
+     */
+    private static boolean isLegacyFormat(File file) throws IOException {
+        return FileMagic.valueOf(file) == FileMagic.OLE2;
+    }
+
+    /**
+     * Turns the rows of one sheet into students: the first row is the header,
+     * empty rows are skipped and bad rows are collected as errors.
+     */
+    static class SheetParser implements XlsxSheetReader.RowHandler {
+        private final RowConsumer consumer;
+        private final List<String> errors = new ArrayList<>();
+        // One shared String per distinct branch instead of one per row
+        private final Map<String, String> branchPool = new HashMap<>();
+        private int[] columnIndices;
+        private int parsed;
+        private int currentRow;
+
+        SheetParser(RowConsumer consumer) {
+            this.consumer = consumer;
+        }
 
-            // Read data rows
-            int totalRows = sheet.getLastRowNum();
-            for (int rowNum = 1; rowNum <= totalRows; rowNum++) {
-                Row row = sheet.getRow(rowNum);
-                if (row == null || isRowEmpty(row)) {
-                    continue;
+        @Override
+        public void row(int rowNum, List<String> cells) throws ExcelParseException {
+            currentRow = rowNum;
+            if (columnIndices == null) {
+                if (rowNum != 0) {
+                    throw new ExcelParseException("Excel file has no header row");
                 }
+                columnIndices = findColumnIndices(cells);
+                return;
+            }
 
-                try {
-                    Student student = parseStudentRow(row, columnIndices, rowNum + 1);
-                    if (student != null) {
-                        students.add(student);
-                    }
-                } catch (Exception e) {
-                    errors.add("Row " + (rowNum + 1) + ": " + e.getMessage());
+            if (isRowEmpty(cells)) {
+                return;
+            }
+
+            try {
+                if (parseStudentRow(cells, columnIndices, branchPool, consumer)) {
+                    parsed++;
                 }
+            } catch (CancellationException e) {
+                throw e;
+            } catch (Exception e) {
+                errors.add("Row " + (rowNum + 1) + ": " + e.getMessage());
             }
         }
 
-        if (!errors.isEmpty() && students.isEmpty()) {
-            throw new ExcelParseException("Failed to parse any students. Errors:\n" + String.join("\n", errors));
+        /**
+         * Zero-based sheet row being parsed (valid inside the consumer).
+         */
+        int getCurrentRow() {
+            return currentRow;
         }
 
-        // Sort by roll number
-        students.sort(Comparator.comparing(Student::getRollNo));
+        int getParsedCount() {
+            return parsed;
+        }
 
-        return students;
+        List<String> getErrors() {
+            return errors;
+        }
+
+        /**
+         * Check the sheet as a whole once all rows have been seen.
+         */
+        void finish() throws ExcelParseException {
+            if (columnIndices == null) {
+                throw new ExcelParseException("Excel file has no header row");
+            }
+            if (!errors.isEmpty() && parsed == 0) {
+                throw new ExcelParseException("Failed to parse any students. Errors:\n" + String.join("\n", errors));
+            }
+        }
     }
 
     /**
      * Find column indices for expected headers.
      */
-    private static int[] findColumnIndices(Row headerRow) throws ExcelParseException {
+    static int[] findColumnIndices(List<String> headerCells) throws ExcelParseException {
         int[] indices = {-1, -1, -1, -1, -1}; // Name, RollNo, Year, Semester, Branch
 
-        for (int col = 0; col < headerRow.getLastCellNum(); col++) {
-            Cell cell = headerRow.getCell(col);
-            if (cell == null) continue;
-
-            String header = getCellStringValue(cell).trim().toLowerCase();
+        for (int col = 0; col < headerCells.size(); col++) {
+            String header = headerCells.get(col).trim().toLowerCase();
 
             if (header.contains("name") && !header.contains("roll")) {
                 indices[0] = col;
@@ -137,18 +243,21 @@ public class ExcelReader {
     }
 
     /**
-     * Parse a single row into a Student object.
+     * Parse a single row and pass its fields to the consumer.
+     *
+     * @return false if the row was skipped (no roll number)
      */
-    private static Student parseStudentRow(Row row, int[] columnIndices, int rowNumber) {
-        String name = getCellStringValue(row.getCell(columnIndices[0])).trim();
-        String rollNo = getCellStringValue(row.getCell(columnIndices[1])).trim();
-        String yearStr = getCellStringValue(row.getCell(columnIndices[2])).trim();
-        String semStr = getCellStringValue(row.getCell(columnIndices[3])).trim();
-        String branch = getCellStringValue(row.getCell(columnIndices[4])).trim();
+    private static boolean parseStudentRow(List<String> cells, int[] columnIndices, Map<String, String> branchPool,
+                                           RowConsumer consumer) {
+        String name = cell(cells, columnIndices[0]).trim();
+        String rollNo = cell(cells, columnIndices[1]).trim();
+        String yearStr = cell(cells, columnIndices[2]).trim();
+        String semStr = cell(cells, columnIndices[3]).trim();
+        String branch = cell(cells, columnIndices[4]).trim();
 
         // Skip if essential fields are empty
         if (rollNo.isEmpty()) {
-            return null;
+            return false;
         }
 
         // Parse numeric fields
@@ -167,43 +276,12 @@ public class ExcelReader {
             throw new RuntimeException("Invalid semester value: " + semStr);
         }
 
-        return new Student(name, rollNo, year, semester, branch.toUpperCase());
+        consumer.accept(name, rollNo, year, semester, branchPool.computeIfAbsent(branch, String::toUpperCase));
+        return true;
     }
 
-    /**
-     * Convert cell to string value regardless of cell type.
-     */
-    private static String getCellStringValue(Cell cell) {
-        if (cell == null) {
-            return "";
-        }
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                // Handle both integer and decimal numbers
-                double numValue = cell.getNumericCellValue();
-                if (numValue == Math.floor(numValue)) {
-                    return String.valueOf((long) numValue);
-                }
-                return String.valueOf(numValue);
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                try {
-                    return cell.getStringCellValue();
-                } catch (Exception e) {
-                    try {
-                        return String.valueOf(cell.getNumericCellValue());
-                    } catch (Exception e2) {
-                        return "";
-                    }
-                }
-            case BLANK:
-            default:
-                return "";
-        }
+    private static String cell(List<String> cells, int column) {
+        return column < cells.size() ? cells.get(column) : "";
     }
 
     /**
@@ -223,19 +301,22 @@ public class ExcelReader {
     /**
      * Check if a row is completely empty.
      */
-    private static boolean isRowEmpty(Row row) {
-        for (int c = 0; c < row.getLastCellNum(); c++) {
-            Cell cell = row.getCell(c);
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
-                String value = getCellStringValue(cell).trim();
-                if (!value.isEmpty()) {
-                    return false;
-                }
+    private static boolean isRowEmpty(List<String> cells) {
+        for (String value : cells) {
+            if (!value.trim().isEmpty()) {
+                return false;
             }
         }
         return true;
     }
 
+    /**
+     * Receives the fields of one parsed student row.
+     */
+    interface RowConsumer {
+        void accept(String name, String rollNo, int year, int semester, String branch);
+    }
+
     /**
      * Custom exception for Excel parsing errors.
      */
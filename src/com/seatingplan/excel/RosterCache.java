@@ -0,0 +1,359 @@
+package com.seatingplan.excel;
+
+import com.seatingplan.excel.ExcelReader.ExcelParseException;
+import com.seatingplan.model.Roster;
+import com.seatingplan.model.Student;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk cache of parsed rosters.
+ *
+ * After a roster file has been parsed once, its columns are written as a
+ * binary snapshot (see {@link Roster#writeSnapshot}). Later loads of the same
+ * file read the snapshot back in one bulk read instead of parsing the workbook
+ * again.
+ *
+ * Snapshots are named after the source path and store the source's size,
+ * modification time and CRC32C content hash. A snapshot is only used while all
+ * three still match, so edited files are reparsed automatically. The cache
+ * directory is kept under a size limit by evicting the least recently used
+ * snapshots.
+ *
+ * Neither snapshots nor source files are memory-mapped: on Windows a mapped
+ * file cannot be deleted or replaced until the mapping is garbage collected,
+ * which would block replacing outdated snapshots and saving the roster.
+ * Failing to read, write or delete a snapshot is never an import error; the
+ * file is simply parsed again.
+ */
+public class RosterCache {
+
+    private static final int MAGIC = 0x53505243;   // "SPRC"
+    private static final String SUFFIX = ".roster";
+    private static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    // Source files are hashed through a buffer of this size
+    private static final int HASH_BUFFER = 1 << 20;
+
+    private final Path directory;
+    private final long maxBytes;
+    private volatile IOException lastWriteFailure;
+
+    /**
+     * Cache in the user's home directory with the default size limit.
+     */
+    public RosterCache() {
+        this(Paths.get(System.getProperty("user.home"), ".seatingplan", "roster-cache"), DEFAULT_MAX_BYTES);
+    }
+
+    public RosterCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Load a roster file (.xlsx, .xls, .csv or .tsv), from the cache when the file is unchanged.
+     *
+     * @return Roster sorted by roll number
+     * @throws IOException If file cannot be read
+     * @throws ExcelParseException If file format is invalid
+     */
+    public Roster load(File source) throws IOException, ExcelParseException {
+        return load(source, null);
+    }
+
+    /**
+     * Load a roster file, passing every student to a listener as it becomes
+     * available: row by row while a workbook is parsed, or in one quick pass
+     * over the snapshot on a cache hit. An exception thrown by the listener
+     * aborts the load.
+     *
+     * @param onRow Listener for loaded rows, or null
+     * @return Roster sorted by roll number
+     */
+    public Roster load(File source, Consumer<Student> onRow) throws IOException, ExcelParseException {
+        if (!source.exists()) {
+            throw new IOException("File not found: " + source.getAbsolutePath());
+        }
+
+        Fingerprint before = Fingerprint.of(source);
+        Roster cached = read(source, before);
+        if (cached != null) {
+            replay(cached, onRow);
+            return cached;
+        }
+
+        Roster roster = parse(source, onRow);
+
+        // Only store what was parsed from a file that did not change meanwhile
+        if (Fingerprint.of(source).equals(before)) {
+            try {
+                write(source, before, roster);
+                lastWriteFailure = null;
+            } catch (IOException e) {
+                // The cache is an optimisation; a failed write is not an import failure
+                lastWriteFailure = e;
+            }
+        }
+        return roster;
+    }
+
+    /**
+     * Cached roster for the file, or null if there is no valid snapshot.
+     */
+    public Roster getIfPresent(File source) throws IOException {
+        return source.exists() ? read(source, Fingerprint.of(source)) : null;
+    }
+
+    /**
+     * Why the most recent snapshot write failed, or null if it succeeded.
+     */
+    public IOException getLastWriteFailure() {
+        return lastWriteFailure;
+    }
+
+    /**
+     * Delete all snapshots.
+     */
+    public void clear() throws IOException {
+        for (Path snapshot : listSnapshots()) {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private static Roster parse(File source, Consumer<Student> onRow) throws IOException, ExcelParseException {
+        if (CsvReader.isDelimitedText(source)) {
+            // Chunks are parsed in parallel, so rows are only available at the end
+            Roster roster = CsvReader.readRoster(source);
+            replay(roster, onRow);
+            return roster;
+        }
+        return ExcelReader.readRoster(source, onRow);
+    }
+
+    private static void replay(Roster roster, Consumer<Student> onRow) {
+        if (onRow != null) {
+            for (int i = 0; i < roster.size(); i++) {
+                onRow.accept(roster.get(i));
+            }
+        }
+    }
+
+    // ==================== SNAPSHOT FILES ====================
+
+    private Roster read(File source, Fingerprint expected) {
+        Path snapshot = snapshotPath(source);
+        if (!Files.exists(snapshot)) {
+            return null;
+        }
+
+        // Read onto the heap so no mapping keeps the file locked
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+        } catch (IOException e) {
+            return null;
+        }
+
+        Roster roster;
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a roster snapshot");
+            }
+            int pathLength = buffer.getInt();
+            if (pathLength < 0 || pathLength > buffer.remaining()) {
+                throw new IllegalArgumentException("Corrupt roster snapshot: bad path length");
+            }
+            byte[] pathBytes = new byte[pathLength];
+            buffer.get(pathBytes);
+            Fingerprint stored = new Fingerprint(new String(pathBytes, StandardCharsets.UTF_8),
+                                                 buffer.getLong(), buffer.getLong(), buffer.getLong());
+            if (!stored.equals(expected)) {
+                discard(snapshot);
+                return null;
+            }
+            roster = Roster.readSnapshot(buffer);
+        } catch (RuntimeException e) {
+            // Corrupt or outdated snapshot: drop it and reparse
+            discard(snapshot);
+            return null;
+        }
+
+        try {
+            Files.setLastModifiedTime(snapshot, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only affects eviction order
+        }
+        return roster;
+    }
+
+    /**
+     * Delete a snapshot if possible. A snapshot that cannot be deleted now is
+     * replaced or evicted later.
+     *
+     * @return Whether the snapshot is gone
+     */
+    private static boolean discard(Path snapshot) {
+        try {
+            Files.deleteIfExists(snapshot);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void write(File source, Fingerprint fingerprint, Roster roster) throws IOException {
+        Files.createDirectories(directory);
+        Path snapshot = snapshotPath(source);
+        Path temp = Files.createTempFile(directory, "snapshot", ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            byte[] pathBytes = fingerprint.path.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(MAGIC);
+            out.writeInt(pathBytes.length);
+            out.write(pathBytes);
+            out.writeLong(fingerprint.size);
+            out.writeLong(fingerprint.modified);
+            out.writeLong(fingerprint.hash);
+            roster.writeSnapshot(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            try {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        evict(snapshot);
+    }
+
+    /**
+     * Delete least recently used snapshots until the cache fits its limit.
+     * The snapshot just written is never evicted.
+     */
+    private void evict(Path keep) throws IOException {
+        List<Path> snapshots = listSnapshots();
+        long total = 0;
+        for (Path snapshot : snapshots) {
+            total += Files.size(snapshot);
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+
+        snapshots.sort(Comparator.comparing(RosterCache::lastUsed));
+        for (Path snapshot : snapshots) {
+            if (total <= maxBytes) {
+                break;
+            }
+            if (!snapshot.equals(keep)) {
+                long size = Files.size(snapshot);
+                if (discard(snapshot)) {
+                    total -= size;
+                }
+            }
+        }
+    }
+
+    private static FileTime lastUsed(Path snapshot) {
+        try {
+            return Files.getLastModifiedTime(snapshot);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path snapshot : stream) {
+                snapshots.add(snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Snapshot file for a source: SHA-256 of its absolute path.
+     */
+    private Path snapshotPath(File source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(source.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                name.append(String.format("%02x", hash[i]));
+            }
+            return directory.resolve(name + SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Identity of a source file's current contents.
+     */
+    private static class Fingerprint {
+        final String path;
+        final long size;
+        final long modified;
+        final long hash;
+
+        Fingerprint(String path, long size, long modified, long hash) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        static Fingerprint of(File file) throws IOException {
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long size = 0;
+                while (channel.read(buffer.clear()) > 0) {
+                    size += buffer.flip().remaining();
+                    crc.update(buffer);
+                }
+                return new Fingerprint(file.getAbsolutePath(), size, file.lastModified(), crc.getValue());
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Fingerprint)) return false;
+            Fingerprint other = (Fingerprint) obj;
+            return path.equals(other.path) && size == other.size &&
+                   modified == other.modified && hash == other.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode() ^ Long.hashCode(hash);
+        }
+    }
+}
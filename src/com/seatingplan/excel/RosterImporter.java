@@ -0,0 +1,414 @@
+package com.seatingplan.excel;
+
+import com.seatingplan.excel.ExcelReader.ExcelParseException;
+import com.seatingplan.model.SeatingConfig.StudentSortOrder;
+import com.seatingplan.model.Student;
+import com.seatingplan.util.NaturalOrder;
+import com.seatingplan.util.StudentOrdering;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Imports rosters spread over several workbooks and sheets.
+ *
+ * Every sheet is streamed on a bounded worker pool, and once it has been read
+ * completely its rows are merged into one concurrent roll-number index, so
+ * importing many department files takes about as long as the slowest one. A
+ * sheet that fails part-way contributes no rows. When a roll number shows up more than
+ * once, the record from the earliest source (file order, then sheet order, then
+ * row) is kept and every other occurrence is listed in the report, marked as a
+ * conflict when its fields differ.
+ */
+public class RosterImporter {
+
+    /**
+     * Import the first sheet of each file.
+     */
+    public static ImportReport importFiles(List<File> files) throws InterruptedException {
+        return importFiles(files, false, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Import several files, optionally reading every sheet of each.
+     *
+     * @param allSheets Read all sheets instead of only the first
+     * @param threads Maximum number of sheets parsed at the same time
+     */
+    public static ImportReport importFiles(List<File> files, boolean allSheets, int threads)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Source> sources = listSources(files, allSheets, pool);
+
+            ConcurrentHashMap<String, Entry> rollIndex = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, String> branchPool = new ConcurrentHashMap<>();
+            List<SheetTask> tasks = new ArrayList<>();
+            for (Source source : sources) {
+                if (source.failure == null) {
+                    tasks.add(new SheetTask(source, rollIndex, branchPool));
+                }
+            }
+            pool.invokeAll(tasks);
+
+            return buildReport(sources, rollIndex);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Expand files into (file, sheet) sources, in parallel.
+     * Files that cannot be opened become failed sources.
+     */
+    private static List<Source> listSources(List<File> files, boolean allSheets, ExecutorService pool)
+            throws InterruptedException {
+        List<Callable<List<Source>>> listings = new ArrayList<>();
+        for (File file : files) {
+            listings.add(() -> {
+                List<Source> sheets = new ArrayList<>();
+                try {
+                    if (!file.exists()) {
+                        throw new IOException("File not found: " + file.getAbsolutePath());
+                    }
+                    List<String> names = ExcelReader.sheetNames(file);
+                    int count = allSheets ? names.size() : Math.min(1, names.size());
+                    if (count == 0) {
+                        throw new ExcelParseException("Excel file has no sheets");
+                    }
+                    for (int i = 0; i < count; i++) {
+                        sheets.add(new Source(file, i, names.get(i)));
+                    }
+                } catch (IOException | ExcelParseException e) {
+                    Source failed = new Source(file, 0, null);
+                    failed.failure = e.getMessage();
+                    sheets.add(failed);
+                }
+                return sheets;
+            });
+        }
+
+        List<Source> sources = new ArrayList<>();
+        for (Future<List<Source>> listing : pool.invokeAll(listings)) {
+            try {
+                sources.addAll(listing.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Unexpected import failure", e.getCause());
+            }
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            sources.get(i).order = i;
+        }
+        return sources;
+    }
+
+    private static ImportReport buildReport(List<Source> sources, Map<String, Entry> rollIndex) {
+        List<Student> students = new ArrayList<>(rollIndex.size());
+        List<DuplicateRecord> duplicates = new ArrayList<>();
+
+        for (Entry entry : rollIndex.values()) {
+            students.add(entry.student);
+            if (entry.others != null) {
+                entry.others.sort(Comparator.comparing((Entry e) -> e.source.order).thenComparingInt(e -> e.row));
+                for (Entry other : entry.others) {
+                    duplicates.add(new DuplicateRecord(entry, other));
+                }
+            }
+        }
+
+        duplicates.sort(Comparator.comparing((DuplicateRecord d) -> d.getRollNo(),
+                                             NaturalOrder.COMPARATOR)
+                                  .thenComparing(d -> d.duplicate.source.order)
+                                  .thenComparingInt(d -> d.duplicate.row));
+
+        List<SourceSummary> summaries = new ArrayList<>();
+        for (Source source : sources) {
+            summaries.add(new SourceSummary(source));
+        }
+
+        return new ImportReport(StudentOrdering.sort(students, StudentSortOrder.ROLL_NUMBER),
+                                duplicates, summaries);
+    }
+
+    // ==================== WORKERS ====================
+
+    /**
+     * Streams one sheet, then merges its rows into the shared roll-number index
+     * if the whole sheet could be read.
+     */
+    private static class SheetTask implements Callable<Void>, ExcelReader.RowConsumer {
+        private final Source source;
+        private final ConcurrentHashMap<String, Entry> rollIndex;
+        private final ConcurrentHashMap<String, String> branchPool;
+        private final List<Entry> entries = new ArrayList<>();
+        private ExcelReader.SheetParser parser;
+
+        SheetTask(Source source, ConcurrentHashMap<String, Entry> rollIndex,
+                  ConcurrentHashMap<String, String> branchPool) {
+            this.source = source;
+            this.rollIndex = rollIndex;
+            this.branchPool = branchPool;
+        }
+
+        @Override
+        public Void call() {
+            parser = new ExcelReader.SheetParser(this);
+            try {
+                ExcelReader.readSheet(source.file, source.sheetIndex, parser);
+                parser.finish();
+                for (Entry incoming : entries) {
+                    rollIndex.compute(incoming.student.getRollNo(),
+                                      (roll, existing) -> existing == null ? incoming : existing.merge(incoming));
+                }
+                source.parsed = parser.getParsedCount();
+            } catch (IOException | ExcelParseException e) {
+                source.failure = e.getMessage();
+            } catch (RuntimeException e) {
+                source.failure = "Unexpected error: " + e;
+            }
+            source.rowErrors = parser.getErrors();
+            return null;
+        }
+
+        @Override
+        public void accept(String name, String rollNo, int year, int semester, String branch) {
+            String pooledBranch = branchPool.computeIfAbsent(branch, b -> b);
+            entries.add(new Entry(new Student(name, rollNo, year, semester, pooledBranch),
+                                  source, parser.getCurrentRow()));
+        }
+    }
+
+    /**
+     * One (file, sheet) pair to import.
+     */
+    private static class Source {
+        final File file;
+        final int sheetIndex;
+        final String sheetName;
+        int order;
+        volatile String failure;
+        volatile int parsed;
+        volatile List<String> rowErrors = Collections.emptyList();
+
+        Source(File file, int sheetIndex, String sheetName) {
+            this.file = file;
+            this.sheetIndex = sheetIndex;
+            this.sheetName = sheetName;
+        }
+
+        String describe() {
+            return sheetName != null ? file.getName() + " [" + sheetName + "]" : file.getName();
+        }
+    }
+
+    /**
+     * A student row and where it came from. The entry stored in the index is the
+     * earliest occurrence of its roll number; later ones collect in {@code others}.
+     * Only mutated inside {@link ConcurrentHashMap#compute}.
+     */
+    private static class Entry {
+        final Student student;
+        final Source source;
+        final int row;
+        List<Entry> others;
+
+        Entry(Student student, Source source, int row) {
+            this.student = student;
+            this.source = source;
+            this.row = row;
+        }
+
+        Entry merge(Entry incoming) {
+            Entry first = this;
+            Entry second = incoming;
+            if (incoming.source.order < source.order ||
+                (incoming.source == source && incoming.row < row)) {
+                first = incoming;
+                second = this;
+                first.others = this.others;
+                this.others = null;
+            }
+            if (first.others == null) {
+                first.others = new ArrayList<>(1);
+            }
+            first.others.add(second);
+            return first;
+        }
+
+        String location() {
+            return source.describe() + " row " + (row + 1);
+        }
+    }
+
+    // ==================== REPORT ====================
+
+    /**
+     * Merged roster plus everything that went wrong on the way.
+     */
+    public static class ImportReport {
+        private final List<Student> students;
+        private final List<DuplicateRecord> duplicates;
+        private final List<SourceSummary> sources;
+
+        ImportReport(List<Student> students, List<DuplicateRecord> duplicates, List<SourceSummary> sources) {
+            this.students = students;
+            this.duplicates = duplicates;
+            this.sources = sources;
+        }
+
+        /**
+         * One student per roll number, sorted by roll number.
+         */
+        public List<Student> getStudents() {
+            return Collections.unmodifiableList(students);
+        }
+
+        /**
+         * Every occurrence of a roll number after the kept one.
+         */
+        public List<DuplicateRecord> getDuplicates() {
+            return Collections.unmodifiableList(duplicates);
+        }
+
+        /**
+         * Duplicates whose fields differ from the kept record.
+         */
+        public List<DuplicateRecord> getConflicts() {
+            List<DuplicateRecord> conflicts = new ArrayList<>();
+            for (DuplicateRecord duplicate : duplicates) {
+                if (duplicate.isConflict()) {
+                    conflicts.add(duplicate);
+                }
+            }
+            return conflicts;
+        }
+
+        public List<SourceSummary> getSources() {
+            return Collections.unmodifiableList(sources);
+        }
+
+        public boolean hasProblems() {
+            if (!duplicates.isEmpty()) return true;
+            for (SourceSummary source : sources) {
+                if (source.isFailed() || !source.getRowErrors().isEmpty()) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Multi-line, human-readable summary.
+         */
+        public String getSummary() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(students.size()).append(" students from ").append(sources.size()).append(" source(s)\n");
+            for (SourceSummary source : sources) {
+                sb.append("  ").append(source).append('\n');
+            }
+            int conflicts = getConflicts().size();
+            sb.append(duplicates.size() - conflicts).append(" duplicate(s), ")
+              .append(conflicts).append(" conflict(s)");
+            for (DuplicateRecord duplicate : duplicates) {
+                sb.append("\n  ").append(duplicate);
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return "ImportReport{" + students.size() + " students, " + duplicates.size() + " duplicates, " +
+                    sources.size() + " sources}";
+        }
+    }
+
+    /**
+     * A roll number seen again after the record that was kept.
+     */
+    public static class DuplicateRecord {
+        private final Entry kept;
+        private final Entry duplicate;
+        private final List<String> differingFields = new ArrayList<>();
+
+        DuplicateRecord(Entry kept, Entry duplicate) {
+            this.kept = kept;
+            this.duplicate = duplicate;
+
+            Student a = kept.student;
+            Student b = duplicate.student;
+            if (!Objects.equals(a.getName(), b.getName())) differingFields.add("Name");
+            if (a.getYear() != b.getYear()) differingFields.add("Year");
+            if (a.getSemester() != b.getSemester()) differingFields.add("Semester");
+            if (!Objects.equals(a.getBranch(), b.getBranch())) differingFields.add("Branch");
+        }
+
+        public String getRollNo() { return kept.student.getRollNo(); }
+        public Student getKept() { return kept.student; }
+        public Student getDuplicate() { return duplicate.student; }
+        public String getKeptLocation() { return kept.location(); }
+        public String getDuplicateLocation() { return duplicate.location(); }
+
+        /**
+         * True if the records disagree on any field, rather than being exact repeats.
+         */
+        public boolean isConflict() {
+            return !differingFields.isEmpty();
+        }
+
+        public List<String> getDifferingFields() {
+            return Collections.unmodifiableList(differingFields);
+        }
+
+        @Override
+        public String toString() {
+            return getRollNo() + ": " + getDuplicateLocation() +
+                    (isConflict() ? " conflicts with " : " repeats ") + getKeptLocation() +
+                    (isConflict() ? " (" + String.join(", ", differingFields) + ")" : "");
+        }
+    }
+
+    /**
+     * Outcome for one (file, sheet) source.
+     */
+    public static class SourceSummary {
+        private final File file;
+        private final String sheetName;
+        private final String description;
+        private final int parsedCount;
+        private final List<String> rowErrors;
+        private final String failure;
+
+        SourceSummary(Source source) {
+            this.file = source.file;
+            this.sheetName = source.sheetName;
+            this.description = source.describe();
+            this.parsedCount = source.parsed;
+            this.rowErrors = source.rowErrors;
+            this.failure = source.failure;
+        }
+
+        public File getFile() { return file; }
+        public String getSheetName() { return sheetName; }
+        /**
+         * Rows imported from the source; 0 if it failed, since none of its rows are kept.
+         */
+        public int getParsedCount() { return parsedCount; }
+        public List<String> getRowErrors() { return Collections.unmodifiableList(rowErrors); }
+
+        /**
+         * Why the source could not be read, or null.
+         */
+        public String getFailure() { return failure; }
+
+        public boolean isFailed() { return failure != null; }
+
+        @Override
+        public String toString() {
+            if (failure != null) {
+                return description + ": failed - " + failure.split("\n")[0];
+            }
+            return description + ": " + parsedCount + " rows" +
+                    (rowErrors.isEmpty() ? "" : ", " + rowErrors.size() + " bad row(s)");
+        }
+    }
+}
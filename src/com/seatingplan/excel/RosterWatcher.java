@@ -0,0 +1,157 @@
+package com.seatingplan.excel;
+
+import com.seatingplan.model.Roster;
+import com.seatingplan.model.RosterDiff;
+import com.seatingplan.model.Student;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches an imported roster file and reports row-level changes.
+ *
+ * The file's directory is registered with a {@link WatchService}. After an
+ * event for the file, the watcher waits until the file has been quiet for a
+ * short time (spreadsheet programs save through temporary files and several
+ * writes), reloads it through the {@link RosterCache} streaming path and
+ * compares it by roll number with the previous version. Only a non-empty
+ * {@link RosterDiff} is passed on.
+ *
+ * Listener methods are called on the watcher's own thread.
+ */
+public class RosterWatcher implements Closeable {
+
+    // Quiet period after the last event before the file is reloaded
+    private static final long SETTLE_MILLIS = 500;
+
+    /**
+     * Receives the outcome of each reload.
+     */
+    public interface Listener {
+        /**
+         * @param diff    Changes relative to the previous version
+         * @param roster  The new roster, sorted by roll number
+         * @param current The new roster's rows as student objects
+         */
+        void rosterChanged(RosterDiff diff, Roster roster, List<Student> current);
+
+        /**
+         * The changed file could not be read (for example while it is still
+         * being written). The previous version stays the baseline.
+         */
+        void reloadFailed(Exception error);
+    }
+
+    private final File file;
+    private final RosterCache cache;
+    private final Listener listener;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private List<Student> current;
+
+    /**
+     * Start watching a file.
+     *
+     * @param loaded The version of the roster that is currently loaded
+     * @throws IOException If the directory cannot be watched
+     */
+    public RosterWatcher(File file, RosterCache cache, List<Student> loaded, Listener listener) throws IOException {
+        this.file = file.getAbsoluteFile();
+        this.cache = cache;
+        this.listener = listener;
+        this.current = new ArrayList<>(loaded);
+
+        Path directory = this.file.getParentFile().toPath();
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        this.thread = new Thread(this::run, "roster-watch-" + file.getName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Stop watching. No listener calls are made after this returns,
+     * except one already in progress.
+     */
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        watchService.close();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean touched = pollEvents(key);
+                if (!key.reset()) {
+                    return;         // directory gone
+                }
+                if (!touched) {
+                    continue;
+                }
+
+                // Wait until the writes stop
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    pollEvents(key);
+                    if (!key.reset()) {
+                        return;
+                    }
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    /**
+     * Drain a key's events.
+     *
+     * @return Whether any of them concerned the watched file
+     */
+    private boolean pollEvents(WatchKey key) {
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW ||
+                    file.getName().equals(String.valueOf(event.context()))) {
+                touched = true;
+            }
+        }
+        return touched;
+    }
+
+    private void reload() {
+        if (!file.exists()) {
+            return;                 // mid-save rename; the create event follows
+        }
+        Roster roster;
+        List<Student> loaded;
+        try {
+            roster = cache.load(file);
+            loaded = roster.toStudents();
+        } catch (Exception e) {
+            if (!Thread.currentThread().isInterrupted()) {
+                listener.reloadFailed(e);
+            }
+            return;
+        }
+
+        RosterDiff diff = RosterDiff.between(current, loaded);
+        current = loaded;
+        if (!diff.isEmpty() && !Thread.currentThread().isInterrupted()) {
+            listener.rosterChanged(diff, roster, loaded);
+        }
+    }
+}
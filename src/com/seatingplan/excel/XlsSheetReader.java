@@ -0,0 +1,233 @@
+package com.seatingplan.excel;
+
+import com.seatingplan.excel.ExcelReader.ExcelParseException;
+
+import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.hssf.OldExcelFormatException;
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.*;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.RecordFormatException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the rows of a legacy .xls (BIFF8) sheet with POI's HSSF event API.
+ *
+ * Records are processed as they are read from the workbook stream instead of
+ * being built into an HSSFWorkbook, so memory use is bounded by the shared
+ * string table rather than the number of rows. Cell values are converted to
+ * strings exactly like {@link XlsxSheetReader} does, so both formats produce
+ * the same rows.
+ */
+class XlsSheetReader {
+
+    // AbortableHSSFListener return codes
+    private static final short CONTINUE = 0;
+    private static final short ABORT = 1;
+
+    /**
+     * Stream one sheet of an .xls file.
+     *
+     * @param sheetIndex Zero-based sheet position in the workbook
+     */
+    static void read(File file, int sheetIndex, XlsxSheetReader.RowHandler handler)
+            throws IOException, ExcelParseException {
+        SheetListener listener = new SheetListener(sheetIndex, handler);
+        process(file, listener);
+        if (!listener.found) {
+            throw new ExcelParseException(sheetIndex == 0 ? "Excel file has no sheets"
+                    : "Excel file has no sheet " + (sheetIndex + 1));
+        }
+    }
+
+    /**
+     * Sheet names in workbook order.
+     */
+    static List<String> sheetNames(File file) throws IOException, ExcelParseException {
+        List<BoundSheetRecord> sheets = new ArrayList<>();
+        process(file, new AbortableHSSFListener() {
+            @Override
+            public short abortableProcessRecord(Record record) {
+                if (record instanceof BoundSheetRecord) {
+                    sheets.add((BoundSheetRecord) record);
+                }
+                // Sheet names are all in the workbook globals, before the first EOF
+                return record instanceof EOFRecord ? ABORT : CONTINUE;
+            }
+        });
+
+        List<String> names = new ArrayList<>();
+        for (BoundSheetRecord sheet : BoundSheetRecord.orderByBofPosition(sheets)) {
+            names.add(sheet.getSheetname());
+        }
+        return names;
+    }
+
+    private static void process(File file, AbortableHSSFListener listener) throws IOException, ExcelParseException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true)) {
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(listener);
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+        } catch (HSSFUserException e) {
+            // Raised by the row handler
+            if (e.getCause() instanceof ExcelParseException) {
+                throw (ExcelParseException) e.getCause();
+            }
+            throw new ExcelParseException("Invalid Excel file: " + e.getMessage());
+        } catch (OldExcelFormatException e) {
+            throw new ExcelParseException("Excel 5.0/95 files are not supported; save as .xls (97-2003) or .xlsx");
+        } catch (EncryptedDocumentException e) {
+            throw new ExcelParseException("Password-protected Excel files are not supported: " + file.getName());
+        } catch (RecordFormatException | IllegalArgumentException e) {
+            throw new ExcelParseException("Invalid Excel file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Collects cell values per row for one worksheet and stops at its end.
+     */
+    private static class SheetListener extends AbortableHSSFListener {
+        private final int sheetIndex;
+        private final XlsxSheetReader.RowHandler rowHandler;
+
+        private final List<String> cells = new ArrayList<>();
+
+        private SSTRecord strings;
+        private int sheet = -1;
+        private boolean inSheet;
+        private boolean found;
+        private int rowNum = -1;
+
+        // Cell waiting for the StringRecord holding its formula result
+        private int pendingFormulaColumn = -1;
+
+        SheetListener(int sheetIndex, XlsxSheetReader.RowHandler rowHandler) {
+            this.sheetIndex = sheetIndex;
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) throws HSSFUserException {
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                        inSheet = ++sheet == sheetIndex;
+                        found |= inSheet;
+                    }
+                    return CONTINUE;
+                case SSTRecord.sid:
+                    strings = (SSTRecord) record;
+                    return CONTINUE;
+                case EOFRecord.sid:
+                    if (inSheet) {
+                        flushRow();
+                        return ABORT;
+                    }
+                    return CONTINUE;
+                default:
+                    break;
+            }
+            if (!inSheet) {
+                return CONTINUE;
+            }
+
+            switch (record.getSid()) {
+                case LabelSSTRecord.sid: {
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    setCell(label.getRow(), label.getColumn(), strings.getString(label.getSSTIndex()).getString());
+                    break;
+                }
+                case LabelRecord.sid: {
+                    LabelRecord label = (LabelRecord) record;
+                    setCell(label.getRow(), label.getColumn(), label.getValue());
+                    break;
+                }
+                case NumberRecord.sid: {
+                    NumberRecord number = (NumberRecord) record;
+                    setCell(number.getRow(), number.getColumn(), XlsxSheetReader.formatNumber(number.getValue()));
+                    break;
+                }
+                case BoolErrRecord.sid: {
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    setCell(boolErr.getRow(), boolErr.getColumn(),
+                            boolErr.isBoolean() ? String.valueOf(boolErr.getBooleanValue()) : "");
+                    break;
+                }
+                case FormulaRecord.sid:
+                    formulaResult((FormulaRecord) record);
+                    break;
+                case StringRecord.sid:
+                    if (pendingFormulaColumn >= 0) {
+                        setCell(rowNum, pendingFormulaColumn, ((StringRecord) record).getString());
+                        pendingFormulaColumn = -1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return CONTINUE;
+        }
+
+        /**
+         * Formula cells contribute their cached result, like in the .xlsx reader.
+         */
+        private void formulaResult(FormulaRecord formula) throws HSSFUserException {
+            int row = formula.getRow();
+            int col = formula.getColumn();
+            switch (formula.getCachedResultTypeEnum()) {
+                case STRING:
+                    setCell(row, col, "");
+                    pendingFormulaColumn = col;    // value follows in a StringRecord
+                    break;
+                case NUMERIC:
+                    setCell(row, col, XlsxSheetReader.formatNumber(formula.getValue()));
+                    break;
+                case BOOLEAN:
+                    setCell(row, col, String.valueOf(formula.getCachedBooleanValue()));
+                    break;
+                default:
+                    setCell(row, col, "");
+                    break;
+            }
+        }
+
+        /**
+         * Cell records arrive in row order; a new row number completes the previous row.
+         */
+        private void setCell(int row, int col, String value) throws HSSFUserException {
+            if (row != rowNum) {
+                flushRow();
+                rowNum = row;
+            }
+            while (cells.size() < col) {
+                cells.add("");
+            }
+            if (cells.size() == col) {
+                cells.add(value);
+            } else {
+                cells.set(col, value);
+            }
+        }
+
+        private void flushRow() throws HSSFUserException {
+            if (rowNum < 0) {
+                return;
+            }
+            try {
+                rowHandler.row(rowNum, cells);
+            } catch (ExcelParseException e) {
+                throw new HSSFUserException(e.getMessage(), e);
+            }
+            cells.clear();
+            rowNum = -1;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.seatingplan.excel;
+
+import com.seatingplan.excel.ExcelReader.ExcelParseException;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the rows of an .xlsx sheet with POI's event model.
+ *
+ * The sheet XML is parsed with SAX instead of being loaded into a workbook, so
+ * memory use does not grow with the number of rows. Cell values are converted
+ * to strings the same way as the workbook-based reader: whole numbers without
+ * a decimal part, booleans as "true"/"false", errors and blanks as "".
+ */
+class XlsxSheetReader {
+
+    /**
+     * Receives each non-missing row of the sheet.
+     * The cell list is reused for the next row.
+     */
+    interface RowHandler {
+        void row(int rowNum, List<String> cells) throws ExcelParseException;
+    }
+
+    /**
+     * Stream one sheet of an .xlsx file.
+     *
+     * @param sheetIndex Zero-based sheet position in the workbook
+     */
+    static void read(File file, int sheetIndex, RowHandler handler) throws IOException, ExcelParseException {
+        try (OPCPackage pkg = open(file)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            for (int i = 0; sheets.hasNext(); i++) {
+                try (InputStream sheet = sheets.next()) {
+                    if (i == sheetIndex) {
+                        parse(sheet, new SheetHandler(strings, handler));
+                        return;
+                    }
+                }
+            }
+            throw new ExcelParseException(sheetIndex == 0 ? "Excel file has no sheets"
+                    : "Excel file has no sheet " + (sheetIndex + 1));
+        } catch (OpenXML4JException | SAXException e) {
+            throw new ExcelParseException("Invalid Excel file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sheet names in workbook order.
+     */
+    static List<String> sheetNames(File file) throws IOException, ExcelParseException {
+        try (OPCPackage pkg = open(file)) {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            List<String> names = new ArrayList<>();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                names.add(sheets.getSheetName());
+            }
+            return names;
+        } catch (OpenXML4JException e) {
+            throw new ExcelParseException("Invalid Excel file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Whole numbers without a decimal part, as in the workbook reader.
+     */
+    static String formatNumber(double value) {
+        if (value == Math.floor(value) && !Double.isInfinite(value)) {
+            return String.valueOf((long) value);
+        }
+        return String.valueOf(value);
+    }
+
+    private static OPCPackage open(File file) throws IOException, ExcelParseException {
+        try {
+            return OPCPackage.open(file, PackageAccess.READ);
+        } catch (InvalidFormatException | NotOfficeXmlFileException e) {
+            throw new ExcelParseException("Not a valid .xlsx file: " + file.getName());
+        }
+    }
+
+    private static void parse(InputStream sheet, SheetHandler handler) throws IOException, SAXException,
+                                                                          ExcelParseException {
+        XMLReader parser;
+        try {
+            parser = XMLHelper.newXMLReader();
+        } catch (ParserConfigurationException e) {
+            throw new IOException("Cannot create XML parser", e);
+        }
+        parser.setContentHandler(handler);
+        try {
+            parser.parse(new InputSource(sheet));
+        } catch (SAXException e) {
+            // Unwrap errors raised by the row handler
+            if (e.getException() instanceof ExcelParseException) {
+                throw (ExcelParseException) e.getException();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * SAX handler for one worksheet part: collects cell values per row.
+     */
+    private static class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable strings;
+        private final RowHandler rowHandler;
+
+        private final List<String> cells = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+
+        private int rowNum = -1;
+        private int column;
+        private String cellType;
+        private boolean inValue;
+        private boolean inInlineString;
+
+        SheetHandler(ReadOnlySharedStringsTable strings, RowHandler rowHandler) {
+            this.strings = strings;
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row": {
+                    String r = attributes.getValue("r");
+                    rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                    cells.clear();
+                    column = -1;
+                    break;
+                }
+                case "c": {
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? columnOf(ref) : column + 1;
+                    cellType = attributes.getValue("t");
+                    text.setLength(0);
+                    break;
+                }
+                case "v":
+                    inValue = true;
+                    break;
+                case "is":
+                    inInlineString = true;
+                    break;
+                case "t":
+                    if (inInlineString) inValue = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "is":
+                    inInlineString = false;
+                    break;
+                case "c":
+                    while (cells.size() < column) {
+                        cells.add("");
+                    }
+                    cells.add(cellValue());
+                    break;
+                case "row":
+                    try {
+                        rowHandler.row(rowNum, cells);
+                    } catch (ExcelParseException e) {
+                        throw new SAXException(e);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private String cellValue() {
+            String raw = text.toString();
+            if (cellType == null || cellType.equals("n")) {
+                return raw.isEmpty() ? "" : formatNumber(raw);
+            }
+            switch (cellType) {
+                case "s":
+                    return raw.isEmpty() ? "" : strings.getItemAt(Integer.parseInt(raw.trim())).getString();
+                case "b":
+                    return raw.equals("1") ? "true" : raw.isEmpty() ? "" : "false";
+                case "e":
+                    return "";
+                case "str":
+                case "inlineStr":
+                default:
+                    return raw;
+            }
+        }
+
+        private static String formatNumber(String raw) {
+            try {
+                return XlsxSheetReader.formatNumber(Double.parseDouble(raw));
+            } catch (NumberFormatException e) {
+                return raw;
+            }
+        }
+
+        /**
+         * Zero-based column of a cell reference such as "AB12".
+         */
+        private static int columnOf(String ref) {
+            int col = 0;
+            for (int i = 0; i < ref.length(); i++) {
+                char ch = ref.charAt(i);
+                if (ch < 'A' || ch > 'Z') break;
+                col = col * 26 + (ch - 'A' + 1);
+            }
+            return col - 1;
+        }
+    }
+}
@@ -0,0 +1,524 @@
+package com.seatingplan.model;
+
+import com.seatingplan.model.SeatingConfig.StudentSortOrder;
+import com.seatingplan.util.StudentOrdering;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact, column-oriented student list for large rosters.
+ *
+ * Names and roll numbers are stored as UTF-8 bytes in one pooled array per
+ * column with an offset table, year and semester as bytes, and branch as a
+ * code into a small dictionary (so every "CSE" row shares one String).
+ * {@link Student} objects are only created when a row is actually read.
+ * Sorted orders are computed once per {@link StudentSortOrder} and cached.
+ */
+public class Roster implements StudentOrdering.Source {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private int size;
+
+    // Pooled string columns: value i is data[offset[i] .. offset[i + 1])
+    private byte[] nameData = new byte[INITIAL_CAPACITY * 16];
+    private int[] nameOffsets = new int[INITIAL_CAPACITY + 1];
+    private byte[] rollData = new byte[INITIAL_CAPACITY * 12];
+    private int[] rollOffsets = new int[INITIAL_CAPACITY + 1];
+
+    private byte[] years = new byte[INITIAL_CAPACITY];
+    private byte[] semesters = new byte[INITIAL_CAPACITY];
+
+    // Branch dictionary
+    private short[] branchCodes = new short[INITIAL_CAPACITY];
+    private final List<String> branches = new ArrayList<>();
+    private final Map<String, Short> branchIndex = new HashMap<>();
+
+    // Cached row permutations per sort order (never for RANDOM)
+    private final Map<StudentSortOrder, int[]> orderCache = new EnumMap<>(StudentSortOrder.class);
+
+    public Roster() {
+    }
+
+    /**
+     * Build a roster from existing student objects.
+     */
+    public static Roster fromStudents(Collection<Student> students) {
+        Roster roster = new Roster();
+        for (Student student : students) {
+            roster.add(student);
+        }
+        roster.trimToSize();
+        return roster;
+    }
+
+    /**
+     * Append a student.
+     */
+    public void add(Student student) {
+        add(student.getName(), student.getRollNo(), student.getYear(), student.getSemester(), student.getBranch());
+    }
+
+    /**
+     * Append a student row.
+     *
+     * @throws IllegalArgumentException If year or semester does not fit in a byte
+     */
+    public void add(String name, String rollNo, int year, int semester, String branch) {
+        checkByteRange(year, semester);
+        ensureRowCapacity(size + 1);
+
+        nameData = append(nameData, nameOffsets, size, name);
+        rollData = append(rollData, rollOffsets, size, rollNo);
+        years[size] = (byte) year;
+        semesters[size] = (byte) semester;
+        branchCodes[size] = branchCode(branch);
+
+        size++;
+        orderCache.clear();
+    }
+
+    /**
+     * Append a row whose name and roll number are already UTF-8 encoded,
+     * copying the bytes straight into the pooled columns.
+     *
+     * @throws IllegalArgumentException If year or semester does not fit in a byte
+     */
+    public void addEncoded(byte[] data, int nameStart, int nameLength, int rollStart, int rollLength,
+                           int year, int semester, String branch) {
+        checkByteRange(year, semester);
+        ensureRowCapacity(size + 1);
+
+        nameData = copyValue(data, nameStart, nameLength, nameData, nameOffsets, size);
+        rollData = copyValue(data, rollStart, rollLength, rollData, rollOffsets, size);
+        years[size] = (byte) year;
+        semesters[size] = (byte) semester;
+        branchCodes[size] = branchCode(branch);
+
+        size++;
+        orderCache.clear();
+    }
+
+    /**
+     * Append all rows of another roster, remapping its branch codes.
+     */
+    public void addAll(Roster other) {
+        short[] remap = new short[other.branches.size()];
+        for (int i = 0; i < remap.length; i++) {
+            remap[i] = branchCode(other.branches.get(i));
+        }
+
+        ensureRowCapacity(size + other.size);
+        nameData = appendColumn(nameData, nameOffsets, other.nameData, other.nameOffsets, other.size);
+        rollData = appendColumn(rollData, rollOffsets, other.rollData, other.rollOffsets, other.size);
+        System.arraycopy(other.years, 0, years, size, other.size);
+        System.arraycopy(other.semesters, 0, semesters, size, other.size);
+        for (int i = 0; i < other.size; i++) {
+            branchCodes[size + i] = remap[other.branchCodes[i]];
+        }
+
+        size += other.size;
+        orderCache.clear();
+    }
+
+    private byte[] appendColumn(byte[] data, int[] offsets, byte[] otherData, int[] otherOffsets, int otherSize) {
+        int base = offsets[size];
+        int length = otherOffsets[otherSize];
+        if (base + length > data.length) {
+            data = Arrays.copyOf(data, Math.max(base + length, data.length * 2));
+        }
+        System.arraycopy(otherData, 0, data, base, length);
+        for (int i = 1; i <= otherSize; i++) {
+            offsets[size + i] = base + otherOffsets[i];
+        }
+        return data;
+    }
+
+    private static void checkByteRange(int year, int semester) {
+        if (year < Byte.MIN_VALUE || year > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Year out of range: " + year);
+        }
+        if (semester < Byte.MIN_VALUE || semester > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Semester out of range: " + semester);
+        }
+    }
+
+    /**
+     * Dictionary code for a branch, registering it on first sight.
+     */
+    private short branchCode(String branch) {
+        String key = branch != null ? branch : "";
+        Short code = branchIndex.get(key);
+        if (code == null) {
+            if (branches.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct branches");
+            }
+            code = (short) branches.size();
+            branches.add(key);
+            branchIndex.put(key, code);
+        }
+        return code;
+    }
+
+    private static byte[] append(byte[] data, int[] offsets, int index, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int start = offsets[index];
+        int end = start + bytes.length;
+        if (end > data.length) {
+            data = Arrays.copyOf(data, Math.max(end, data.length * 2));
+        }
+        System.arraycopy(bytes, 0, data, start, bytes.length);
+        offsets[index + 1] = end;
+        return data;
+    }
+
+    private void ensureRowCapacity(int rows) {
+        if (rows <= years.length) {
+            return;
+        }
+        int newCapacity = Math.max(rows, years.length * 2);
+        nameOffsets = Arrays.copyOf(nameOffsets, newCapacity + 1);
+        rollOffsets = Arrays.copyOf(rollOffsets, newCapacity + 1);
+        years = Arrays.copyOf(years, newCapacity);
+        semesters = Arrays.copyOf(semesters, newCapacity);
+        branchCodes = Arrays.copyOf(branchCodes, newCapacity);
+    }
+
+    /**
+     * Release spare capacity once loading is complete.
+     */
+    public void trimToSize() {
+        nameData = Arrays.copyOf(nameData, nameOffsets[size]);
+        rollData = Arrays.copyOf(rollData, rollOffsets[size]);
+        nameOffsets = Arrays.copyOf(nameOffsets, size + 1);
+        rollOffsets = Arrays.copyOf(rollOffsets, size + 1);
+        years = Arrays.copyOf(years, size);
+        semesters = Arrays.copyOf(semesters, size);
+        branchCodes = Arrays.copyOf(branchCodes, size);
+    }
+
+    // ==================== SNAPSHOTS ====================
+
+    /**
+     * Write the columns in a compact binary form that {@link #readSnapshot}
+     * loads back with bulk copies and no parsing.
+     */
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        int[] rollOrder = orderCache.get(StudentSortOrder.ROLL_NUMBER);
+
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(size);
+        out.writeBoolean(rollOrder != null && Arrays.equals(rollOrder, identity(size)));
+
+        out.writeInt(branches.size());
+        for (String branch : branches) {
+            byte[] bytes = branch.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        writeColumn(out, nameData, nameOffsets);
+        writeColumn(out, rollData, rollOffsets);
+        out.write(years, 0, size);
+        out.write(semesters, 0, size);
+        for (int i = 0; i < size; i++) {
+            out.writeShort(branchCodes[i]);
+        }
+    }
+
+    private void writeColumn(DataOutputStream out, byte[] data, int[] offsets) throws IOException {
+        out.writeInt(offsets[size]);
+        out.write(data, 0, offsets[size]);
+        for (int i = 0; i <= size; i++) {
+            out.writeInt(offsets[i]);
+        }
+    }
+
+    /**
+     * Load a roster written by {@link #writeSnapshot}, e.g. from a memory-mapped file.
+     *
+     * @throws IllegalArgumentException If the snapshot is from another version or inconsistent
+     * @throws java.nio.BufferUnderflowException If the snapshot is truncated
+     */
+    public static Roster readSnapshot(ByteBuffer in) {
+        if (in.getInt() != SNAPSHOT_VERSION) {
+            throw new IllegalArgumentException("Unsupported roster snapshot version");
+        }
+        // Each row takes at least a year, a semester and a branch code
+        int rows = readLength(in, 4);
+        boolean rollSorted = in.get() != 0;
+
+        Roster roster = new Roster();
+        int branchCount = readLength(in, 4);
+        for (int i = 0; i < branchCount; i++) {
+            byte[] bytes = new byte[readLength(in, 1)];
+            in.get(bytes);
+            roster.branchCode(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        roster.nameData = readColumnData(in);
+        roster.nameOffsets = readOffsets(in, rows, roster.nameData.length);
+        roster.rollData = readColumnData(in);
+        roster.rollOffsets = readOffsets(in, rows, roster.rollData.length);
+
+        roster.years = new byte[rows];
+        in.get(roster.years);
+        roster.semesters = new byte[rows];
+        in.get(roster.semesters);
+        roster.branchCodes = new short[rows];
+        in.asShortBuffer().get(roster.branchCodes);
+        in.position(in.position() + rows * 2);
+
+        for (short code : roster.branchCodes) {
+            if (code < 0 || code >= branchCount) {
+                throw new IllegalArgumentException("Corrupt roster snapshot: bad branch code " + code);
+            }
+        }
+
+        roster.size = rows;
+        if (rollSorted) {
+            roster.orderCache.put(StudentSortOrder.ROLL_NUMBER, identity(rows));
+        }
+        return roster;
+    }
+
+    /**
+     * Read a count of elements that each take at least {@code elementBytes}
+     * of the remaining input, so a corrupt count fails before anything is allocated.
+     */
+    private static int readLength(ByteBuffer in, int elementBytes) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining() / elementBytes) {
+            throw new IllegalArgumentException("Corrupt roster snapshot: bad length " + length);
+        }
+        return length;
+    }
+
+    private static byte[] readColumnData(ByteBuffer in) {
+        byte[] data = new byte[readLength(in, 1)];
+        in.get(data);
+        return data;
+    }
+
+    private static int[] readOffsets(ByteBuffer in, int rows, int dataLength) {
+        int[] offsets = new int[rows + 1];
+        in.asIntBuffer().get(offsets);
+        in.position(in.position() + offsets.length * 4);
+        for (int i = 0; i < rows; i++) {
+            if (offsets[i] > offsets[i + 1]) {
+                throw new IllegalArgumentException("Corrupt roster snapshot: offsets out of order");
+            }
+        }
+        if (offsets[0] != 0 || offsets[rows] != dataLength) {
+            throw new IllegalArgumentException("Corrupt roster snapshot: column length mismatch");
+        }
+        return offsets;
+    }
+
+    // ==================== COLUMN ACCESS ====================
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String getName(int index) {
+        checkIndex(index);
+        return decode(nameData, nameOffsets, index);
+    }
+
+    @Override
+    public String getRollNo(int index) {
+        checkIndex(index);
+        return decode(rollData, rollOffsets, index);
+    }
+
+    @Override
+    public int getYear(int index) {
+        checkIndex(index);
+        return years[index];
+    }
+
+    public int getSemester(int index) {
+        checkIndex(index);
+        return semesters[index];
+    }
+
+    @Override
+    public String getBranch(int index) {
+        return branches.get(getBranchCode(index));
+    }
+
+    public int getBranchCode(int index) {
+        checkIndex(index);
+        return branchCodes[index];
+    }
+
+    /**
+     * Distinct branches in first-seen order; positions match branch codes.
+     */
+    public List<String> getBranches() {
+        return Collections.unmodifiableList(branches);
+    }
+
+    /**
+     * Number of students per branch code.
+     */
+    public int[] countByBranch() {
+        int[] counts = new int[branches.size()];
+        for (int i = 0; i < size; i++) {
+            counts[branchCodes[i]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Row indices in the given order. Computed on first use and cached,
+     * so later calls for the same order do no sorting; RANDOM is
+     * reshuffled on every call.
+     */
+    public int[] getOrder(StudentSortOrder order) {
+        if (order == StudentSortOrder.RANDOM) {
+            return StudentOrdering.order(this, order);
+        }
+        return orderCache.computeIfAbsent(order, o -> StudentOrdering.order(this, o)).clone();
+    }
+
+    /**
+     * Students materialised in the given order.
+     */
+    public List<Student> getStudents(StudentSortOrder order) {
+        int[] permutation = getOrder(order);
+        List<Student> students = new ArrayList<>(permutation.length);
+        for (int index : permutation) {
+            students.add(get(index));
+        }
+        return students;
+    }
+
+    /**
+     * Copy of this roster with rows ordered by roll number (natural order).
+     */
+    public Roster sortedByRollNo() {
+        Roster sorted = reorder(getOrder(StudentSortOrder.ROLL_NUMBER));
+        sorted.orderCache.put(StudentSortOrder.ROLL_NUMBER, identity(size));
+        return sorted;
+    }
+
+    private static int[] identity(int n) {
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutation[i] = i;
+        }
+        return permutation;
+    }
+
+    /**
+     * Copy of this roster with rows taken in the given order.
+     * The branch dictionary is shared in the same code order.
+     */
+    public Roster reorder(int[] permutation) {
+        Roster copy = new Roster();
+        for (String branch : branches) {
+            copy.branchCode(branch);
+        }
+        copy.ensureRowCapacity(permutation.length);
+        copy.nameData = new byte[nameOffsets[size]];
+        copy.rollData = new byte[rollOffsets[size]];
+
+        for (int row : permutation) {
+            checkIndex(row);
+            int i = copy.size;
+            copy.nameData = copyValue(nameData, nameOffsets, row, copy.nameData, copy.nameOffsets, i);
+            copy.rollData = copyValue(rollData, rollOffsets, row, copy.rollData, copy.rollOffsets, i);
+            copy.years[i] = years[row];
+            copy.semesters[i] = semesters[row];
+            copy.branchCodes[i] = branchCodes[row];
+            copy.size++;
+        }
+        copy.trimToSize();
+        return copy;
+    }
+
+    private static byte[] copyValue(byte[] src, int[] srcOffsets, int srcIndex,
+                                    byte[] dst, int[] dstOffsets, int dstIndex) {
+        int start = srcOffsets[srcIndex];
+        return copyValue(src, start, srcOffsets[srcIndex + 1] - start, dst, dstOffsets, dstIndex);
+    }
+
+    private static byte[] copyValue(byte[] src, int start, int length,
+                                    byte[] dst, int[] dstOffsets, int dstIndex) {
+        int dstStart = dstOffsets[dstIndex];
+        if (dstStart + length > dst.length) {
+            dst = Arrays.copyOf(dst, Math.max(dstStart + length, dst.length * 2));
+        }
+        System.arraycopy(src, start, dst, dstStart, length);
+        dstOffsets[dstIndex + 1] = dstStart + length;
+        return dst;
+    }
+
+    /**
+     * Materialise the student at the given row.
+     */
+    public Student get(int index) {
+        checkIndex(index);
+        return new Student(decode(nameData, nameOffsets, index),
+                           decode(rollData, rollOffsets, index),
+                           years[index], semesters[index],
+                           branches.get(branchCodes[index]));
+    }
+
+    /**
+     * Read-only list view; each element is created on access.
+     */
+    public List<Student> asList() {
+        return new AbstractList<Student>() {
+            @Override
+            public Student get(int index) {
+                return Roster.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Copy all rows into regular student objects.
+     */
+    public List<Student> toStudents() {
+        List<Student> students = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            students.add(get(i));
+        }
+        return students;
+    }
+
+    private static String decode(byte[] data, int[] offsets, int index) {
+        int start = offsets[index];
+        return new String(data, start, offsets[index + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Roster{" + size + " students, " + branches.size() + " branches}";
+    }
+}
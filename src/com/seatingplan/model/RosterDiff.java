@@ -0,0 +1,79 @@
+package com.seatingplan.model;
+
+import java.util.*;
+
+/**
+ * Row-level difference between two versions of a roster, keyed by roll number.
+ *
+ * A student is "changed" when the roll number is in both versions but the
+ * name, year, semester or branch differs. Students whose row is identical in
+ * both versions do not appear in the diff at all.
+ */
+public class RosterDiff {
+    private final List<Student> added = new ArrayList<>();
+    private final List<Student> removed = new ArrayList<>();
+    private final List<Student> changed = new ArrayList<>();
+
+    /**
+     * Compare two versions of a roster. Both lists are left unchanged.
+     * If a roll number occurs more than once, its last row counts.
+     */
+    public static RosterDiff between(List<Student> previous, List<Student> current) {
+        RosterDiff diff = new RosterDiff();
+
+        Map<String, Student> before = new HashMap<>(previous.size() * 4 / 3 + 1);
+        for (Student student : previous) {
+            before.put(student.getRollNo(), student);
+        }
+
+        Set<String> seen = new HashSet<>(current.size() * 4 / 3 + 1);
+        for (Student student : current) {
+            if (!seen.add(student.getRollNo())) {
+                continue;
+            }
+            Student old = before.remove(student.getRollNo());
+            if (old == null) {
+                diff.added.add(student);
+            } else if (!sameDetails(old, student)) {
+                diff.changed.add(student);
+            }
+        }
+        diff.removed.addAll(before.values());
+        return diff;
+    }
+
+    private static boolean sameDetails(Student a, Student b) {
+        return a.getYear() == b.getYear() && a.getSemester() == b.getSemester() &&
+               Objects.equals(a.getName(), b.getName()) && Objects.equals(a.getBranch(), b.getBranch());
+    }
+
+    /**
+     * Students whose roll number is new.
+     */
+    public List<Student> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    /**
+     * Students whose roll number is gone (previous versions).
+     */
+    public List<Student> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+
+    /**
+     * New versions of students whose details changed.
+     */
+    public List<Student> getChanged() {
+        return Collections.unmodifiableList(changed);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "RosterDiff{+" + added.size() + " -" + removed.size() + " ~" + changed.size() + '}';
+    }
+}
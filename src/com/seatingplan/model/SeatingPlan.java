@@ -1,29 +1,38 @@
 package com.seatingplan.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import com.seatingplan.util.SeatTraversal;
+
+import java.util.*;
 
 /**
  * Represents a complete seating plan across multiple classrooms.
  */
 public class SeatingPlan {
     private List<Classroom> classrooms;
-    private List<Student> students;
+    private StudentList students;
     private PatternType patternUsed;
     private String examName;
     private String examDate;
-    private List<Student> unassignedStudents;
+    private StudentList unassignedStudents;
+    private SeatingConfig config;
+
+    // Roll number -> seat; built on first lookup, then kept current by assignSeat/vacateSeat.
+    // Allocators fill the seats directly, before anything looks one up.
+    private Map<String, SeatLocation> seatIndex;
+    // Usable (per traversal/gapping) seats that are still free, per room
+    private Map<Classroom, LinkedHashSet<Seat>> freeSeats;
+    private Map<Classroom, boolean[][]> usableSeats;
 
     public SeatingPlan() {
         this.classrooms = new ArrayList<>();
-        this.students = new ArrayList<>();
-        this.unassignedStudents = new ArrayList<>();
+        this.students = new StudentList(Collections.emptyList());
+        this.unassignedStudents = new StudentList(Collections.emptyList());
     }
 
     public SeatingPlan(List<Classroom> classrooms, List<Student> students) {
         this.classrooms = classrooms != null ? classrooms : new ArrayList<>();
-        this.students = students != null ? students : new ArrayList<>();
-        this.unassignedStudents = new ArrayList<>();
+        this.students = new StudentList(students);
+        this.unassignedStudents = new StudentList(Collections.emptyList());
     }
 
     /**
@@ -44,7 +53,7 @@ public class SeatingPlan {
      * Check if all students can be accommodated.
      */
     public boolean canAccommodateAll() {
-        return getTotalCapacity() >= students.size();
+        return getTotalCapacity() >= getStudents().size();
     }
 
     /**
@@ -54,8 +63,8 @@ public class SeatingPlan {
         for (Classroom classroom : classrooms) {
             classroom.clearAllSeats();
         }
-        unassignedStudents.clear();
-        unassignedStudents.addAll(students);
+        invalidateSeatIndex();
+        unassignedStudents = new StudentList(students.view());
     }
 
     /**
@@ -63,23 +72,250 @@ public class SeatingPlan {
      */
     public List<SeatAssignment> getAllAssignments() {
         List<SeatAssignment> assignments = new ArrayList<>();
+        for (SeatAssignment assignment : assignments()) {
+            assignments.add(assignment);
+        }
+        return assignments;
+    }
+
+    /**
+     * All seat assignments, room by room in row-major order, produced on
+     * demand while iterating instead of being collected into a list first.
+     */
+    public Iterable<SeatAssignment> assignments() {
+        return () -> new AssignmentIterator(classrooms);
+    }
+
+    /**
+     * Seat assignments of one room in row-major order, produced on demand.
+     */
+    public static Iterable<SeatAssignment> assignments(Classroom classroom) {
+        return () -> new AssignmentIterator(Collections.singletonList(classroom));
+    }
+
+    // ==================== ROSTER (INCREMENTAL CHANGES) ====================
+
+    /**
+     * Add a student to the roster without seating them.
+     */
+    public void addStudent(Student student) {
+        students.add(student);
+    }
+
+    /**
+     * Take a student off the roster and the waiting list. A seat they hold is
+     * left to the caller.
+     *
+     * @return The student removed from the roster, or null
+     */
+    public Student removeStudent(String rollNo) {
+        unassignedStudents.remove(rollNo);
+        return students.remove(rollNo);
+    }
+
+    /**
+     * Put edited details in place of the student with the same roll number,
+     * on the roster and the waiting list.
+     */
+    public void replaceStudent(Student student) {
+        students.replace(student);
+        unassignedStudents.replace(student);
+    }
+
+    /**
+     * Add a student to the end of the waiting list.
+     */
+    public void addUnassigned(Student student) {
+        unassignedStudents.add(student);
+    }
+
+    /**
+     * Take a student off the waiting list.
+     *
+     * @return Whether the student was waiting
+     */
+    public boolean removeUnassigned(Student student) {
+        return unassignedStudents.remove(student.getRollNo()) != null;
+    }
+
+    // ==================== SEAT INDEX (INCREMENTAL CHANGES) ====================
+
+    /**
+     * Find where a student is seated.
+     *
+     * @return The seat, or null if the student has no seat in this plan
+     */
+    public SeatLocation findSeat(String rollNo) {
+        return getSeatIndex().get(rollNo);
+    }
+
+    /**
+     * Find a classroom by name.
+     */
+    public Classroom getClassroom(String roomName) {
         for (Classroom classroom : classrooms) {
-            Seat[][] seats = classroom.getSeats();
-            for (int r = 0; r < classroom.getRows(); r++) {
-                for (int c = 0; c < classroom.getColumns(); c++) {
-                    Seat seat = seats[r][c];
-                    if (seat != null && seat.isOccupied()) {
-                        assignments.add(new SeatAssignment(
-                            classroom.getRoomName(),
-                            seat.getSeatLabel(),
-                            r, c,
-                            seat.getAssignedStudent()
-                        ));
-                    }
+            if (classroom.getRoomName().equals(roomName)) {
+                return classroom;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Seat a student, keeping the seat index and free-seat pools current.
+     * A seat the student already holds elsewhere in the plan is freed.
+     */
+    public void assignSeat(Classroom classroom, Seat seat, Student student) {
+        SeatLocation previous = getSeatIndex().get(student.getRollNo());
+        if (previous != null && previous.getSeat() != seat) {
+            vacateSeat(previous.getClassroom(), previous.getSeat());
+        }
+        if (seat.isOccupied()) {
+            vacateSeat(classroom, seat);
+        }
+        seat.assignStudent(student);
+        getSeatIndex().put(student.getRollNo(), new SeatLocation(classroom, seat));
+        if (freeSeats != null && freeSeats.containsKey(classroom)) {
+            freeSeats.get(classroom).remove(seat);
+        }
+    }
+
+    /**
+     * Empty a seat, keeping the seat index and free-seat pools current.
+     *
+     * @return The student that was seated there, or null
+     */
+    public Student vacateSeat(Classroom classroom, Seat seat) {
+        Student student = seat.getAssignedStudent();
+        if (student == null) {
+            return null;
+        }
+        seat.clear();
+        getSeatIndex().remove(student.getRollNo());
+        if (freeSeats != null && freeSeats.containsKey(classroom) &&
+            usableSeats.get(classroom)[seat.getRow()][seat.getColumn()]) {
+            freeSeats.get(classroom).add(seat);
+        }
+        return student;
+    }
+
+    /**
+     * Free seats of a room that the plan's traversal and gapping would use.
+     * Built on first use from the plan's config, then maintained incrementally.
+     */
+    public Set<Seat> getFreeSeats(Classroom classroom) {
+        if (freeSeats == null) {
+            freeSeats = new HashMap<>();
+            usableSeats = new HashMap<>();
+        }
+        LinkedHashSet<Seat> free = freeSeats.get(classroom);
+        if (free == null) {
+            SeatingConfig traversalConfig = config != null ? config : new SeatingConfig();
+            boolean[][] usable = new boolean[classroom.getRows()][classroom.getColumns()];
+            free = new LinkedHashSet<>();
+            for (Seat seat : SeatTraversal.getSeatsInOrder(classroom, traversalConfig)) {
+                usable[seat.getRow()][seat.getColumn()] = true;
+                if (!seat.isOccupied()) {
+                    free.add(seat);
                 }
             }
+            freeSeats.put(classroom, free);
+            usableSeats.put(classroom, usable);
         }
-        return assignments;
+        return free;
+    }
+
+    /**
+     * Whether the plan's traversal and gapping would seat anyone here.
+     */
+    public boolean isUsableSeat(Classroom classroom, Seat seat) {
+        getFreeSeats(classroom);
+        return usableSeats.get(classroom)[seat.getRow()][seat.getColumn()];
+    }
+
+    /**
+     * Remove a room from the plan.
+     *
+     * @return The students who were seated in it
+     */
+    public List<Student> removeClassroom(Classroom classroom) {
+        List<Student> displaced = vacateAll(classroom);
+        classrooms.remove(classroom);
+        forgetClassroom(classroom);
+        return displaced;
+    }
+
+    /**
+     * Put a new seat grid in place of a room. Students keep their row and
+     * column where that seat exists and is usable in the replacement.
+     *
+     * @return The students who lost their seat
+     */
+    public List<Student> replaceClassroom(Classroom current, Classroom replacement) {
+        int index = classrooms.indexOf(current);
+        if (index < 0) {
+            throw new IllegalArgumentException("Room not in plan: " + current.getRoomName());
+        }
+        classrooms.set(index, replacement);
+
+        List<Student> displaced = new ArrayList<>();
+        for (Seat seat : occupiedSeats(current)) {
+            Student student = vacateSeat(current, seat);
+            Seat target = replacement.getSeat(seat.getRow(), seat.getColumn());
+            if (target != null && isUsableSeat(replacement, target)) {
+                assignSeat(replacement, target, student);
+            } else {
+                displaced.add(student);
+            }
+        }
+        forgetClassroom(current);
+        return displaced;
+    }
+
+    private List<Student> vacateAll(Classroom classroom) {
+        List<Student> students = new ArrayList<>();
+        for (Seat seat : occupiedSeats(classroom)) {
+            students.add(vacateSeat(classroom, seat));
+        }
+        return students;
+    }
+
+    private static List<Seat> occupiedSeats(Classroom classroom) {
+        List<Seat> occupied = new ArrayList<>();
+        Seat[][] seats = classroom.getSeats();
+        for (int r = 0; r < classroom.getRows(); r++) {
+            for (int c = 0; c < classroom.getColumns(); c++) {
+                if (seats[r][c] != null && seats[r][c].isOccupied()) {
+                    occupied.add(seats[r][c]);
+                }
+            }
+        }
+        return occupied;
+    }
+
+    private void forgetClassroom(Classroom classroom) {
+        if (freeSeats != null) {
+            freeSeats.remove(classroom);
+            usableSeats.remove(classroom);
+        }
+    }
+
+    private Map<String, SeatLocation> getSeatIndex() {
+        if (seatIndex == null) {
+            seatIndex = new HashMap<>();
+            for (Classroom classroom : classrooms) {
+                for (Seat seat : occupiedSeats(classroom)) {
+                    seatIndex.put(seat.getAssignedStudent().getRollNo(), new SeatLocation(classroom, seat));
+                }
+            }
+        }
+        return seatIndex;
+    }
+
+    private void invalidateSeatIndex() {
+        seatIndex = null;
+        freeSeats = null;
+        usableSeats = null;
     }
 
     // Getters and Setters
@@ -89,14 +325,30 @@ public class SeatingPlan {
 
     public void setClassrooms(List<Classroom> classrooms) {
         this.classrooms = classrooms;
+        invalidateSeatIndex();
     }
 
+    /**
+     * Configuration the plan was generated with (may be null).
+     */
+    public SeatingConfig getConfig() {
+        return config;
+    }
+
+    public void setConfig(SeatingConfig config) {
+        this.config = config;
+        invalidateSeatIndex();
+    }
+
+    /**
+     * The roster, read-only; see {@link #addStudent} and {@link #removeStudent}.
+     */
     public List<Student> getStudents() {
-        return students;
+        return students.view();
     }
 
     public void setStudents(List<Student> students) {
-        this.students = students;
+        this.students = new StudentList(students);
     }
 
     public PatternType getPatternUsed() {
@@ -123,12 +375,198 @@ public class SeatingPlan {
         this.examDate = examDate;
     }
 
+    /**
+     * Students waiting for a seat, read-only; see {@link #addUnassigned}.
+     */
     public List<Student> getUnassignedStudents() {
-        return unassignedStudents;
+        return unassignedStudents.view();
     }
 
     public void setUnassignedStudents(List<Student> unassignedStudents) {
-        this.unassignedStudents = unassignedStudents;
+        this.unassignedStudents = new StudentList(unassignedStudents);
+    }
+
+    /**
+     * A seat together with the classroom it belongs to.
+     */
+    public static class SeatLocation {
+        private final Classroom classroom;
+        private final Seat seat;
+
+        public SeatLocation(Classroom classroom, Seat seat) {
+            this.classroom = classroom;
+            this.seat = seat;
+        }
+
+        public Classroom getClassroom() { return classroom; }
+        public Seat getSeat() { return seat; }
+        public String getRoomName() { return classroom.getRoomName(); }
+        public String getSeatLabel() { return seat.getSeatLabel(); }
+    }
+
+    /**
+     * Students in list order, removed and replaced by roll number in constant
+     * time. A removal leaves a hole that iteration skips; holes are compacted
+     * away once they make up half the list, so the roll-number index is
+     * rebuilt at most once per that many removals.
+     */
+    private static class StudentList {
+        private final ArrayList<Student> items;
+        private Map<String, Integer> positions;   // roll number -> index; built on first use
+        private int holes;
+        private final List<Student> view = new View();
+
+        StudentList(Collection<Student> students) {
+            this.items = students != null ? new ArrayList<>(students) : new ArrayList<>();
+        }
+
+        List<Student> view() {
+            return view;
+        }
+
+        void add(Student student) {
+            if (positions != null) {
+                positions.putIfAbsent(student.getRollNo(), items.size());
+            }
+            items.add(student);
+        }
+
+        Student remove(String rollNo) {
+            Integer index = positions().remove(rollNo);
+            if (index == null) {
+                return null;
+            }
+            Student student = items.set(index, null);
+            if (++holes > items.size() / 2) {
+                compact();
+            }
+            return student;
+        }
+
+        void replace(Student student) {
+            Integer index = positions().get(student.getRollNo());
+            if (index != null) {
+                items.set(index, student);
+            }
+        }
+
+        private Map<String, Integer> positions() {
+            if (positions == null) {
+                positions = new HashMap<>();
+                for (int i = 0; i < items.size(); i++) {
+                    if (items.get(i) != null) {
+                        positions.putIfAbsent(items.get(i).getRollNo(), i);
+                    }
+                }
+            }
+            return positions;
+        }
+
+        private void compact() {
+            items.removeIf(Objects::isNull);
+            holes = 0;
+            positions = null;
+        }
+
+        private class View extends AbstractList<Student> {
+            @Override
+            public int size() {
+                return items.size() - holes;
+            }
+
+            @Override
+            public Student get(int index) {
+                if (holes > 0) {
+                    compact();
+                }
+                return items.get(index);
+            }
+
+            @Override
+            public Iterator<Student> iterator() {
+                return new Iterator<Student>() {
+                    private int next = skipHoles(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < items.size();
+                    }
+
+                    @Override
+                    public Student next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Student student = items.get(next);
+                        next = skipHoles(next + 1);
+                        return student;
+                    }
+                };
+            }
+
+            private int skipHoles(int index) {
+                while (index < items.size() && items.get(index) == null) {
+                    index++;
+                }
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Walks the occupied seats of a list of rooms.
+     */
+    private static class AssignmentIterator implements Iterator<SeatAssignment> {
+        private final Iterator<Classroom> rooms;
+        private Classroom classroom;
+        private int row;
+        private int column = -1;
+        private SeatAssignment next;
+
+        AssignmentIterator(List<Classroom> classrooms) {
+            this.rooms = classrooms.iterator();
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public SeatAssignment next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            SeatAssignment current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            next = null;
+            while (true) {
+                if (classroom != null && ++column >= classroom.getColumns()) {
+                    column = 0;
+                    row++;
+                }
+                if (classroom == null || row >= classroom.getRows()) {
+                    if (!rooms.hasNext()) {
+                        return;
+                    }
+                    classroom = rooms.next();
+                    row = 0;
+                    column = -1;
+                    continue;
+                }
+                Seat seat = classroom.getSeats()[row][column];
+                if (seat != null && seat.isOccupied()) {
+                    next = new SeatAssignment(classroom.getRoomName(), seat.getSeatLabel(),
+                                              row, column, seat.getAssignedStudent());
+                    return;
+                }
+            }
+        }
     }
 
     /**
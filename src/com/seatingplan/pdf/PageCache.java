@@ -0,0 +1,223 @@
+package com.seatingplan.pdf;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of rendered PDF pages, keyed by a hash of everything drawn on
+ * the page (see {@link PdfGenerator#generatePdf(com.seatingplan.model.SeatingPlan, String, PageCache)}).
+ *
+ * Keep one instance across exports: after a small change to a plan only the
+ * pages whose content changed are rendered again, and the others are copied
+ * from the cache. Pages are held in memory or in a directory of files; either
+ * way the least recently used pages are dropped once the total size exceeds
+ * the limit. A directory cache survives restarts.
+ *
+ * The cache is thread-safe. Failing to read or write a cache file is not an
+ * error: the page is simply rendered again.
+ */
+public class PageCache {
+
+    private static final String SUFFIX = ".page";
+
+    private final File directory;      // null for an in-memory cache
+    private final long maxBytes;
+
+    // Access-ordered: least recently used first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long hits;
+    private long misses;
+
+    private static class Entry {
+        final RenderedPage page;       // null when stored on disk
+        final long size;
+
+        Entry(RenderedPage page, long size) {
+            this.page = page;
+            this.size = size;
+        }
+    }
+
+    private PageCache(File directory, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * A cache holding at most {@code maxBytes} of page content on the heap.
+     */
+    public static PageCache inMemory(long maxBytes) {
+        return new PageCache(null, maxBytes);
+    }
+
+    /**
+     * A cache storing pages as files in a directory, at most {@code maxBytes}
+     * in total. Pages already in the directory are reused.
+     *
+     * @throws IOException If the directory cannot be created
+     */
+    public static PageCache onDisk(File directory, long maxBytes) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory: " + directory.getAbsolutePath());
+        }
+        PageCache cache = new PageCache(directory, maxBytes);
+        cache.loadIndex();
+        return cache;
+    }
+
+    /**
+     * Index the files left by earlier runs, oldest first so they are evicted first.
+     */
+    private void loadIndex() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        synchronized (this) {
+            for (File file : files) {
+                String key = file.getName().substring(0, file.getName().length() - SUFFIX.length());
+                entries.put(key, new Entry(null, file.length()));
+                totalBytes += file.length();
+            }
+            evict();
+        }
+    }
+
+    /**
+     * The cached page, or null.
+     */
+    RenderedPage get(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            if (entry.page != null) {
+                return entry.page;
+            }
+        }
+
+        File file = file(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            RenderedPage page = RenderedPage.readFrom(in, file.length());
+            file.setLastModified(System.currentTimeMillis());
+            return page;
+        } catch (IOException e) {
+            // Unreadable or removed behind our back: render it again
+            remove(key);
+            synchronized (this) {
+                hits--;
+                misses++;
+            }
+            return null;
+        }
+    }
+
+    void put(String key, RenderedPage page) {
+        long size;
+        if (directory == null) {
+            size = page.size();
+        } else {
+            File file = file(key);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                page.writeTo(out);
+            } catch (IOException e) {
+                // Not cached; the page is rendered again next time
+                file.delete();
+                return;
+            }
+            size = file.length();
+        }
+
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(directory == null ? page : null, size));
+            if (previous != null) {
+                totalBytes -= previous.size;
+            }
+            totalBytes += size;
+            evict();
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.size;
+        }
+    }
+
+    /**
+     * Drop least recently used pages until the cache fits its limit.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            totalBytes -= eldest.getValue().size;
+            it.remove();
+            if (directory != null) {
+                file(eldest.getKey()).delete();
+            }
+        }
+    }
+
+    private File file(String key) {
+        return new File(directory, key + SUFFIX);
+    }
+
+    /**
+     * Remove all pages, including their files.
+     */
+    public synchronized void clear() {
+        if (directory != null) {
+            for (String key : entries.keySet()) {
+                file(key).delete();
+            }
+        }
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Bytes of page content held (in memory or on disk).
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Lookups that found a page.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Lookups that did not find a page, so it had to be rendered.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PageCache{" + entries.size() + " pages, " + totalBytes + " bytes, " +
+               hits + " hits, " + misses + " misses}";
+    }
+}
@@ -0,0 +1,67 @@
+package com.seatingplan.pdf;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Builds a {@link PageCache} key: a SHA-256 hash over the values a page is
+ * drawn from. Values are length-prefixed, so different sequences of strings
+ * never produce the same input.
+ */
+class PageKey {
+    private final MessageDigest digest;
+    private final byte[] intBuffer = new byte[4];
+
+    /**
+     * @param kind Page type and drawing code version; change the version when
+     *             the page layout changes so cached pages are not reused
+     */
+    PageKey(String kind) {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        add(kind);
+    }
+
+    PageKey add(int value) {
+        intBuffer[0] = (byte) (value >>> 24);
+        intBuffer[1] = (byte) (value >>> 16);
+        intBuffer[2] = (byte) (value >>> 8);
+        intBuffer[3] = (byte) value;
+        digest.update(intBuffer);
+        return this;
+    }
+
+    PageKey add(float value) {
+        return add(Float.floatToIntBits(value));
+    }
+
+    PageKey add(boolean value) {
+        digest.update((byte) (value ? 1 : 0));
+        return this;
+    }
+
+    /**
+     * Add a string; null is distinct from every string, including "".
+     */
+    PageKey add(String value) {
+        if (value == null) {
+            return add(-1);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        add(bytes.length);
+        digest.update(bytes);
+        return this;
+    }
+
+    /**
+     * The key as a hex string (usable as a file name). Ends the hash.
+     */
+    String finish() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
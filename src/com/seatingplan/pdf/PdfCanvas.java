@@ -0,0 +1,285 @@
+package com.seatingplan.pdf;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDFormContentStream;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Thin drawing layer over a page content stream that avoids redundant operators.
+ *
+ * Consecutive text draws share one text object (BT/ET) and are positioned with
+ * relative moves, the font is only set when it changes, and fill and stroke
+ * colours are only emitted when they differ from the current ones. Rectangles
+ * added with {@link #addRect} accumulate into one path until it is filled or
+ * stroked, so many same-coloured shapes cost one painting operator.
+ *
+ * A canvas can also draw into a form XObject (a template), which pages then
+ * paint with {@link #drawForm} instead of repeating its operators.
+ */
+class PdfCanvas implements Closeable {
+
+    /**
+     * The fonts and templates used by the generator, created once per document
+     * so every page refers to the same two font resources and each template is
+     * stored once however many pages paint it.
+     */
+    static class Resources {
+        final PDFont regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        final PDFont bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        private final Map<COSName, PDFormXObject> templates = new HashMap<>();
+
+        /**
+         * The font with the given PostScript name.
+         *
+         * @throws IOException If it is not one of these fonts
+         */
+        PDFont byName(String name) throws IOException {
+            if (regular.getName().equals(name)) return regular;
+            if (bold.getName().equals(name)) return bold;
+            throw new IOException("Unknown font: " + name);
+        }
+
+        /**
+         * The template registered under a name, or null.
+         */
+        PDFormXObject template(COSName name) {
+            return templates.get(name);
+        }
+
+        /**
+         * Register a template. The name must identify its content: pages drawn
+         * elsewhere refer to the template by this name alone.
+         */
+        void addTemplate(COSName name, PDFormXObject template) {
+            templates.put(name, template);
+        }
+    }
+
+    /**
+     * Create an empty template covering the given box; draw into it with
+     * {@link #PdfCanvas(PDFormXObject)}.
+     */
+    static PDFormXObject newTemplate(PDDocument document, PDRectangle box, PDResources resources) {
+        PDFormXObject template = new PDFormXObject(document);
+        template.setBBox(box);
+        template.setResources(resources);
+        return template;
+    }
+
+    private final Operators content;
+    private final PDResources resources;
+    private final PDFormXObject template;      // null when drawing a page
+
+    // Current graphics state as written so far (null: unknown, so always set)
+    private PDFont font;
+    private float fontSize;
+    private float[] fill;
+    private float[] stroke;
+
+    // Text object state: start of the current line
+    private boolean inText;
+    private float lineX;
+    private float lineY;
+
+    PdfCanvas(PDDocument document, PDPage page) throws IOException {
+        this.content = Operators.of(new PDPageContentStream(document, page));
+        this.resources = page.getResources();
+        this.template = null;
+        // A page starts in the PDF default state
+        this.fill = new float[]{0, 0, 0};
+        this.stroke = new float[]{0, 0, 0};
+    }
+
+    /**
+     * Draw into a template made by {@link #newTemplate}. Its graphics state is
+     * inherited from wherever it is painted, so every colour is set explicitly.
+     * The content is deflated when the canvas is closed.
+     */
+    PdfCanvas(PDFormXObject template) throws IOException {
+        this.content = Operators.of(new PDFormContentStream(template));
+        this.resources = template.getResources();
+        this.template = template;
+    }
+
+    /**
+     * Draw a string with its baseline starting at (x, y).
+     */
+    void text(PDFont font, float size, float x, float y, String text) throws IOException {
+        if (!inText) {
+            content.beginText();
+            inText = true;
+            lineX = 0;
+            lineY = 0;
+        }
+        if (font != this.font || size != fontSize) {
+            content.setFont(font, size);
+            this.font = font;
+            this.fontSize = size;
+        }
+        content.newLineAtOffset(x - lineX, y - lineY);
+        lineX = x;
+        lineY = y;
+        content.showText(text);
+    }
+
+    /**
+     * Close the current text object, if any. Called automatically before
+     * drawing shapes.
+     */
+    void endText() throws IOException {
+        if (inText) {
+            content.endText();
+            inText = false;
+        }
+    }
+
+    void fillColor(float r, float g, float b) throws IOException {
+        if (fill == null || fill[0] != r || fill[1] != g || fill[2] != b) {
+            content.setNonStrokingColor(r, g, b);
+            fill = new float[]{r, g, b};
+        }
+    }
+
+    void fillColor(float[] rgb) throws IOException {
+        fillColor(rgb[0], rgb[1], rgb[2]);
+    }
+
+    void strokeColor(float r, float g, float b) throws IOException {
+        if (stroke == null || stroke[0] != r || stroke[1] != g || stroke[2] != b) {
+            content.setStrokingColor(r, g, b);
+            stroke = new float[]{r, g, b};
+        }
+    }
+
+    /**
+     * Add a rectangle to the current path.
+     */
+    void addRect(float x, float y, float width, float height) throws IOException {
+        endText();
+        content.addRect(x, y, width, height);
+    }
+
+    /**
+     * Fill the current path with the current fill colour.
+     */
+    void fill() throws IOException {
+        content.fill();
+    }
+
+    /**
+     * Stroke the current path with the current stroke colour.
+     */
+    void stroke() throws IOException {
+        content.stroke();
+    }
+
+    void fillRect(float x, float y, float width, float height) throws IOException {
+        addRect(x, y, width, height);
+        fill();
+    }
+
+    /**
+     * Paint a template, listed in this stream's resources under the given
+     * name. The template cannot change the colours or font set here.
+     */
+    void drawForm(COSName name, PDFormXObject template) throws IOException {
+        endText();
+        resources.put(name, template);
+        content.drawForm(template);
+    }
+
+    @Override
+    public void close() throws IOException {
+        endText();
+        content.close();
+        if (template != null) {
+            deflate(template.getCOSObject());
+        }
+    }
+
+    /**
+     * Encode a stream written without a filter with Flate, as page content
+     * streams are; PDFormContentStream always writes plain operators.
+     */
+    private static void deflate(COSStream stream) throws IOException {
+        if (stream.getItem(COSName.FILTER) != null) {
+            return;
+        }
+        byte[] plain;
+        try (InputStream in = stream.createRawInputStream()) {
+            plain = in.readAllBytes();
+        }
+        try (OutputStream out = stream.createOutputStream(COSName.FLATE_DECODE)) {
+            out.write(plain);
+        }
+    }
+
+    /**
+     * The content stream operators the canvas uses. PDFBox's page and form
+     * content streams share them through a base class that is not public, so
+     * each is wrapped here.
+     */
+    private interface Operators extends Closeable {
+        void beginText() throws IOException;
+        void endText() throws IOException;
+        void setFont(PDFont font, float size) throws IOException;
+        void newLineAtOffset(float tx, float ty) throws IOException;
+        void showText(String text) throws IOException;
+        void setNonStrokingColor(float r, float g, float b) throws IOException;
+        void setStrokingColor(float r, float g, float b) throws IOException;
+        void addRect(float x, float y, float width, float height) throws IOException;
+        void fill() throws IOException;
+        void stroke() throws IOException;
+        void drawForm(PDFormXObject form) throws IOException;
+
+        static Operators of(PDPageContentStream stream) {
+            return new Operators() {
+                public void beginText() throws IOException { stream.beginText(); }
+                public void endText() throws IOException { stream.endText(); }
+                public void setFont(PDFont font, float size) throws IOException { stream.setFont(font, size); }
+                public void newLineAtOffset(float tx, float ty) throws IOException { stream.newLineAtOffset(tx, ty); }
+                public void showText(String text) throws IOException { stream.showText(text); }
+                public void setNonStrokingColor(float r, float g, float b) throws IOException { stream.setNonStrokingColor(r, g, b); }
+                public void setStrokingColor(float r, float g, float b) throws IOException { stream.setStrokingColor(r, g, b); }
+                public void addRect(float x, float y, float width, float height) throws IOException { stream.addRect(x, y, width, height); }
+                public void fill() throws IOException { stream.fill(); }
+                public void stroke() throws IOException { stream.stroke(); }
+                public void drawForm(PDFormXObject form) throws IOException { stream.drawForm(form); }
+                public void close() throws IOException { stream.close(); }
+            };
+        }
+
+        static Operators of(PDFormContentStream stream) {
+            return new Operators() {
+                public void beginText() throws IOException { stream.beginText(); }
+                public void endText() throws IOException { stream.endText(); }
+                public void setFont(PDFont font, float size) throws IOException { stream.setFont(font, size); }
+                public void newLineAtOffset(float tx, float ty) throws IOException { stream.newLineAtOffset(tx, ty); }
+                public void showText(String text) throws IOException { stream.showText(text); }
+                public void setNonStrokingColor(float r, float g, float b) throws IOException { stream.setNonStrokingColor(r, g, b); }
+                public void setStrokingColor(float r, float g, float b) throws IOException { stream.setStrokingColor(r, g, b); }
+                public void addRect(float x, float y, float width, float height) throws IOException { stream.addRect(x, y, width, height); }
+                public void fill() throws IOException { stream.fill(); }
+                public void stroke() throws IOException { stream.stroke(); }
+                public void drawForm(PDFormXObject form) throws IOException { stream.drawForm(form); }
+                public void close() throws IOException { stream.close(); }
+            };
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.seatingplan.pdf;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Saves a finished document in compact form.
+ *
+ * PDFBox already packs objects into object streams with a cross-reference
+ * stream by default, and the generator shares fonts and grid templates
+ * within a document. On top of that this
+ * <ul>
+ *   <li>gives pages with the same resources one shared resource dictionary
+ *       instead of one each,</li>
+ *   <li>deflates every content stream again at the best compression level, and</li>
+ *   <li>uses larger object streams, which compress better.</li>
+ * </ul>
+ * The pages look exactly the same.
+ */
+class PdfCompactor {
+
+    private static final int OBJECT_STREAM_SIZE = 1000;
+    private static final CompressParameters COMPRESSION = new CompressParameters(OBJECT_STREAM_SIZE);
+
+    /**
+     * Measure the regular output size, then compact the document and write it.
+     * The regular size is measured by saving once to a stream that discards
+     * the bytes, so this takes longer than a plain save.
+     *
+     * @param out Receives the compact document; not closed
+     */
+    static PdfSizeReport save(PDDocument document, OutputStream out) throws IOException {
+        CountingOutputStream regular = new CountingOutputStream(OutputStream.nullOutputStream());
+        document.save(regular);
+
+        int shared = shareResources(document);
+        recompress(document);
+
+        CountingOutputStream compact = new CountingOutputStream(out);
+        document.save(compact, COMPRESSION);
+        compact.flush();
+        return new PdfSizeReport(document.getNumberOfPages(), regular.count, compact.count, shared);
+    }
+
+    /**
+     * Point pages that use the same fonts and templates under the same names
+     * at one resource dictionary.
+     *
+     * @return Number of resource dictionaries removed
+     */
+    static int shareResources(PDDocument document) {
+        Map<List<COSBase>, COSDictionary> distinct = new HashMap<>();
+        int removed = 0;
+        for (PDPage page : document.getPages()) {
+            COSDictionary resources = page.getCOSObject().getCOSDictionary(COSName.RESOURCES);
+            if (resources == null) {
+                continue;
+            }
+            List<COSBase> key = resourceKey(resources);
+            COSDictionary existing = distinct.putIfAbsent(key, resources);
+            if (existing != null && existing != resources) {
+                page.getCOSObject().setItem(COSName.RESOURCES, existing);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * The category names, resource names and resource objects of a resource
+     * dictionary, in order. Resources compare by identity, so two keys are
+     * equal only when they refer to the very same fonts and templates.
+     */
+    private static List<COSBase> resourceKey(COSDictionary resources) {
+        List<COSBase> key = new ArrayList<>();
+        for (Map.Entry<COSName, COSBase> category : resources.entrySet()) {
+            key.add(category.getKey());
+            COSBase value = category.getValue();
+            if (value instanceof COSDictionary && !(value instanceof COSStream)) {
+                for (Map.Entry<COSName, COSBase> resource : ((COSDictionary) value).entrySet()) {
+                    key.add(resource.getKey());
+                    key.add(resource.getValue());
+                }
+            } else {
+                key.add(value);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Deflate page and template content streams again at the best compression
+     * level, keeping whichever encoding is smaller.
+     */
+    static void recompress(PDDocument document) throws IOException {
+        Set<COSStream> done = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PDPage page : document.getPages()) {
+            COSBase contents = page.getCOSObject().getDictionaryObject(COSName.CONTENTS);
+            if (contents instanceof COSStream && done.add((COSStream) contents)) {
+                recompress((COSStream) contents);
+            }
+            COSDictionary resources = page.getCOSObject().getCOSDictionary(COSName.RESOURCES);
+            COSDictionary xObjects = resources != null ? resources.getCOSDictionary(COSName.XOBJECT) : null;
+            if (xObjects != null) {
+                for (COSName name : xObjects.keySet()) {
+                    COSBase xObject = xObjects.getDictionaryObject(name);
+                    if (xObject instanceof COSStream && done.add((COSStream) xObject)) {
+                        recompress((COSStream) xObject);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void recompress(COSStream stream) throws IOException {
+        if (!COSName.FLATE_DECODE.equals(stream.getItem(COSName.FILTER))) {
+            return;
+        }
+        byte[] decoded;
+        try (InputStream in = stream.createInputStream()) {
+            decoded = in.readAllBytes();
+        }
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(decoded.length / 4);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(encoded, deflater)) {
+            out.write(decoded);
+        } finally {
+            deflater.end();
+        }
+        if (encoded.size() < stream.getLength()) {
+            try (OutputStream out = stream.createRawOutputStream()) {
+                encoded.writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes written through it.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -1,16 +1,38 @@
 package com.seatingplan.pdf;
 
 import com.seatingplan.model.*;
+import com.seatingplan.service.NoticeBoard;
+import com.seatingplan.service.StreamingAllocator;
 
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
-
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * Generates PDF seating plan documents using Apache PDFBox.
@@ -21,54 +43,1150 @@ public class PdfGenerator {
     private static final float LINE_HEIGHT = 14;
     private static final float CELL_PADDING = 5;
 
+    private static final float[][] BRANCH_COLORS = {
+        {1.0f, 0.8f, 0.8f},    // Light red
+        {0.8f, 1.0f, 0.8f},    // Light green
+        {0.8f, 0.8f, 1.0f},    // Light blue
+        {1.0f, 1.0f, 0.8f},    // Light yellow
+        {1.0f, 0.8f, 1.0f},    // Light magenta
+        {0.8f, 1.0f, 1.0f},    // Light cyan
+        {1.0f, 0.9f, 0.8f},    // Light orange
+        {0.9f, 0.8f, 1.0f},    // Light purple
+    };
+    private static final float[] EMPTY_SEAT_RGB = {0.95f, 0.95f, 0.95f};
+
+    // Parallel rendering: below this many pages to render the thread pool is not worth starting
+    private static final int PARALLEL_MIN_PAGES = 8;
+    private static final int BATCHES_PER_THREAD = 4;
+    // Rendered batches waiting to be added, per thread
+    private static final int BATCHES_AHEAD = 2;
+
+    // Roll number index entries sorted in memory; more are sorted in runs on disk
+    private static final int INDEX_MEMORY_ENTRIES = 50_000;
+
+    // Part of every page cache key; change it whenever the drawing code changes
+    private static final int PAGE_VERSION = 2;
+
     /**
-     * Generate a PDF document with the seating plan.
+     * Page content kept on the heap per document before spilling to a scratch
+     * file, for the file-path overloads.
+     */
+    public static final long DEFAULT_MAX_MEMORY = 64L * 1024 * 1024;
+
+    /**
+     * Name of the summary file written next to the per-room PDFs.
+     */
+    public static final String SUMMARY_FILE_NAME = "Summary.pdf";
+    private static final int MAX_FILE_NAME_LENGTH = 100;
+    // Per-room export: rendered rooms waiting to be zipped, per thread
+    private static final int ROOMS_AHEAD = 8;
+
+    // Admit slips: a 2 x 5 grid of slips per A4 page
+    private static final int SLIP_COLUMNS = 2;
+    private static final int SLIP_ROWS = 5;
+    private static final int SLIPS_PER_PAGE = SLIP_COLUMNS * SLIP_ROWS;
+    private static final float SLIP_MARGIN = 30;
+    private static final float SLIP_GAP = 8;
+    private static final float SLIP_VALUE_OFFSET = 55;
+
+    // Door notices: line heights of branch headings and roll range lines
+    private static final float NOTICE_BRANCH_HEIGHT = 22;
+    private static final float NOTICE_LINE_HEIGHT = 19;
+    private static final float NOTICE_BRANCH_GAP = 10;
+
+    /**
+     * Generate a PDF document with the seating plan, rendering room pages on
+     * all available cores.
+     *
+     * The document has one page per room, the summary listing in room and
+     * seat order, and a roll number index sorted in natural roll order.
      *
      * @param plan The seating plan to export
      * @param outputPath Path to save the PDF file
      * @throws IOException If PDF generation fails
      */
     public static void generatePdf(SeatingPlan plan, String outputPath) throws IOException {
-        try (PDDocument document = new PDDocument()) {
+        generatePdf(plan, outputPath, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Generate a PDF document with the seating plan.
+     *
+     * Page content is kept in memory up to {@link #DEFAULT_MAX_MEMORY} per
+     * document and in a scratch file beyond that.
+     *
+     * @param threads Number of rendering threads; 1 renders on the calling thread
+     * @throws IOException If PDF generation fails
+     */
+    public static void generatePdf(SeatingPlan plan, String outputPath, int threads) throws IOException {
+        try (PDDocument document = build(plan, threads, MemoryUsageSetting.setupMixed(DEFAULT_MAX_MEMORY), null)) {
+            document.save(outputPath);
+        }
+    }
+
+    /**
+     * Generate a PDF document with the seating plan, reusing pages from a
+     * cache and rendering the others on all available cores.
+     *
+     * Each page is looked up by a hash of everything drawn on it (for room
+     * pages: exam header, pattern, room layout and the students in each
+     * seat). Only pages whose hash is not in the cache are rendered, and they
+     * are added to the cache, so re-exporting after a change to a few rooms
+     * renders just those rooms and the summary and index pages listing
+     * them. The output is the same as without a cache.
+     *
+     * @param cache Pages of earlier exports; updated with the pages rendered now
+     * @throws IOException If PDF generation fails
+     */
+    public static void generatePdf(SeatingPlan plan, String outputPath, PageCache cache) throws IOException {
+        try (PDDocument document = build(plan, Runtime.getRuntime().availableProcessors(),
+                MemoryUsageSetting.setupMixed(DEFAULT_MAX_MEMORY), cache)) {
+            document.save(outputPath);
+        }
+    }
+
+    /**
+     * Generate a PDF document with the seating plan and write it to a stream,
+     * e.g. a file channel, ZIP entry or HTTP response. The stream is not closed.
+     *
+     * Page content streams are held according to {@code memory}: with
+     * {@link MemoryUsageSetting#setupMixed(long)} at most that many bytes per
+     * document stay on the heap and the rest goes to a scratch file, which is
+     * deleted when generation finishes. The limit applies to the output
+     * document and to each worker's scratch document. The document is written
+     * straight to {@code out} without an intermediate buffer.
+     *
+     * With more than one thread, batches of pages (rooms, then the summary)
+     * are rendered concurrently into scratch documents and added to the
+     * output in order. The pages get the same content streams and share the
+     * same font resources as when rendered on one thread, so the output is
+     * identical.
+     *
+     * @param threads Number of rendering threads; 1 renders on the calling thread
+     * @param memory Where page content is kept while the document is built
+     * @throws IOException If PDF generation or writing fails
+     */
+    public static void generatePdf(SeatingPlan plan, OutputStream out, int threads, MemoryUsageSetting memory)
+            throws IOException {
+        generatePdf(plan, out, threads, memory, null);
+    }
+
+    /**
+     * Like {@link #generatePdf(SeatingPlan, OutputStream, int, MemoryUsageSetting)},
+     * reusing pages from a cache as in {@link #generatePdf(SeatingPlan, String, PageCache)}.
+     *
+     * @param cache Pages of earlier exports, or null to render every page
+     */
+    public static void generatePdf(SeatingPlan plan, OutputStream out, int threads, MemoryUsageSetting memory,
+                                   PageCache cache) throws IOException {
+        try (PDDocument document = build(plan, threads, memory, cache)) {
+            document.save(out);
+        }
+    }
+
+    /**
+     * Generate the seating plan PDF in compact form, for sending by email or
+     * copying to slow shares, rendering on all available cores.
+     *
+     * Besides the object and cross-reference streams every export uses,
+     * pages with the same fonts and grid template share one resource
+     * dictionary, content streams are compressed at the best level and
+     * objects are packed into larger object streams. The pages are the same
+     * as in the regular export.
+     *
+     * @return The regular and compact sizes
+     * @throws IOException If PDF generation fails
+     */
+    public static PdfSizeReport generateCompactPdf(SeatingPlan plan, String outputPath) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputPath))) {
+            return generateCompactPdf(plan, out, Runtime.getRuntime().availableProcessors(),
+                                      MemoryUsageSetting.setupMixed(DEFAULT_MAX_MEMORY), null);
+        }
+    }
+
+    /**
+     * Like {@link #generateCompactPdf(SeatingPlan, String)}, writing to a
+     * stream as {@link #generatePdf(SeatingPlan, OutputStream, int, MemoryUsageSetting, PageCache)}
+     * does. The regular size is measured by saving the document once more to
+     * a stream that discards the bytes.
+     *
+     * @param cache Pages of earlier exports, or null to render every page
+     * @return The regular and compact sizes
+     * @throws IOException If PDF generation or writing fails
+     */
+    public static PdfSizeReport generateCompactPdf(SeatingPlan plan, OutputStream out, int threads,
+                                                   MemoryUsageSetting memory, PageCache cache) throws IOException {
+        try (PDDocument document = build(plan, threads, memory, cache)) {
+            return PdfCompactor.save(document, out);
+        }
+    }
+
+    /**
+     * Write one PDF per room into a directory, plus {@value #SUMMARY_FILE_NAME}
+     * with the full listing, using all available cores.
+     *
+     * @see #exportRoomPdfs(SeatingPlan, File, int, Consumer)
+     */
+    public static List<File> exportRoomPdfs(SeatingPlan plan, File directory) throws IOException {
+        return exportRoomPdfs(plan, directory, Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * Write one PDF per room into a directory, plus {@value #SUMMARY_FILE_NAME}
+     * with the full listing. Each room file holds that room's page exactly as
+     * it appears in the combined document.
+     *
+     * Rooms are rendered and saved by a pool of worker threads, each file as
+     * soon as its room is drawn, so the first rooms can be printed while the
+     * rest are still being written. Files are named after the rooms (made
+     * safe for file systems and unique); existing files are overwritten.
+     *
+     * @param threads Number of worker threads
+     * @param written Called on the calling thread with each file once it is
+     *                complete, in completion order; may be null
+     * @return The files written: rooms in plan order, then the summary
+     * @throws IOException If the directory cannot be created or a file cannot be written
+     */
+    public static List<File> exportRoomPdfs(SeatingPlan plan, File directory, int threads,
+                                            Consumer<File> written) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory: " + directory.getAbsolutePath());
+        }
+        List<Classroom> classrooms = plan.getClassrooms();
+        Set<String> legendBranches = collectBranches(plan.getStudents());
+
+        List<File> files = new ArrayList<>();
+        for (String name : roomFileNames(classrooms)) {
+            files.add(new File(directory, name));
+        }
+        File summaryFile = new File(directory, SUMMARY_FILE_NAME);
+
+        ExecutorService pool = newRenderPool(threads);
+        CompletionService<File> completed = new ExecutorCompletionService<>(pool);
+        List<Future<File>> tasks = new ArrayList<>();
+        try {
+            // Summary first: it is the longest task
+            tasks.add(completed.submit(() -> {
+                try (PDDocument document = renderDocument(MemoryUsageSetting.setupMixed(DEFAULT_MAX_MEMORY),
+                        (summary, resources) -> writeSummary(summary, resources, plan))) {
+                    document.save(summaryFile);
+                }
+                return summaryFile;
+            }));
+            for (int i = 0; i < classrooms.size(); i++) {
+                Classroom classroom = classrooms.get(i);
+                File file = files.get(i);
+                tasks.add(completed.submit(() -> {
+                    try (PDDocument document = renderRoomDocument(plan, classroom, legendBranches)) {
+                        document.save(file);
+                    }
+                    return file;
+                }));
+            }
 
-            // Generate room layout pages
-            for (Classroom classroom : plan.getClassrooms()) {
-                generateRoomPage(document, classroom, plan);
+            for (int i = 0; i < tasks.size(); i++) {
+                Future<File> next;
+                try {
+                    next = completed.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("PDF export interrupted");
+                }
+                File file = await(next);
+                if (written != null) {
+                    written.accept(file);
+                }
             }
+        } finally {
+            for (Future<File> task : tasks) {
+                task.cancel(false);
+            }
+            pool.shutdown();
+        }
 
-            // Generate summary page
-            generateSummaryPage(document, plan);
+        files.add(summaryFile);
+        return files;
+    }
 
-            document.save(outputPath);
+    /**
+     * Write one PDF per room, plus {@value #SUMMARY_FILE_NAME}, as entries of
+     * a ZIP archive streamed to {@code out}. The stream is not closed.
+     *
+     * Rooms are rendered by a pool of worker threads and added to the archive
+     * in room order as they complete; only a bounded number of rendered rooms
+     * wait to be written at any time. Entries are named like the files of
+     * {@link #exportRoomPdfs(SeatingPlan, File, int, Consumer)}.
+     *
+     * @param threads Number of worker threads
+     * @throws IOException If rendering or writing fails
+     */
+    public static void exportRoomPdfs(SeatingPlan plan, OutputStream out, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        List<Classroom> classrooms = plan.getClassrooms();
+        Set<String> legendBranches = collectBranches(plan.getStudents());
+        List<String> names = roomFileNames(classrooms);
+
+        ExecutorService pool = newRenderPool(threads);
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        Future<PDDocument> summary = null;
+        try {
+            summary = pool.submit(() -> renderDocument(MemoryUsageSetting.setupMixed(DEFAULT_MAX_MEMORY),
+                    (document, resources) -> writeSummary(document, resources, plan)));
+
+            ZipOutputStream zip = new ZipOutputStream(out);
+            int next = 0;
+            for (String name : names) {
+                while (next < classrooms.size() && pending.size() < threads * ROOMS_AHEAD) {
+                    Classroom classroom = classrooms.get(next++);
+                    pending.add(pool.submit(() -> {
+                        try (PDDocument document = renderRoomDocument(plan, classroom, legendBranches)) {
+                            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                            document.save(bytes);
+                            return bytes.toByteArray();
+                        }
+                    }));
+                }
+                byte[] pdf = await(pending.peek());
+                pending.remove();
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(pdf);
+                zip.closeEntry();
+            }
+
+            Future<PDDocument> summaryDocument = summary;
+            summary = null;
+            try (PDDocument document = await(summaryDocument)) {
+                zip.putNextEntry(new ZipEntry(SUMMARY_FILE_NAME));
+                document.save(zip);
+                zip.closeEntry();
+            }
+            zip.finish();
+        } finally {
+            for (Future<byte[]> room : pending) {
+                room.cancel(false);
+            }
+            if (summary != null) {
+                discard(List.of(summary));
+            }
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Write an admit slip for every seated student (name, roll number,
+     * branch, room, seat, exam and date), rendering on all available cores.
+     *
+     * @see #generateAdmitSlips(SeatingPlan, OutputStream, int, MemoryUsageSetting)
+     */
+    public static void generateAdmitSlips(SeatingPlan plan, String outputPath) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputPath))) {
+            generateAdmitSlips(plan, out, Runtime.getRuntime().availableProcessors(),
+                               MemoryUsageSetting.setupMixed(DEFAULT_MAX_MEMORY));
+        }
+    }
+
+    /**
+     * Write an admit slip for every seated student to a stream, in room and
+     * seat order, {@value #SLIPS_PER_PAGE} slips per A4 page with borders to cut along.
+     * The stream is not closed.
+     *
+     * The frames, labels and exam header are the same on every page and are
+     * drawn once as a template; each page adds only its students' details.
+     * Pages are rendered in batches in parallel as for
+     * {@link #generatePdf(SeatingPlan, OutputStream, int, MemoryUsageSetting)},
+     * and page content beyond the {@code memory} limit is kept in a scratch
+     * file, so tens of thousands of slips need little heap beyond the plan.
+     *
+     * @param threads Number of rendering threads; 1 renders on the calling thread
+     * @param memory Where page content is kept while the document is built
+     * @throws IOException If PDF generation or writing fails
+     */
+    public static void generateAdmitSlips(SeatingPlan plan, OutputStream out, int threads, MemoryUsageSetting memory)
+            throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        try (PDDocument document = new PDDocument(memory.streamCache)) {
+            addPages(document, new PdfCanvas.Resources(), slipPageJobs(plan), threads, memory, null);
+            document.save(out);
+        }
+    }
+
+    /**
+     * Write door notices for all rooms with students, rendering on all
+     * available cores.
+     *
+     * @see #generateNotices(SeatingPlan, OutputStream, int, MemoryUsageSetting)
+     */
+    public static void generateNotices(SeatingPlan plan, String outputPath) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputPath))) {
+            generateNotices(plan, out, Runtime.getRuntime().availableProcessors(),
+                            MemoryUsageSetting.setupMixed(DEFAULT_MAX_MEMORY));
+        }
+    }
+
+    /**
+     * Write a door notice for every room with students to a stream, one A4
+     * page per room: the room name, exam, number of students and, per
+     * branch, the seated roll numbers with consecutive ones shown as ranges
+     * (see {@link NoticeBoard}). A room whose list does not fit on one page
+     * continues on the next. The stream is not closed.
+     *
+     * @param threads Number of rendering threads; 1 renders on the calling thread
+     * @param memory Where page content is kept while the document is built
+     * @throws IOException If PDF generation or writing fails
+     */
+    public static void generateNotices(SeatingPlan plan, OutputStream out, int threads, MemoryUsageSetting memory)
+            throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        try (PDDocument document = new PDDocument(memory.streamCache)) {
+            PdfCanvas.Resources resources = new PdfCanvas.Resources();
+            addPages(document, resources, noticePageJobs(plan, resources), threads, memory, null);
+            document.save(out);
         }
     }
 
     /**
-     * Generate a page with the classroom seating grid.
+     * File names for the rooms' PDFs, in room order: the room name with
+     * characters that are not allowed in file names replaced, made unique
+     * (case-insensitively, and distinct from the summary file).
      */
-    private static void generateRoomPage(PDDocument document, Classroom classroom, SeatingPlan plan) throws IOException {
-        PDPage page = new PDPage(PDRectangle.A4);
-        document.addPage(page);
+    private static List<String> roomFileNames(List<Classroom> classrooms) {
+        Set<String> used = new HashSet<>();
+        used.add(SUMMARY_FILE_NAME.toLowerCase(Locale.ROOT));
+        List<String> names = new ArrayList<>();
+        for (Classroom classroom : classrooms) {
+            String base = classroom.getRoomName() == null ? ""
+                    : classroom.getRoomName().replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+            base = base.replaceFirst("^\\.+", "");
+            if (base.isEmpty()) {
+                base = "Room";
+            }
+            if (base.length() > MAX_FILE_NAME_LENGTH) {
+                base = base.substring(0, MAX_FILE_NAME_LENGTH).trim();
+            }
+            String name = base + ".pdf";
+            for (int n = 2; !used.add(name.toLowerCase(Locale.ROOT)); n++) {
+                name = base + " (" + n + ").pdf";
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    private static PDDocument build(SeatingPlan plan, int threads, MemoryUsageSetting memory, PageCache cache)
+            throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        List<PageJob> jobs = pageJobs(plan, cache != null);
+        PDDocument document = new PDDocument(memory.streamCache);
+        try {
+            PdfCanvas.Resources resources = new PdfCanvas.Resources();
+            addPages(document, resources, jobs, threads, memory, cache);
+
+            try (RollIndex index = new RollIndex(INDEX_MEMORY_ENTRIES)) {
+                for (SeatingPlan.SeatAssignment assignment : plan.assignments()) {
+                    index.add(assignment.getStudent().getRollNo(), assignment.getRoomName(), assignment.getSeatLabel());
+                }
+                writeIndex(document, resources, plan, index, cache);
+            }
+            return document;
+        } catch (IOException | RuntimeException | Error e) {
+            document.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Add the pages of {@code jobs} to the document in order, taking them from
+     * the cache where possible and rendering the others, on a thread pool
+     * when there are enough of them.
+     *
+     * @param cache Page cache, or null to render every page
+     */
+    private static void addPages(PDDocument document, PdfCanvas.Resources resources, List<PageJob> jobs,
+                                 int threads, MemoryUsageSetting memory, PageCache cache) throws IOException {
+        List<PageJob> misses = new ArrayList<>();
+        for (PageJob job : jobs) {
+            if (cache != null) {
+                job.cached = cache.get(job.key);
+            }
+            if (job.cached == null) {
+                misses.add(job);
+            }
+        }
+
+        if (threads == 1 || misses.size() < PARALLEL_MIN_PAGES) {
+            for (PageJob job : jobs) {
+                if (job.cached != null) {
+                    job.cached.addTo(document, resources);
+                } else {
+                    PDPage page = job.renderer.render(document, resources);
+                    if (cache != null) {
+                        cache.put(job.key, RenderedPage.capture(page));
+                    }
+                }
+            }
+        } else {
+            renderParallel(document, resources, jobs, misses, threads, memory, cache);
+        }
+    }
+
+    /**
+     * Render the pages that are not cached in batches on a thread pool and
+     * add all pages to the document in order as the batches complete. Only a
+     * few batches are rendered ahead, so finished scratch documents do not
+     * pile up when adding pages is the slower side.
+     */
+    private static void renderParallel(PDDocument document, PdfCanvas.Resources resources, List<PageJob> jobs,
+                                       List<PageJob> misses, int threads, MemoryUsageSetting memory,
+                                       PageCache cache) throws IOException {
+        // A few batches per thread keeps the threads busy when pages differ in cost
+        int batchSize = Math.max(1, -Math.floorDiv(-misses.size(), threads * BATCHES_PER_THREAD));
+
+        ExecutorService pool = newRenderPool(threads);
+        Deque<Future<PDDocument>> pending = new ArrayDeque<>();
+        PDDocument batch = null;
+        try {
+            int next = 0;
+            Iterator<PDPage> rendered = Collections.emptyIterator();
+            for (PageJob job : jobs) {
+                if (job.cached != null) {
+                    job.cached.addTo(document, resources);
+                    continue;
+                }
+                if (!rendered.hasNext()) {
+                    IOUtils.closeQuietly(batch);
+                    batch = null;
+                    while (next < misses.size() && pending.size() < threads * BATCHES_AHEAD) {
+                        List<PageJob> batchJobs = misses.subList(next, Math.min(next + batchSize, misses.size()));
+                        pending.add(pool.submit(() -> renderDocument(memory, (scratch, scratchResources) -> {
+                            for (PageJob batchJob : batchJobs) {
+                                batchJob.renderer.render(scratch, scratchResources);
+                            }
+                        })));
+                        next += batchJobs.size();
+                    }
+                    batch = await(pending.peek());
+                    pending.remove();
+                    rendered = batch.getPages().iterator();
+                }
+
+                RenderedPage page = RenderedPage.capture(rendered.next());
+                page.addTo(document, resources);
+                if (cache != null) {
+                    cache.put(job.key, page);
+                }
+            }
+        } finally {
+            IOUtils.closeQuietly(batch);
+            discard(pending);
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Draws one page as the next page of a document.
+     */
+    private interface PageRenderer {
+        PDPage render(PDDocument document, PdfCanvas.Resources resources) throws IOException;
+    }
+
+    /**
+     * One page of the output: a room page or a page of the summary listing.
+     */
+    private static class PageJob {
+        final String key;              // cache key; null without a cache
+        final PageRenderer renderer;
+        RenderedPage cached;           // found in the cache
+
+        PageJob(String key, PageRenderer renderer) {
+            this.key = key;
+            this.renderer = renderer;
+        }
+    }
+
+    /**
+     * The pages of the document in order: one per room, then the summary.
+     *
+     * @param keyed Compute cache keys
+     */
+    private static List<PageJob> pageJobs(SeatingPlan plan, boolean keyed) {
+        List<PageJob> jobs = new ArrayList<>();
+
+        // Legend is the same on every room page
+        Set<String> legendBranches = collectBranches(plan.getStudents());
+        for (Classroom classroom : plan.getClassrooms()) {
+            jobs.add(new PageJob(keyed ? roomPageKey(plan, classroom, legendBranches) : null, (document, resources) -> {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                generateRoomPage(document, page, resources, classroom, plan, legendBranches);
+                return page;
+            }));
+        }
+
+        // Summary pages, each starting at a known room and seat
+        List<Classroom> classrooms = plan.getClassrooms();
+        List<String> distribution = roomDistributionLines(classrooms);
+        int totalPages = (int) Math.ceil((double) plan.getTotalOccupied() / SummaryWriter.ENTRIES_PER_PAGE);
+        int pageIndex = 0;
+        int rows = 0;
+        int startRoom = 0;
+        int startSeat = 0;
+        PageKey key = null;
+        for (int r = 0; r < classrooms.size(); r++) {
+            int seat = 0;
+            for (SeatingPlan.SeatAssignment assignment : SeatingPlan.assignments(classrooms.get(r))) {
+                if (rows == 0) {
+                    startRoom = r;
+                    startSeat = seat;
+                    key = keyed ? summaryPageKey(plan, pageIndex, totalPages, distribution) : null;
+                }
+                if (key != null) {
+                    for (String cell : SummaryWriter.rowCells(assignment.getRoomName(), assignment.getSeatLabel(),
+                                                              assignment.getStudent())) {
+                        key.add(cell);
+                    }
+                }
+                seat++;
+                if (++rows == SummaryWriter.ENTRIES_PER_PAGE) {
+                    jobs.add(summaryPageJob(plan, pageIndex++, startRoom, startSeat, rows, distribution, key));
+                    rows = 0;
+                }
+            }
+        }
+        if (rows > 0) {
+            jobs.add(summaryPageJob(plan, pageIndex, startRoom, startSeat, rows, distribution, key));
+        }
+        return jobs;
+    }
+
+    /**
+     * A summary page with {@code rows} assignments, starting at seat
+     * {@code startSeat} (in assignment order) of room {@code startRoom}.
+     */
+    private static PageJob summaryPageJob(SeatingPlan plan, int pageIndex, int startRoom, int startSeat, int rows,
+                                          List<String> distribution, PageKey key) {
+        return new PageJob(key != null ? key.finish() : null, (document, resources) -> {
+            List<Classroom> classrooms = plan.getClassrooms();
+            try (SummaryWriter summary = new SummaryWriter(document, resources, plan, plan.getTotalOccupied(),
+                    plan.getStudents().size(), plan.getTotalOccupied(), classrooms.size(), pageIndex)) {
+                for (SeatingPlan.SeatAssignment assignment : assignmentRange(classrooms, startRoom, startSeat, rows)) {
+                    summary.addRow(assignment.getRoomName(), assignment.getSeatLabel(), assignment.getStudent());
+                }
+                if (pageIndex == 0) {
+                    summary.finish(distribution);
+                }
+                return summary.getFirstPage();
+            }
+        });
+    }
+
+    /**
+     * {@code count} assignments in room and seat order, starting at seat
+     * {@code startSeat} (in assignment order) of room {@code startRoom}.
+     */
+    private static List<SeatingPlan.SeatAssignment> assignmentRange(List<Classroom> classrooms, int startRoom,
+                                                                    int startSeat, int count) {
+        List<SeatingPlan.SeatAssignment> range = new ArrayList<>(count);
+        int skip = startSeat;
+        for (int r = startRoom; r < classrooms.size() && range.size() < count; r++) {
+            for (SeatingPlan.SeatAssignment assignment : SeatingPlan.assignments(classrooms.get(r))) {
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                range.add(assignment);
+                if (range.size() == count) {
+                    break;
+                }
+            }
+        }
+        return range;
+    }
+
+    /**
+     * Cache key of a room page: everything {@link #generateRoomPage} draws.
+     */
+    private static String roomPageKey(SeatingPlan plan, Classroom classroom, Set<String> legendBranches) {
+        PageKey key = new PageKey("room/" + PAGE_VERSION)
+                .add(plan.getExamName())
+                .add(plan.getExamDate())
+                .add(plan.getPatternUsed().getDisplayName())
+                .add(classroom.getRoomName())
+                .add(classroom.getCapacity())
+                .add(classroom.getOccupiedCount())
+                .add(classroom.hasBranchRestrictions() ? classroom.getBranchSummary() : null)
+                .add(classroom.getRows())
+                .add(classroom.getColumns());
+        for (int r = 0; r < classroom.getRows(); r++) {
+            for (int c = 0; c < classroom.getColumns(); c++) {
+                Seat seat = classroom.getSeat(r, c);
+                boolean occupied = seat != null && seat.isOccupied();
+                key.add(occupied);
+                if (occupied) {
+                    Student student = seat.getAssignedStudent();
+                    key.add(student.getRollNo()).add(student.getName()).add(student.getBranch()).add(student.getYear());
+                }
+            }
+        }
+        key.add(legendBranches.size());
+        for (String branch : legendBranches) {
+            key.add(branch);
+        }
+        return key.finish();
+    }
 
+    /**
+     * The admit slip pages in order, each starting at a known room and seat.
+     */
+    private static List<PageJob> slipPageJobs(SeatingPlan plan) {
+        List<PageJob> jobs = new ArrayList<>();
+        List<Classroom> classrooms = plan.getClassrooms();
+        int slips = 0;
+        int startRoom = 0;
+        int startSeat = 0;
+        for (int r = 0; r < classrooms.size(); r++) {
+            int seat = 0;
+            for (SeatingPlan.SeatAssignment ignored : SeatingPlan.assignments(classrooms.get(r))) {
+                if (slips == 0) {
+                    startRoom = r;
+                    startSeat = seat;
+                }
+                seat++;
+                if (++slips == SLIPS_PER_PAGE) {
+                    jobs.add(slipPageJob(plan, startRoom, startSeat, slips));
+                    slips = 0;
+                }
+            }
+        }
+        if (slips > 0) {
+            jobs.add(slipPageJob(plan, startRoom, startSeat, slips));
+        }
+        return jobs;
+    }
+
+    private static PageJob slipPageJob(SeatingPlan plan, int startRoom, int startSeat, int slips) {
+        return new PageJob(null, (document, resources) -> {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            generateSlipPage(document, page, resources, plan,
+                             assignmentRange(plan.getClassrooms(), startRoom, startSeat, slips));
+            return page;
+        });
+    }
+
+    /**
+     * Draw a page of admit slips: the slip template (frames, labels, exam
+     * header), then each student's details in one text object.
+     */
+    private static void generateSlipPage(PDDocument document, PDPage page, PdfCanvas.Resources resources,
+                                         SeatingPlan plan, List<SeatingPlan.SeatAssignment> slips)
+            throws IOException {
         float pageWidth = page.getMediaBox().getWidth();
         float pageHeight = page.getMediaBox().getHeight();
+        float slipWidth = (pageWidth - 2 * SLIP_MARGIN) / SLIP_COLUMNS;
+        float slipHeight = (pageHeight - 2 * SLIP_MARGIN) / SLIP_ROWS;
+
+        try (PdfCanvas canvas = new PdfCanvas(document, page)) {
+            // Pages differ only in how many slips the last one holds
+            PageKey key = new PageKey("slips/" + PAGE_VERSION)
+                    .add(pageWidth).add(pageHeight).add(slips.size())
+                    .add(plan.getExamName()).add(plan.getExamDate());
+            COSName templateName = COSName.getPDFName("Slips" + key.finish().substring(0, 16));
+            PDFormXObject template = resources.template(templateName);
+            if (template == null) {
+                template = slipTemplate(document, new PDRectangle(pageWidth, pageHeight), resources, plan,
+                                        slips.size(), slipWidth, slipHeight);
+                resources.addTemplate(templateName, template);
+            }
+            canvas.drawForm(templateName, template);
+
+            for (int i = 0; i < slips.size(); i++) {
+                SeatingPlan.SeatAssignment slip = slips.get(i);
+                Student student = slip.getStudent();
+                float x = SLIP_MARGIN + (i % SLIP_COLUMNS) * slipWidth + 10 + SLIP_VALUE_OFFSET;
+                float y = pageHeight - SLIP_MARGIN - (i / SLIP_COLUMNS) * slipHeight - 57;
+                canvas.text(resources.regular, 9, x, y, truncate(student.getName(), 36));
+                canvas.text(resources.bold, 9, x, y - 14, truncate(student.getRollNo(), 30));
+                canvas.text(resources.regular, 9, x, y - 28, student.getBranch() + "   Year " + student.getYear());
+                canvas.text(resources.bold, 11, x, y - 46, truncate(slip.getRoomName(), 24));
+                canvas.text(resources.bold, 11, x, y - 62, slip.getSeatLabel());
+            }
+        }
+    }
 
-        try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+    /**
+     * Draw the parts of {@code count} admit slips that every page shares:
+     * cut borders, title, exam header and field labels.
+     */
+    private static PDFormXObject slipTemplate(PDDocument document, PDRectangle box, PdfCanvas.Resources resources,
+                                              SeatingPlan plan, int count, float slipWidth, float slipHeight)
+            throws IOException {
+        String examInfo = "";
+        if (plan.getExamName() != null && !plan.getExamName().isEmpty()) {
+            examInfo += "Exam: " + truncate(plan.getExamName(), 30) + "   ";
+        }
+        if (plan.getExamDate() != null && !plan.getExamDate().isEmpty()) {
+            examInfo += "Date: " + plan.getExamDate();
+        }
+
+        PDFormXObject slips = PdfCanvas.newTemplate(document, box, new PDResources());
+        try (PdfCanvas canvas = new PdfCanvas(slips)) {
+            canvas.strokeColor(0.6f, 0.6f, 0.6f);
+            for (int i = 0; i < count; i++) {
+                float x = SLIP_MARGIN + (i % SLIP_COLUMNS) * slipWidth;
+                float top = box.getHeight() - SLIP_MARGIN - (i / SLIP_COLUMNS) * slipHeight;
+                canvas.addRect(x + SLIP_GAP / 2, top - slipHeight + SLIP_GAP / 2,
+                               slipWidth - SLIP_GAP, slipHeight - SLIP_GAP);
+            }
+            canvas.stroke();
+
+            canvas.fillColor(0, 0, 0);
+            for (int i = 0; i < count; i++) {
+                float x = SLIP_MARGIN + (i % SLIP_COLUMNS) * slipWidth + 10;
+                float top = box.getHeight() - SLIP_MARGIN - (i / SLIP_COLUMNS) * slipHeight;
+                canvas.text(resources.bold, 12, x, top - 22, "ADMIT SLIP");
+                if (!examInfo.isEmpty()) {
+                    canvas.text(resources.regular, 8, x, top - 36, examInfo);
+                }
+                canvas.text(resources.regular, 8, x, top - 57, "Name:");
+                canvas.text(resources.regular, 8, x, top - 71, "Roll No:");
+                canvas.text(resources.regular, 8, x, top - 85, "Branch:");
+                canvas.text(resources.regular, 8, x, top - 103, "Room:");
+                canvas.text(resources.regular, 8, x, top - 119, "Seat:");
+            }
+        }
+        return slips;
+    }
+
+    /**
+     * One line of a door notice, at its final position on the page.
+     */
+    private static class NoticeLine {
+        final boolean heading;
+        final float y;
+        final String text;
+
+        NoticeLine(boolean heading, float y, String text) {
+            this.heading = heading;
+            this.y = y;
+            this.text = text;
+        }
+    }
+
+    /**
+     * The door notice pages in order. Lines are wrapped and split into pages
+     * here, measured with the document's fonts, so each job draws one page.
+     */
+    private static List<PageJob> noticePageJobs(SeatingPlan plan, PdfCanvas.Resources resources) throws IOException {
+        float pageHeight = PDRectangle.A4.getHeight();
+        float maxWidth = PDRectangle.A4.getWidth() - 2 * MARGIN;
+        float bodyTop = pageHeight - MARGIN - 98;
+        String examInfo = NoticeBoard.examInfo(plan);
+
+        List<PageJob> jobs = new ArrayList<>();
+        for (NoticeBoard.RoomNotice notice : NoticeBoard.build(plan)) {
+            List<List<NoticeLine>> pages = new ArrayList<>();
+            List<NoticeLine> lines = new ArrayList<>();
+            pages.add(lines);
+            float y = bodyTop;
+            for (NoticeBoard.BranchRolls rolls : notice.getBranches()) {
+                // Keep a heading with its first line of roll numbers
+                if (y - NOTICE_BRANCH_HEIGHT < MARGIN && !lines.isEmpty()) {
+                    lines = new ArrayList<>();
+                    pages.add(lines);
+                    y = bodyTop;
+                }
+                lines.add(new NoticeLine(true, y, NoticeBoard.branchLabel(rolls)));
+                y -= NOTICE_BRANCH_HEIGHT;
+
+                for (String text : wrapRanges(rolls.getRanges(), resources.regular, 14, maxWidth)) {
+                    if (y < MARGIN) {
+                        lines = new ArrayList<>();
+                        pages.add(lines);
+                        y = bodyTop;
+                    }
+                    lines.add(new NoticeLine(false, y, text));
+                    y -= NOTICE_LINE_HEIGHT;
+                }
+                y -= NOTICE_BRANCH_GAP;
+            }
+
+            for (int p = 0; p < pages.size(); p++) {
+                String title = notice.getRoomName().toUpperCase() + (p > 0 ? " (continued)" : "");
+                List<NoticeLine> pageLines = pages.get(p);
+                jobs.add(new PageJob(null, (document, documentResources) -> {
+                    PDPage page = new PDPage(PDRectangle.A4);
+                    document.addPage(page);
+                    try (PdfCanvas canvas = new PdfCanvas(document, page)) {
+                        float top = pageHeight - MARGIN;
+                        canvas.text(documentResources.bold, 28, MARGIN, top - 20, title);
+                        if (!examInfo.isEmpty()) {
+                            canvas.text(documentResources.regular, 12, MARGIN, top - 46, examInfo);
+                        }
+                        canvas.text(documentResources.regular, 12, MARGIN, top - 64,
+                                    notice.getSeated() + " students");
+                        for (NoticeLine line : pageLines) {
+                            canvas.text(line.heading ? documentResources.bold : documentResources.regular,
+                                        line.heading ? 16 : 14, MARGIN, line.y, line.text);
+                        }
+                    }
+                    return page;
+                }));
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Join roll ranges with ", " into lines no wider than {@code maxWidth},
+     * never splitting a range.
+     */
+    private static List<String> wrapRanges(List<String> ranges, PDFont font, float size, float maxWidth)
+            throws IOException {
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (String range : ranges) {
+            if (line.length() > 0) {
+                float width = font.getStringWidth(line + ", " + range) / 1000 * size;
+                if (width > maxWidth) {
+                    lines.add(line.append(',').toString());
+                    line.setLength(0);
+                } else {
+                    line.append(", ");
+                }
+            }
+            line.append(range);
+        }
+        if (line.length() > 0) {
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Start of a summary page's cache key; the page's rows are added by the caller.
+     */
+    private static PageKey summaryPageKey(SeatingPlan plan, int pageIndex, int totalPages, List<String> distribution) {
+        PageKey key = new PageKey("summary/" + PAGE_VERSION).add(pageIndex).add(totalPages);
+        if (pageIndex == 0) {
+            key.add(plan.getPatternUsed().getDisplayName())
+               .add(plan.getExamName())
+               .add(plan.getExamDate())
+               .add(plan.getStudents().size())
+               .add(plan.getTotalOccupied())
+               .add(plan.getClassrooms().size())
+               .add(distribution.size());
+            for (String line : distribution) {
+                key.add(line);
+            }
+        }
+        return key;
+    }
+
+    private static ExecutorService newRenderPool(int threads) {
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "pdf-render");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Draws pages into a scratch document.
+     */
+    private interface ScratchRenderer {
+        void render(PDDocument scratch, PdfCanvas.Resources resources) throws IOException;
+    }
+
+    private static PDDocument renderRoomDocument(SeatingPlan plan, Classroom classroom, Set<String> legendBranches)
+            throws IOException {
+        return renderDocument(MemoryUsageSetting.setupMainMemoryOnly(), (document, resources) -> {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            generateRoomPage(document, page, resources, classroom, plan, legendBranches);
+        });
+    }
+
+    private static PDDocument renderDocument(MemoryUsageSetting memory, ScratchRenderer renderer) throws IOException {
+        PDDocument scratch = new PDDocument(memory.streamCache);
+        try {
+            renderer.render(scratch, new PdfCanvas.Resources());
+            return scratch;
+        } catch (IOException | RuntimeException | Error e) {
+            scratch.close();
+            throw e;
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("PDF rendering interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * After a failure: cancel batches not yet started and close the scratch
+     * documents (and their scratch files) of those already rendered.
+     */
+    private static void discard(Collection<Future<PDDocument>> pending) {
+        for (Future<PDDocument> future : pending) {
+            future.cancel(false);
+        }
+        for (Future<PDDocument> future : pending) {
+            if (future.isCancelled()) {
+                continue;
+            }
+            try {
+                future.get().close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | IOException e) {
+                // Already failing; the original exception is reported
+            }
+        }
+    }
+
+    /**
+     * Append the summary pages (every assignment, then room totals) and the
+     * roll number index.
+     */
+    private static void writeSummary(PDDocument document, PdfCanvas.Resources resources, SeatingPlan plan)
+            throws IOException {
+        try (RollIndex index = new RollIndex(INDEX_MEMORY_ENTRIES)) {
+            try (SummaryWriter summary = new SummaryWriter(document, resources, plan, plan.getTotalOccupied(),
+                    plan.getStudents().size(), plan.getTotalOccupied(), plan.getClassrooms().size())) {
+                for (SeatingPlan.SeatAssignment assignment : plan.assignments()) {
+                    summary.addRow(assignment.getRoomName(), assignment.getSeatLabel(), assignment.getStudent());
+                    index.add(assignment.getStudent().getRollNo(), assignment.getRoomName(), assignment.getSeatLabel());
+                }
+                summary.finish(roomDistributionLines(plan.getClassrooms()));
+            }
+            writeIndex(document, resources, plan, index, null);
+        }
+    }
+
+    /**
+     * Append the roll number index pages, reusing cached pages if a cache is given.
+     */
+    private static void writeIndex(PDDocument document, PdfCanvas.Resources resources, SeatingPlan plan,
+                                   RollIndex index, PageCache cache) throws IOException {
+        IndexWriter writer = new IndexWriter(document, resources, plan, index.size(), cache);
+        index.sorted(writer);
+        writer.finish();
+    }
+
+    /**
+     * Allocate and render a seating plan one room at a time.
+     *
+     * Students are partitioned into rooms up front, then each room is allocated,
+     * drawn and released before the next one is built. Page content is kept in a
+     * scratch file instead of the heap, so peak memory follows the largest room
+     * rather than the whole plan. Pages look the same as {@link #generatePdf}
+     * draws them for the same seat assignments; the summary's page count and
+     * seated total are filled in after the last room.
+     *
+     * @return Students that could not be seated
+     * @throws IOException If PDF generation fails
+     */
+    public static List<Student> generatePdfStreaming(List<Student> students, List<Classroom> classrooms,
+                                                     PatternType patternType, SeatingConfig config,
+                                                     String examName, String examDate,
+                                                     String outputPath) throws IOException {
+        StreamingAllocator.Partition partition = StreamingAllocator.partition(students, classrooms, config);
+
+        // Plan-level header info shared by every page; holds no classrooms
+        SeatingPlan header = new SeatingPlan(new ArrayList<>(), students);
+        header.setPatternUsed(patternType);
+        header.setExamName(examName);
+        header.setExamDate(examDate);
+
+        Set<String> legendBranches = collectBranches(students);
+        List<String> distribution = new ArrayList<>();
+
+        try (PDDocument document = new PDDocument(IOUtils.createTempFileOnlyStreamCache());
+             RollIndex index = new RollIndex(INDEX_MEMORY_ENTRIES)) {
+            PdfCanvas.Resources resources = new PdfCanvas.Resources();
+            List<Student> unassigned;
+
+            // Rooms may leave students unseated, so the summary counts its rows
+            try (SummaryWriter summary = new SummaryWriter(document, resources, header,
+                    students.size(), classrooms.size())) {
+
+                unassigned = StreamingAllocator.allocate(partition, classrooms, patternType, config, roomPlan -> {
+                    Classroom classroom = roomPlan.getClassrooms().get(0);
+
+                    // Room pages go before any summary page already started
+                    PDPage page = new PDPage(PDRectangle.A4);
+                    if (summary.getFirstPage() != null) {
+                        document.getPages().insertBefore(page, summary.getFirstPage());
+                    } else {
+                        document.addPage(page);
+                    }
+                    generateRoomPage(document, page, resources, classroom, header, legendBranches);
+
+                    for (SeatingPlan.SeatAssignment assignment : roomPlan.assignments()) {
+                        summary.addRow(assignment.getRoomName(), assignment.getSeatLabel(), assignment.getStudent());
+                        index.add(assignment.getStudent().getRollNo(), assignment.getRoomName(),
+                                  assignment.getSeatLabel());
+                    }
+                    distribution.add(roomDistributionLine(classroom));
+                });
+
+                summary.finish(distribution);
+            }
+            writeIndex(document, resources, header, index, null);
+
+            document.save(outputPath);
+            return unassigned;
+        }
+    }
+
+    /**
+     * Draw the classroom seating grid onto a page already placed in the document.
+     *
+     * Shapes are drawn first, grouped by colour (one fill per colour), then all
+     * text in a single text object grouped by font. The parts that only depend
+     * on the grid shape and the legend (cell borders, row and column headers
+     * and the legend) come from a template shared by every room of that shape,
+     * see {@link #gridTemplate}. Shapes and text do not overlap, so the page
+     * looks the same as when each cell is drawn in turn.
+     */
+    private static void generateRoomPage(PDDocument document, PDPage page, PdfCanvas.Resources resources,
+                                         Classroom classroom, SeatingPlan plan,
+                                         Set<String> legendBranches) throws IOException {
+        float pageWidth = page.getMediaBox().getWidth();
+        float pageHeight = page.getMediaBox().getHeight();
+
+        try (PdfCanvas canvas = new PdfCanvas(document, page)) {
 
             float yPosition = pageHeight - MARGIN;
 
             // Title
-            content.beginText();
-            content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 16);
-            content.newLineAtOffset(MARGIN, yPosition);
-            content.showText("SEATING PLAN - " + classroom.getRoomName().toUpperCase());
-            content.endText();
+            canvas.text(resources.bold, 16, MARGIN, yPosition,
+                        "SEATING PLAN - " + classroom.getRoomName().toUpperCase());
             yPosition -= 25;
 
             // Exam info
-            content.beginText();
-            content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
-            content.newLineAtOffset(MARGIN, yPosition);
             String examInfo = "";
             if (plan.getExamName() != null && !plan.getExamName().isEmpty()) {
                 examInfo += "Exam: " + plan.getExamName() + "   ";
@@ -77,29 +1195,20 @@ public class PdfGenerator {
                 examInfo += "Date: " + plan.getExamDate();
             }
             if (!examInfo.isEmpty()) {
-                content.showText(examInfo);
+                canvas.text(resources.regular, 10, MARGIN, yPosition, examInfo);
             }
-            content.endText();
             yPosition -= 15;
 
             // Room info
-            content.beginText();
-            content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
-            content.newLineAtOffset(MARGIN, yPosition);
             String roomInfo = "Pattern: " + plan.getPatternUsed().getDisplayName() + 
                            "   |   Capacity: " + classroom.getCapacity() + 
                            "   |   Occupied: " + classroom.getOccupiedCount();
-            content.showText(roomInfo);
-            content.endText();
+            canvas.text(resources.regular, 10, MARGIN, yPosition, roomInfo);
             yPosition -= 15;
             
             // Branch info if restricted
             if (classroom.hasBranchRestrictions()) {
-                content.beginText();
-                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 9);
-                content.newLineAtOffset(MARGIN, yPosition);
-                content.showText("Branches: " + classroom.getBranchSummary());
-                content.endText();
+                canvas.text(resources.regular, 9, MARGIN, yPosition, "Branches: " + classroom.getBranchSummary());
                 yPosition -= 15;
             }
             yPosition -= 15;
@@ -115,291 +1224,607 @@ public class PdfGenerator {
             float cellHeight = Math.min(availableHeight / rows, 50);
 
             float tableWidth = cellWidth * cols;
-            float tableHeight = cellHeight * rows;
             float startX = MARGIN + (availableWidth - tableWidth) / 2;
-            float startY = yPosition;
+            float headerY = yPosition;
+            float startY = yPosition - 15;
 
-            // Draw column headers
-            content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 8);
-            for (int c = 0; c < cols; c++) {
-                float x = startX + (c * cellWidth) + (cellWidth / 2) - 5;
-                content.beginText();
-                content.newLineAtOffset(x, startY + 5);
-                content.showText("C" + (c + 1));
-                content.endText();
-            }
-            startY -= 15;
-
-            // Draw grid
+            // Cell backgrounds, one fill per colour
+            Map<float[], List<float[]>> backgrounds = new LinkedHashMap<>();
             for (int r = 0; r < rows; r++) {
                 float y = startY - (r * cellHeight);
-
-                // Row header
-                content.beginText();
-                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 8);
-                content.newLineAtOffset(startX - 20, y - (cellHeight / 2) - 3);
-                content.showText("R" + (r + 1));
-                content.endText();
-
                 for (int c = 0; c < cols; c++) {
                     float x = startX + (c * cellWidth);
                     Seat seat = classroom.getSeat(r, c);
-
-                    // Draw cell border
-                    content.setStrokingColor(0.5f, 0.5f, 0.5f);
-                    content.addRect(x, y - cellHeight, cellWidth, cellHeight);
-                    content.stroke();
-
-                    // Draw cell content
-                    if (seat != null && seat.isOccupied()) {
-                        Student student = seat.getAssignedStudent();
-
-                        // Fill with light color based on branch
-                        float[] color = getBranchRGB(student.getBranch());
-                        content.setNonStrokingColor(color[0], color[1], color[2]);
-                        content.addRect(x + 1, y - cellHeight + 1, cellWidth - 2, cellHeight - 2);
-                        content.fill();
-                        content.setNonStrokingColor(0, 0, 0);
-
-                        // Roll number
-                        content.beginText();
-                        content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 8);
-                        content.newLineAtOffset(x + CELL_PADDING, y - 12);
-                        content.showText(truncate(student.getRollNo(), 12));
-                        content.endText();
-
-                        // Name
-                        content.beginText();
-                        content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 7);
-                        content.newLineAtOffset(x + CELL_PADDING, y - 22);
-                        content.showText(truncate(student.getName(), 12));
-                        content.endText();
-
-                        // Branch
-                        content.beginText();
-                        content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 6);
-                        content.newLineAtOffset(x + CELL_PADDING, y - 32);
-                        content.showText(student.getBranch() + " Y" + student.getYear());
-                        content.endText();
-                    } else {
-                        // Empty seat
-                        content.setNonStrokingColor(0.95f, 0.95f, 0.95f);
-                        content.addRect(x + 1, y - cellHeight + 1, cellWidth - 2, cellHeight - 2);
-                        content.fill();
-                        content.setNonStrokingColor(0.6f, 0.6f, 0.6f);
-
-                        content.beginText();
-                        content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 8);
-                        content.newLineAtOffset(x + cellWidth/2 - 10, y - cellHeight/2 - 3);
-                        content.showText("Empty");
-                        content.endText();
-
-                        content.setNonStrokingColor(0, 0, 0);
-                    }
+                    float[] color = seat != null && seat.isOccupied()
+                            ? getBranchRGB(seat.getAssignedStudent().getBranch()) : EMPTY_SEAT_RGB;
+                    backgrounds.computeIfAbsent(color, k -> new ArrayList<>())
+                               .add(new float[]{x + 1, y - cellHeight + 1, cellWidth - 2, cellHeight - 2});
+                }
+            }
+            for (Map.Entry<float[], List<float[]>> entry : backgrounds.entrySet()) {
+                canvas.fillColor(entry.getKey());
+                for (float[] rect : entry.getValue()) {
+                    canvas.addRect(rect[0], rect[1], rect[2], rect[3]);
                 }
+                canvas.fill();
             }
 
-            // Legend
+            // Borders, headers and legend
             float legendY = startY - (rows * cellHeight) - 30;
-            content.beginText();
-            content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 9);
-            content.newLineAtOffset(MARGIN, legendY);
-            content.showText("Legend (by Branch):");
-            content.endText();
+            PageKey key = new PageKey("grid/" + PAGE_VERSION)
+                    .add(pageWidth).add(pageHeight).add(rows).add(cols)
+                    .add(startX).add(startY).add(headerY).add(cellWidth).add(cellHeight).add(legendY)
+                    .add(legendBranches.size());
+            for (String branch : legendBranches) {
+                key.add(branch);
+            }
+            COSName gridName = COSName.getPDFName("Grid" + key.finish().substring(0, 16));
+            PDFormXObject grid = resources.template(gridName);
+            if (grid == null) {
+                grid = gridTemplate(document, new PDRectangle(pageWidth, pageHeight), resources, rows, cols,
+                                    startX, startY, headerY, cellWidth, cellHeight, legendY, legendBranches);
+                resources.addTemplate(gridName, grid);
+            }
+            canvas.drawForm(gridName, grid);
+
+            // Text, grouped by font and colour
+            canvas.fillColor(0, 0, 0);
+
+            // Roll numbers, then names, then branch/year lines
+            drawSeatText(canvas, classroom, startX, startY, cellWidth, cellHeight, resources.bold, 8, 12,
+                         student -> truncate(student.getRollNo(), 12));
+            drawSeatText(canvas, classroom, startX, startY, cellWidth, cellHeight, resources.regular, 7, 22,
+                         student -> truncate(student.getName(), 12));
+            drawSeatText(canvas, classroom, startX, startY, cellWidth, cellHeight, resources.regular, 6, 32,
+                         student -> student.getBranch() + " Y" + student.getYear());
 
-            // Draw branch color legend
-            Set<String> branches = new HashSet<>();
-            for (Student s : plan.getStudents()) {
-                branches.add(s.getBranch());
+            // Empty seats
+            canvas.fillColor(0.6f, 0.6f, 0.6f);
+            for (int r = 0; r < rows; r++) {
+                float y = startY - (r * cellHeight);
+                for (int c = 0; c < cols; c++) {
+                    Seat seat = classroom.getSeat(r, c);
+                    if (seat == null || !seat.isOccupied()) {
+                        float x = startX + (c * cellWidth);
+                        canvas.text(resources.regular, 8, x + cellWidth/2 - 10, y - cellHeight/2 - 3, "Empty");
+                    }
+                }
             }
+        }
+    }
+
+    /**
+     * Draw the static part of a room page (cell borders, row and column
+     * headers and the legend) into a template. Every room with the same grid
+     * shape and legend paints this one template, so each page only carries
+     * its seat fills and text.
+     */
+    private static PDFormXObject gridTemplate(PDDocument document, PDRectangle box, PdfCanvas.Resources resources,
+                                              int rows, int cols, float startX, float startY, float headerY,
+                                              float cellWidth, float cellHeight, float legendY,
+                                              Set<String> legendBranches) throws IOException {
+        PDFormXObject grid = PdfCanvas.newTemplate(document, box, new PDResources());
+        try (PdfCanvas canvas = new PdfCanvas(grid)) {
+
+            // Cell borders, one stroke
+            canvas.strokeColor(0.5f, 0.5f, 0.5f);
+            for (int r = 0; r < rows; r++) {
+                float y = startY - (r * cellHeight);
+                for (int c = 0; c < cols; c++) {
+                    canvas.addRect(startX + (c * cellWidth), y - cellHeight, cellWidth, cellHeight);
+                }
+            }
+            canvas.stroke();
 
+            // Legend swatches
             float legendX = MARGIN + 100;
-            for (String branch : branches) {
-                float[] color = getBranchRGB(branch);
-                content.setNonStrokingColor(color[0], color[1], color[2]);
-                content.addRect(legendX, legendY - 3, 15, 12);
-                content.fill();
-                content.setNonStrokingColor(0, 0, 0);
-
-                content.beginText();
-                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 8);
-                content.newLineAtOffset(legendX + 20, legendY);
-                content.showText(branch);
-                content.endText();
+            for (String branch : legendBranches) {
+                canvas.fillColor(getBranchRGB(branch));
+                canvas.fillRect(legendX, legendY - 3, 15, 12);
+                legendX += 60;
+            }
 
+            canvas.fillColor(0, 0, 0);
+
+            // Column and row headers
+            for (int c = 0; c < cols; c++) {
+                float x = startX + (c * cellWidth) + (cellWidth / 2) - 5;
+                canvas.text(resources.bold, 8, x, headerY + 5, "C" + (c + 1));
+            }
+            for (int r = 0; r < rows; r++) {
+                float y = startY - (r * cellHeight);
+                canvas.text(resources.bold, 8, startX - 20, y - (cellHeight / 2) - 3, "R" + (r + 1));
+            }
+
+            // Legend
+            canvas.text(resources.bold, 9, MARGIN, legendY, "Legend (by Branch):");
+            legendX = MARGIN + 100;
+            for (String branch : legendBranches) {
+                canvas.text(resources.regular, 8, legendX + 20, legendY, branch);
                 legendX += 60;
             }
         }
+        return grid;
+    }
+
+    /**
+     * Draw one line of text in every occupied cell.
+     *
+     * @param offset Distance of the baseline below the cell's top edge
+     */
+    private static void drawSeatText(PdfCanvas canvas, Classroom classroom, float startX, float startY,
+                                     float cellWidth, float cellHeight, PDFont font, float size, float offset,
+                                     Function<Student, String> line) throws IOException {
+        for (int r = 0; r < classroom.getRows(); r++) {
+            float y = startY - (r * cellHeight);
+            for (int c = 0; c < classroom.getColumns(); c++) {
+                Seat seat = classroom.getSeat(r, c);
+                if (seat != null && seat.isOccupied()) {
+                    canvas.text(font, size, startX + (c * cellWidth) + CELL_PADDING, y - offset,
+                                line.apply(seat.getAssignedStudent()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Collect the distinct branches shown in the room page legend.
+     */
+    private static Set<String> collectBranches(List<Student> students) {
+        Set<String> branches = new HashSet<>();
+        for (Student s : students) {
+            branches.add(s.getBranch());
+        }
+        return branches;
+    }
+
+    private static List<String> roomDistributionLines(List<Classroom> classrooms) {
+        List<String> lines = new ArrayList<>();
+        for (Classroom room : classrooms) {
+            lines.add(roomDistributionLine(room));
+        }
+        return lines;
+    }
+
+    private static String roomDistributionLine(Classroom room) {
+        return room.getRoomName() + ": " + room.getOccupiedCount() + " / " +
+               room.getCapacity() + " seats occupied";
     }
 
     /**
-     * Generate a summary page with tabular listing.
+     * Writes the summary pages (tabular listing) row by row.
+     * Pages are created lazily as rows arrive, so rows can be fed while rooms
+     * are still being rendered. The rows of a page are buffered and drawn
+     * together: all row shading in one fill, then all text in one text object.
+     *
+     * When the number of rows is not known up front (see
+     * {@link #SummaryWriter(PDDocument, PdfCanvas.Resources, SeatingPlan, int, int)}),
+     * each page paints its title, and the first page its totals line, from
+     * an empty template that {@link #finish} fills in once all rows are in.
      */
-    private static void generateSummaryPage(PDDocument document, SeatingPlan plan) throws IOException {
-        List<SeatingPlan.SeatAssignment> assignments = plan.getAllAssignments();
+    private static class SummaryWriter implements Closeable {
+        private static final int ENTRIES_PER_PAGE = 40;
+        private static final COSName TOTALS = COSName.getPDFName("Totals");
+        private static final float[] COL_WIDTHS = {80, 60, 150, 60, 50, 50};
+        private static final String[] HEADERS = {"Room", "Seat", "Name", "Roll No", "Branch", "Year"};
+
+        private final PDDocument document;
+        private final PdfCanvas.Resources resources;
+        private final SeatingPlan plan;
+        private final int totalStudents;
+        private final int classroomCount;
+        private final boolean deferTotals;
+        private int totalPages;
+        private int seated;
+
+        // Templates holding the title (and totals) of each page, when deferred
+        private final List<PDFormXObject> totalsTemplates = new ArrayList<>();
+        private int rows;
+
+        // Cell texts of the rows on the current page, not yet drawn
+        private final List<String[]> pendingRows = new ArrayList<>(ENTRIES_PER_PAGE);
+        private float pendingTop;
+
+        private PDPage firstPage;
+        private PdfCanvas canvas;
+        private int pageNum;
+        private int rowOnPage;
+        private float yPosition;
+
+        SummaryWriter(PDDocument document, PdfCanvas.Resources resources, SeatingPlan plan, int totalEntries,
+                      int totalStudents, int seated, int classroomCount) {
+            this(document, resources, plan, totalEntries, totalStudents, seated, classroomCount, 0);
+        }
 
-        // May need multiple pages for large lists
-        int entriesPerPage = 40;
-        int totalPages = (int) Math.ceil((double) assignments.size() / entriesPerPage);
+        /**
+         * @param firstPageIndex Index of the first page written within the
+         *                       whole summary, to write only some of its pages
+         */
+        SummaryWriter(PDDocument document, PdfCanvas.Resources resources, SeatingPlan plan, int totalEntries,
+                      int totalStudents, int seated, int classroomCount, int firstPageIndex) {
+            this.document = document;
+            this.resources = resources;
+            this.plan = plan;
+            this.totalPages = (int) Math.ceil((double) totalEntries / ENTRIES_PER_PAGE);
+            this.totalStudents = totalStudents;
+            this.seated = seated;
+            this.classroomCount = classroomCount;
+            this.deferTotals = false;
+            this.pageNum = firstPageIndex - 1;
+        }
+
+        /**
+         * A writer for the whole summary that counts the rows it receives and
+         * fills in the page count and the number seated in {@link #finish}.
+         */
+        SummaryWriter(PDDocument document, PdfCanvas.Resources resources, SeatingPlan plan,
+                      int totalStudents, int classroomCount) {
+            this.document = document;
+            this.resources = resources;
+            this.plan = plan;
+            this.totalStudents = totalStudents;
+            this.classroomCount = classroomCount;
+            this.deferTotals = true;
+            this.pageNum = -1;
+        }
+
+        /**
+         * First summary page, or null if no rows were written yet.
+         */
+        PDPage getFirstPage() {
+            return firstPage;
+        }
+
+        void addRow(String roomName, String seatLabel, Student student) throws IOException {
+            if (canvas == null || rowOnPage == ENTRIES_PER_PAGE) {
+                startPage();
+            }
+            if (pendingRows.isEmpty()) {
+                pendingTop = yPosition;
+            }
+
+            pendingRows.add(rowCells(roomName, seatLabel, student));
+            yPosition -= LINE_HEIGHT;
+            rowOnPage++;
+            rows++;
+        }
+
+        /**
+         * The texts of one table row.
+         */
+        static String[] rowCells(String roomName, String seatLabel, Student student) {
+            return new String[]{
+                truncate(roomName, 12),
+                seatLabel,
+                truncate(student.getName(), 22),
+                truncate(student.getRollNo(), 10),
+                student.getBranch(),
+                "Y" + student.getYear() + "S" + student.getSemester()
+            };
+        }
+
+        /**
+         * Draw the buffered rows: alternate row shading first, then the text.
+         * Rows alternate starting from the first row of the page.
+         */
+        private void flushRows() throws IOException {
+            if (pendingRows.isEmpty()) {
+                return;
+            }
+            int firstRow = rowOnPage - pendingRows.size();
+            float tableX = MARGIN;
+
+            canvas.fillColor(0.95f, 0.95f, 0.95f);
+            boolean shaded = false;
+            for (int i = 0; i < pendingRows.size(); i++) {
+                if ((firstRow + i) % 2 == 0) {
+                    canvas.addRect(tableX, pendingTop - (i + 1) * LINE_HEIGHT, tableWidth(), LINE_HEIGHT);
+                    shaded = true;
+                }
+            }
+            if (shaded) {
+                canvas.fill();
+            }
+
+            canvas.fillColor(0, 0, 0);
+            for (int i = 0; i < pendingRows.size(); i++) {
+                float x = tableX + 3;
+                float y = pendingTop - i * LINE_HEIGHT - 10;
+                String[] cells = pendingRows.get(i);
+                for (int col = 0; col < cells.length; col++) {
+                    canvas.text(resources.regular, 8, x, y, cells[col]);
+                    x += COL_WIDTHS[col];
+                }
+            }
+            pendingRows.clear();
+        }
+
+        /**
+         * Fill in deferred totals, then add the room-wise distribution if the
+         * first page is still open and has space.
+         */
+        void finish(List<String> distributionLines) throws IOException {
+            if (deferTotals) {
+                writeTotals();
+            }
+            if (canvas == null || pageNum != 0 || yPosition <= MARGIN + 100) {
+                return;
+            }
+            flushRows();
+
+            yPosition -= 30;
+            canvas.text(resources.bold, 10, MARGIN, yPosition, "Room-wise Distribution:");
+            yPosition -= 15;
+
+            for (String line : distributionLines) {
+                canvas.text(resources.regular, 9, MARGIN + 20, yPosition, line);
+                yPosition -= LINE_HEIGHT;
+            }
+        }
+
+        private void startPage() throws IOException {
+            close();
+            pageNum++;
+            rowOnPage = 0;
 
-        for (int pageNum = 0; pageNum < totalPages; pageNum++) {
             PDPage page = new PDPage(PDRectangle.A4);
             document.addPage(page);
+            if (firstPage == null) {
+                firstPage = page;
+            }
 
-            float pageWidth = page.getMediaBox().getWidth();
             float pageHeight = page.getMediaBox().getHeight();
+            canvas = new PdfCanvas(document, page);
 
-            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
-
-                float yPosition = pageHeight - MARGIN;
-
-                // Title
-                content.beginText();
-                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 14);
-                content.newLineAtOffset(MARGIN, yPosition);
-                content.showText("SEATING PLAN SUMMARY" + (totalPages > 1 ? " (Page " + (pageNum + 1) + "/" + totalPages + ")" : ""));
-                content.endText();
-                yPosition -= 25;
-
-                // Exam info
-                if (pageNum == 0) {
-                    content.beginText();
-                    content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
-                    content.newLineAtOffset(MARGIN, yPosition);
-                    String info = "Pattern: " + plan.getPatternUsed().getDisplayName();
-                    if (plan.getExamName() != null && !plan.getExamName().isEmpty()) {
-                        info += "  |  Exam: " + plan.getExamName();
-                    }
-                    if (plan.getExamDate() != null && !plan.getExamDate().isEmpty()) {
-                        info += "  |  Date: " + plan.getExamDate();
-                    }
-                    content.showText(info);
-                    content.endText();
-                    yPosition -= 15;
-
-                    content.beginText();
-                    content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
-                    content.newLineAtOffset(MARGIN, yPosition);
-                    content.showText("Total Students: " + plan.getStudents().size() + 
-                                   "  |  Seated: " + plan.getTotalOccupied() +
-                                   "  |  Classrooms: " + plan.getClassrooms().size());
-                    content.endText();
-                    yPosition -= 30;
-                }
-
-                // Table headers
-                float[] colWidths = {80, 60, 150, 60, 50, 50};
-                String[] headers = {"Room", "Seat", "Name", "Roll No", "Branch", "Year"};
-
-                float tableX = MARGIN;
-
-                // Draw header background
-                content.setNonStrokingColor(0.2f, 0.4f, 0.8f);
-                content.addRect(tableX, yPosition - LINE_HEIGHT, 
-                               colWidths[0] + colWidths[1] + colWidths[2] + colWidths[3] + colWidths[4] + colWidths[5], 
-                               LINE_HEIGHT + 2);
-                content.fill();
-                content.setNonStrokingColor(1, 1, 1);
-
-                content.beginText();
-                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 9);
-                float headerX = tableX + 3;
-                content.newLineAtOffset(headerX, yPosition - 10);
-                for (int i = 0; i < headers.length; i++) {
-                    content.showText(headers[i]);
-                    if (i < headers.length - 1) {
-                        content.newLineAtOffset(colWidths[i], 0);
-                    }
+            yPosition = pageHeight - MARGIN;
+
+            // Title, and for the first page the totals line further down
+            if (deferTotals) {
+                PDFormXObject totals = PdfCanvas.newTemplate(document, page.getMediaBox(), new PDResources());
+                canvas.drawForm(TOTALS, totals);
+                totalsTemplates.add(totals);
+            } else {
+                canvas.text(resources.bold, 14, MARGIN, yPosition, title(pageNum));
+            }
+            yPosition -= 25;
+
+            // Exam info
+            if (pageNum == 0) {
+                String info = "Pattern: " + plan.getPatternUsed().getDisplayName();
+                if (plan.getExamName() != null && !plan.getExamName().isEmpty()) {
+                    info += "  |  Exam: " + plan.getExamName();
                 }
-                content.endText();
-                yPosition -= LINE_HEIGHT + 5;
+                if (plan.getExamDate() != null && !plan.getExamDate().isEmpty()) {
+                    info += "  |  Date: " + plan.getExamDate();
+                }
+                canvas.text(resources.regular, 10, MARGIN, yPosition, info);
+                yPosition -= 15;
 
-                content.setNonStrokingColor(0, 0, 0);
+                if (!deferTotals) {
+                    canvas.text(resources.regular, 10, MARGIN, yPosition, totalsLine());
+                }
+                yPosition -= 30;
+            }
 
-                // Table rows
-                int startIdx = pageNum * entriesPerPage;
-                int endIdx = Math.min(startIdx + entriesPerPage, assignments.size());
+            float tableX = MARGIN;
 
-                for (int i = startIdx; i < endIdx; i++) {
-                    SeatingPlan.SeatAssignment assignment = assignments.get(i);
-                    Student student = assignment.getStudent();
+            // Draw header background
+            canvas.fillColor(0.2f, 0.4f, 0.8f);
+            canvas.fillRect(tableX, yPosition - LINE_HEIGHT, tableWidth(), LINE_HEIGHT + 2);
 
-                    // Alternate row colors
-                    if ((i - startIdx) % 2 == 0) {
-                        content.setNonStrokingColor(0.95f, 0.95f, 0.95f);
-                        content.addRect(tableX, yPosition - LINE_HEIGHT, 
-                                       colWidths[0] + colWidths[1] + colWidths[2] + colWidths[3] + colWidths[4] + colWidths[5], 
-                                       LINE_HEIGHT);
-                        content.fill();
-                        content.setNonStrokingColor(0, 0, 0);
-                    }
+            canvas.fillColor(1, 1, 1);
+            float headerX = tableX + 3;
+            for (int i = 0; i < HEADERS.length; i++) {
+                canvas.text(resources.bold, 9, headerX, yPosition - 10, HEADERS[i]);
+                headerX += COL_WIDTHS[i];
+            }
+            yPosition -= LINE_HEIGHT + 5;
 
-                    content.beginText();
-                    content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 8);
-                    float rowX = tableX + 3;
-                    content.newLineAtOffset(rowX, yPosition - 10);
+            canvas.fillColor(0, 0, 0);
+        }
 
-                    content.showText(truncate(assignment.getRoomName(), 12));
-                    content.newLineAtOffset(colWidths[0], 0);
+        private String title(int page) {
+            return "SEATING PLAN SUMMARY" + (totalPages > 1 ? " (Page " + (page + 1) + "/" + totalPages + ")" : "");
+        }
 
-                    content.showText(assignment.getSeatLabel());
-                    content.newLineAtOffset(colWidths[1], 0);
+        private String totalsLine() {
+            return "Total Students: " + totalStudents +
+                   "  |  Seated: " + seated +
+                   "  |  Classrooms: " + classroomCount;
+        }
+
+        /**
+         * Draw the titles and the totals line into the templates the pages
+         * already paint, now that the number of rows is known. The text sits
+         * where {@link #startPage} would have drawn it directly.
+         */
+        private void writeTotals() throws IOException {
+            totalPages = totalsTemplates.size();
+            seated = rows;
+            for (int i = 0; i < totalsTemplates.size(); i++) {
+                PDFormXObject template = totalsTemplates.get(i);
+                float top = template.getBBox().getHeight() - MARGIN;
+                try (PdfCanvas totals = new PdfCanvas(template)) {
+                    totals.fillColor(0, 0, 0);
+                    totals.text(resources.bold, 14, MARGIN, top, title(i));
+                    if (i == 0) {
+                        totals.text(resources.regular, 10, MARGIN, top - 25 - 15, totalsLine());
+                    }
+                }
+            }
+        }
+
+        private static float tableWidth() {
+            return COL_WIDTHS[0] + COL_WIDTHS[1] + COL_WIDTHS[2] + COL_WIDTHS[3] + COL_WIDTHS[4] + COL_WIDTHS[5];
+        }
 
-                    content.showText(truncate(student.getName(), 22));
-                    content.newLineAtOffset(colWidths[2], 0);
+        @Override
+        public void close() throws IOException {
+            if (canvas != null) {
+                flushRows();
+                canvas.close();
+                canvas = null;
+            }
+        }
+    }
 
-                    content.showText(truncate(student.getRollNo(), 10));
-                    content.newLineAtOffset(colWidths[3], 0);
+    /**
+     * Writes the roll number index: entries in natural roll order, in
+     * columns of roll number, room and seat, filled top to bottom and then
+     * left to right. Entries are buffered one page at a time; a page found in
+     * the cache is copied instead of drawn.
+     */
+    private static class IndexWriter implements RollIndex.EntryHandler {
+        private static final int COLUMNS = 3;
+        private static final int ROWS_PER_COLUMN = 62;
+        private static final int ENTRIES_PER_PAGE = COLUMNS * ROWS_PER_COLUMN;
+        private static final float ROW_HEIGHT = 11;
+        private static final float COLUMN_GAP = 8;
+        private static final float[] FIELD_OFFSETS = {0, 80, 128};    // Roll No, Room, Seat
+        private static final String[] HEADERS = {"Roll No", "Room", "Seat"};
+
+        private final PDDocument document;
+        private final PdfCanvas.Resources resources;
+        private final SeatingPlan plan;
+        private final int totalPages;
+        private final PageCache cache;
+
+        private final List<RollIndex.Entry> entries = new ArrayList<>(ENTRIES_PER_PAGE);
+        private int pageNum;
+
+        IndexWriter(PDDocument document, PdfCanvas.Resources resources, SeatingPlan plan, int totalEntries,
+                    PageCache cache) {
+            this.document = document;
+            this.resources = resources;
+            this.plan = plan;
+            this.totalPages = (int) Math.ceil((double) totalEntries / ENTRIES_PER_PAGE);
+            this.cache = cache;
+        }
 
-                    content.showText(student.getBranch());
-                    content.newLineAtOffset(colWidths[4], 0);
+        @Override
+        public void entry(RollIndex.Entry entry) throws IOException {
+            entries.add(entry);
+            if (entries.size() == ENTRIES_PER_PAGE) {
+                writePage();
+            }
+        }
 
-                    content.showText("Y" + student.getYear() + "S" + student.getSemester());
+        void finish() throws IOException {
+            if (!entries.isEmpty()) {
+                writePage();
+            }
+        }
 
-                    content.endText();
-                    yPosition -= LINE_HEIGHT;
+        private void writePage() throws IOException {
+            String key = cache != null ? pageKey() : null;
+            RenderedPage cached = key != null ? cache.get(key) : null;
+            if (cached != null) {
+                cached.addTo(document, resources);
+            } else {
+                PDPage page = drawPage();
+                if (cache != null) {
+                    cache.put(key, RenderedPage.capture(page));
                 }
+            }
+            entries.clear();
+            pageNum++;
+        }
 
-                // Statistics on first page
-                if (pageNum == 0 && yPosition > MARGIN + 100) {
-                    yPosition -= 30;
-                    content.beginText();
-                    content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 10);
-                    content.newLineAtOffset(MARGIN, yPosition);
-                    content.showText("Room-wise Distribution:");
-                    content.endText();
-                    yPosition -= 15;
+        private String pageKey() {
+            PageKey key = new PageKey("index/" + PAGE_VERSION)
+                    .add(pageNum)
+                    .add(totalPages)
+                    .add(plan.getExamName())
+                    .add(plan.getExamDate());
+            for (RollIndex.Entry entry : entries) {
+                key.add(entry.rollNo).add(entry.roomName).add(entry.seatLabel);
+            }
+            return key.finish();
+        }
 
-                    for (Classroom room : plan.getClassrooms()) {
-                        content.beginText();
-                        content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 9);
-                        content.newLineAtOffset(MARGIN + 20, yPosition);
-                        content.showText(room.getRoomName() + ": " + room.getOccupiedCount() + " / " + 
-                                        room.getCapacity() + " seats occupied");
-                        content.endText();
-                        yPosition -= LINE_HEIGHT;
+        private PDPage drawPage() throws IOException {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            float columnWidth = (page.getMediaBox().getWidth() - 2 * MARGIN) / COLUMNS;
+
+            try (PdfCanvas canvas = new PdfCanvas(document, page)) {
+                float yPosition = page.getMediaBox().getHeight() - MARGIN;
+
+                canvas.text(resources.bold, 14, MARGIN, yPosition,
+                            "ROLL NUMBER INDEX" + (totalPages > 1 ? " (Page " + (pageNum + 1) + "/" + totalPages + ")" : ""));
+                yPosition -= 18;
+
+                String info = "";
+                if (plan.getExamName() != null && !plan.getExamName().isEmpty()) {
+                    info += "Exam: " + plan.getExamName() + "   ";
+                }
+                if (plan.getExamDate() != null && !plan.getExamDate().isEmpty()) {
+                    info += "Date: " + plan.getExamDate();
+                }
+                if (!info.isEmpty()) {
+                    canvas.text(resources.regular, 9, MARGIN, yPosition, info);
+                }
+                yPosition -= 22;
+
+                // Column headers
+                canvas.fillColor(0.2f, 0.4f, 0.8f);
+                for (int col = 0; col < COLUMNS; col++) {
+                    canvas.addRect(MARGIN + col * columnWidth, yPosition - LINE_HEIGHT,
+                                   columnWidth - COLUMN_GAP, LINE_HEIGHT + 2);
+                }
+                canvas.fill();
+                canvas.fillColor(1, 1, 1);
+                for (int col = 0; col < COLUMNS; col++) {
+                    for (int i = 0; i < HEADERS.length; i++) {
+                        canvas.text(resources.bold, 9, MARGIN + col * columnWidth + FIELD_OFFSETS[i] + 3,
+                                    yPosition - 10, HEADERS[i]);
                     }
                 }
+                yPosition -= LINE_HEIGHT + 5;
+
+                // Shade every other row across the columns
+                int rows = Math.min(entries.size(), ROWS_PER_COLUMN);
+                canvas.fillColor(0.95f, 0.95f, 0.95f);
+                for (int row = 0; row < rows; row += 2) {
+                    canvas.addRect(MARGIN, yPosition - (row + 1) * ROW_HEIGHT, COLUMNS * columnWidth - COLUMN_GAP,
+                                   ROW_HEIGHT);
+                }
+                if (rows > 0) {
+                    canvas.fill();
+                }
+
+                // Roll numbers in bold, then rooms and seats
+                canvas.fillColor(0, 0, 0);
+                for (int i = 0; i < entries.size(); i++) {
+                    canvas.text(resources.bold, 8, entryX(i, columnWidth, 0), entryY(i, yPosition),
+                                truncate(entries.get(i).rollNo, 15));
+                }
+                for (int i = 0; i < entries.size(); i++) {
+                    canvas.text(resources.regular, 8, entryX(i, columnWidth, 1), entryY(i, yPosition),
+                                truncate(entries.get(i).roomName, 10));
+                    canvas.text(resources.regular, 8, entryX(i, columnWidth, 2), entryY(i, yPosition),
+                                entries.get(i).seatLabel);
+                }
             }
+            return page;
+        }
+
+        private static float entryX(int index, float columnWidth, int field) {
+            return MARGIN + (index / ROWS_PER_COLUMN) * columnWidth + FIELD_OFFSETS[field] + 3;
+        }
+
+        private static float entryY(int index, float tableTop) {
+            return tableTop - (index % ROWS_PER_COLUMN) * ROW_HEIGHT - 8;
         }
     }
 
     /**
      * Get RGB color for a branch (consistent color per branch).
+     * Returns a shared array, so equal branches give the same instance.
      */
     private static float[] getBranchRGB(String branch) {
         int hash = Math.abs(branch.hashCode());
-        float[][] colors = {
-            {1.0f, 0.8f, 0.8f},    // Light red
-            {0.8f, 1.0f, 0.8f},    // Light green
-            {0.8f, 0.8f, 1.0f},    // Light blue
-            {1.0f, 1.0f, 0.8f},    // Light yellow
-            {1.0f, 0.8f, 1.0f},    // Light magenta
-            {0.8f, 1.0f, 1.0f},    // Light cyan
-            {1.0f, 0.9f, 0.8f},    // Light orange
-            {0.9f, 0.8f, 1.0f},    // Light purple
-        };
-        return colors[hash % colors.length];
+        return BRANCH_COLORS[hash % BRANCH_COLORS.length];
     }
 
     /**
@@ -0,0 +1,58 @@
+package com.seatingplan.pdf;
+
+/**
+ * Output size of a compact PDF export compared with the regular export of
+ * the same document, see
+ * {@link PdfGenerator#generateCompactPdf(com.seatingplan.model.SeatingPlan, String)}.
+ */
+public class PdfSizeReport {
+    private final int pages;
+    private final long regularBytes;
+    private final long compactBytes;
+    private final int sharedResources;
+
+    PdfSizeReport(int pages, long regularBytes, long compactBytes, int sharedResources) {
+        this.pages = pages;
+        this.regularBytes = regularBytes;
+        this.compactBytes = compactBytes;
+        this.sharedResources = sharedResources;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    /**
+     * Size the regular export would have had.
+     */
+    public long getRegularBytes() {
+        return regularBytes;
+    }
+
+    /**
+     * Size of the file actually written.
+     */
+    public long getCompactBytes() {
+        return compactBytes;
+    }
+
+    /**
+     * Percentage of the regular size saved (negative if the compact file is larger).
+     */
+    public double getSavedPercent() {
+        return regularBytes == 0 ? 0 : 100.0 * (regularBytes - compactBytes) / regularBytes;
+    }
+
+    /**
+     * Page resource dictionaries replaced by a shared one.
+     */
+    public int getSharedResources() {
+        return sharedResources;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d pages: %,d -> %,d bytes (%.1f%% smaller)",
+                             pages, regularBytes, compactBytes, getSavedPercent());
+    }
+}
@@ -0,0 +1,273 @@
+package com.seatingplan.pdf;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A page rendered into a scratch document, detached from it so it can be
+ * added to another document later (possibly on another thread).
+ *
+ * Only what the generator's pages use is kept: the media box, the encoded
+ * content stream, the font resource names and the templates (form XObjects)
+ * the page paints. When the page is added to the target document its fonts
+ * and templates are bound to that document's shared
+ * {@link PdfCanvas.Resources}, so the result is the same as drawing the page
+ * there directly. A page is immutable and can be added to any number of
+ * documents, which is what {@link PageCache} relies on.
+ */
+class RenderedPage {
+    // Serialized form version, see writeTo
+    private static final int FORMAT = 3;
+
+    private final Content page;
+    // Template resource name -> template, in resource order
+    private final Map<COSName, Content> templates;
+    // Template resources listed before font resources
+    private final boolean templatesFirst;
+
+    /**
+     * One content stream (of the page or of a template) and what it refers to.
+     */
+    private static class Content {
+        final float[] box;                 // x, y, width, height
+        final byte[] bytes;
+        final COSName filter;              // null if not encoded
+        // Resource name -> BaseFont, in resource order
+        final Map<COSName, String> fonts;
+
+        Content(float[] box, byte[] bytes, COSName filter, Map<COSName, String> fonts) {
+            this.box = box;
+            this.bytes = bytes;
+            this.filter = filter;
+            this.fonts = fonts;
+        }
+
+        static Content capture(PDRectangle box, COSStream stream, PDResources resources) throws IOException {
+            byte[] encoded;
+            try (InputStream in = stream.createRawInputStream()) {
+                encoded = in.readAllBytes();
+            }
+
+            Map<COSName, String> fonts = new LinkedHashMap<>();
+            COSDictionary fontDict = resources != null ? resources.getCOSObject().getCOSDictionary(COSName.FONT) : null;
+            if (fontDict != null) {
+                for (COSName name : fontDict.keySet()) {
+                    COSDictionary font = fontDict.getCOSDictionary(name);
+                    fonts.put(name, font != null ? font.getNameAsString(COSName.BASE_FONT) : null);
+                }
+            }
+            COSBase filter = stream.getItem(COSName.FILTER);
+            if (filter != null && !(filter instanceof COSName)) {
+                throw new IOException("Expected at most one content stream filter");
+            }
+            return new Content(new float[]{box.getLowerLeftX(), box.getLowerLeftY(), box.getWidth(), box.getHeight()},
+                               encoded, (COSName) filter, fonts);
+        }
+
+        PDRectangle rectangle() {
+            return new PDRectangle(box[0], box[1], box[2], box[3]);
+        }
+
+        /**
+         * Add the font resources, bound to the document's fonts.
+         */
+        void addFonts(PDResources resources, PdfCanvas.Resources documentResources) throws IOException {
+            for (Map.Entry<COSName, String> font : fonts.entrySet()) {
+                resources.put(font.getKey(), documentResources.byName(font.getValue()));
+            }
+        }
+
+        /**
+         * Copy the encoded bytes into a stream of the target document.
+         */
+        void writeInto(COSStream stream) throws IOException {
+            if (filter != null) {
+                stream.setItem(COSName.FILTER, filter);
+            }
+            try (OutputStream out = stream.createRawOutputStream()) {
+                out.write(bytes);
+            }
+        }
+
+        long size() {
+            return bytes.length + 64L * (fonts.size() + 1);
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            for (float value : box) {
+                out.writeFloat(value);
+            }
+            out.writeUTF(filter != null ? filter.getName() : "");
+            out.writeInt(fonts.size());
+            for (Map.Entry<COSName, String> font : fonts.entrySet()) {
+                out.writeUTF(font.getKey().getName());
+                out.writeUTF(font.getValue() != null ? font.getValue() : "");
+            }
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        static Content readFrom(DataInputStream in, long limit) throws IOException {
+            float[] box = new float[4];
+            for (int i = 0; i < box.length; i++) {
+                box[i] = in.readFloat();
+            }
+            String filter = in.readUTF();
+            int fontCount = readCount(in, limit);
+            Map<COSName, String> fonts = new LinkedHashMap<>();
+            for (int i = 0; i < fontCount; i++) {
+                COSName name = COSName.getPDFName(in.readUTF());
+                String baseFont = in.readUTF();
+                fonts.put(name, baseFont.isEmpty() ? null : baseFont);
+            }
+            byte[] bytes = new byte[readCount(in, limit)];
+            in.readFully(bytes);
+            return new Content(box, bytes, filter.isEmpty() ? null : COSName.getPDFName(filter), fonts);
+        }
+    }
+
+    private RenderedPage(Content page, Map<COSName, Content> templates, boolean templatesFirst) {
+        this.page = page;
+        this.templates = templates;
+        this.templatesFirst = templatesFirst;
+    }
+
+    /**
+     * Detach a page; its document can be closed afterwards.
+     */
+    static RenderedPage capture(PDPage page) throws IOException {
+        COSBase contents = page.getCOSObject().getDictionaryObject(COSName.CONTENTS);
+        if (!(contents instanceof COSStream)) {
+            throw new IOException("Expected a single content stream per page");
+        }
+        PDResources resources = page.getResources();
+
+        Map<COSName, Content> templates = new LinkedHashMap<>();
+        boolean templatesFirst = false;
+        COSDictionary xObjects = resources != null ? resources.getCOSObject().getCOSDictionary(COSName.XOBJECT) : null;
+        if (xObjects != null) {
+            templatesFirst = resources.getCOSObject().keySet().iterator().next().equals(COSName.XOBJECT);
+            for (COSName name : xObjects.keySet()) {
+                COSBase xObject = xObjects.getDictionaryObject(name);
+                if (!(xObject instanceof COSStream) ||
+                    !COSName.FORM.equals(((COSStream) xObject).getCOSName(COSName.SUBTYPE))) {
+                    throw new IOException("Expected only form XObjects");
+                }
+                PDFormXObject form = new PDFormXObject((COSStream) xObject);
+                templates.put(name, Content.capture(form.getBBox(), form.getCOSObject(), form.getResources()));
+            }
+        }
+        return new RenderedPage(Content.capture(page.getMediaBox(), (COSStream) contents, resources), templates,
+                                templatesFirst);
+    }
+
+    /**
+     * Append this page to a document, using the document's fonts and
+     * templates. Templates the document does not have yet are added to it.
+     * Font and template resources are listed in the order they were on the
+     * original page.
+     *
+     * @throws IOException If the page uses a font that is not in the font set
+     */
+    PDPage addTo(PDDocument document, PdfCanvas.Resources documentResources) throws IOException {
+        PDPage target = new PDPage(page.rectangle());
+        document.addPage(target);
+
+        PDResources resources = new PDResources();
+        if (!templatesFirst) {
+            page.addFonts(resources, documentResources);
+        }
+        for (Map.Entry<COSName, Content> entry : templates.entrySet()) {
+            PDFormXObject template = documentResources.template(entry.getKey());
+            if (template == null) {
+                Content content = entry.getValue();
+                PDResources templateResources = new PDResources();
+                content.addFonts(templateResources, documentResources);
+                template = PdfCanvas.newTemplate(document, content.rectangle(), templateResources);
+                content.writeInto(template.getCOSObject());
+                documentResources.addTemplate(entry.getKey(), template);
+            }
+            resources.put(entry.getKey(), template);
+        }
+        if (templatesFirst) {
+            page.addFonts(resources, documentResources);
+        }
+        target.setResources(resources);
+
+        PDStream stream = new PDStream(document);
+        page.writeInto(stream.getCOSObject());
+        target.setContents(stream);
+        return target;
+    }
+
+    /**
+     * Approximate heap size in bytes.
+     */
+    long size() {
+        long size = page.size();
+        for (Content template : templates.values()) {
+            size += template.size();
+        }
+        return size;
+    }
+
+    /**
+     * Serialize the page, for {@link #readFrom}.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT);
+        page.writeTo(out);
+        out.writeBoolean(templatesFirst);
+        out.writeInt(templates.size());
+        for (Map.Entry<COSName, Content> template : templates.entrySet()) {
+            out.writeUTF(template.getKey().getName());
+            template.getValue().writeTo(out);
+        }
+    }
+
+    /**
+     * Read a page written by {@link #writeTo}. Counts and lengths are checked
+     * against {@code limit}, the size of the data, before anything is
+     * allocated for them.
+     *
+     * @throws IOException If the data is truncated, damaged or in another format
+     */
+    static RenderedPage readFrom(DataInputStream in, long limit) throws IOException {
+        if (in.readInt() != FORMAT) {
+            throw new IOException("Unsupported page format");
+        }
+        Content page = Content.readFrom(in, limit);
+        boolean templatesFirst = in.readBoolean();
+        int templateCount = readCount(in, limit);
+        Map<COSName, Content> templates = new LinkedHashMap<>();
+        for (int i = 0; i < templateCount; i++) {
+            COSName name = COSName.getPDFName(in.readUTF());
+            templates.put(name, Content.readFrom(in, limit));
+        }
+        return new RenderedPage(page, templates, templatesFirst);
+    }
+
+    private static int readCount(DataInputStream in, long limit) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > limit) {
+            throw new IOException("Damaged page data: count " + count + " exceeds " + limit + " bytes");
+        }
+        return count;
+    }
+}
@@ -0,0 +1,173 @@
+package com.seatingplan.pdf;
+
+import com.seatingplan.util.NaturalOrder;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Roll number index entries (roll number, room, seat) sorted in natural roll
+ * order with a bounded amount of memory.
+ *
+ * Entries are buffered up to a limit; when the buffer is full it is sorted
+ * and written to a temporary run file. {@link #sorted} then merges the runs
+ * (external merge sort), or just sorts the buffer if nothing was spilled.
+ * Temporary files are deleted by {@link #close}.
+ */
+class RollIndex implements Closeable {
+
+    /**
+     * One index line.
+     */
+    static class Entry {
+        final String rollNo;
+        final String roomName;
+        final String seatLabel;
+
+        Entry(String rollNo, String roomName, String seatLabel) {
+            this.rollNo = rollNo;
+            this.roomName = roomName;
+            this.seatLabel = seatLabel;
+        }
+    }
+
+    /**
+     * Receives entries in sorted order.
+     */
+    interface EntryHandler {
+        void entry(Entry entry) throws IOException;
+    }
+
+    private static final Comparator<Entry> ORDER = (a, b) -> NaturalOrder.compare(a.rollNo, b.rollNo);
+
+    private final int maxInMemory;
+    private final List<Entry> buffer = new ArrayList<>();
+    private final List<File> runs = new ArrayList<>();
+    private final List<Integer> runSizes = new ArrayList<>();
+    private int size;
+
+    /**
+     * @param maxInMemory Entries held before a sorted run is written to disk
+     */
+    RollIndex(int maxInMemory) {
+        if (maxInMemory < 1) {
+            throw new IllegalArgumentException("Memory limit must be positive: " + maxInMemory);
+        }
+        this.maxInMemory = maxInMemory;
+    }
+
+    void add(String rollNo, String roomName, String seatLabel) throws IOException {
+        buffer.add(new Entry(rollNo != null ? rollNo : "", roomName != null ? roomName : "",
+                             seatLabel != null ? seatLabel : ""));
+        size++;
+        if (buffer.size() >= maxInMemory) {
+            spill();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Write the buffer as one sorted run.
+     */
+    private void spill() throws IOException {
+        buffer.sort(ORDER);
+        File run = File.createTempFile("roll-index", ".run");
+        runs.add(run);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run)))) {
+            for (Entry entry : buffer) {
+                out.writeUTF(entry.rollNo);
+                out.writeUTF(entry.roomName);
+                out.writeUTF(entry.seatLabel);
+            }
+        }
+        runSizes.add(buffer.size());
+        buffer.clear();
+    }
+
+    /**
+     * Pass all entries to the handler in natural roll order. Entries with the
+     * same roll number keep the order they were added in.
+     */
+    void sorted(EntryHandler handler) throws IOException {
+        if (runs.isEmpty()) {
+            buffer.sort(ORDER);
+            for (Entry entry : buffer) {
+                handler.entry(entry);
+            }
+            return;
+        }
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+
+        // k-way merge; ties go to the earlier run, which holds earlier entries
+        PriorityQueue<Run> heads = new PriorityQueue<>(
+                Comparator.comparing((Run run) -> run.head, ORDER).thenComparingInt(run -> run.index));
+        List<Run> open = new ArrayList<>();
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                Run run = new Run(i, runs.get(i), runSizes.get(i));
+                open.add(run);
+                if (run.advance()) {
+                    heads.add(run);
+                }
+            }
+            while (!heads.isEmpty()) {
+                Run run = heads.poll();
+                handler.entry(run.head);
+                if (run.advance()) {
+                    heads.add(run);
+                }
+            }
+        } finally {
+            for (Run run : open) {
+                run.in.close();
+            }
+        }
+    }
+
+    /**
+     * Delete the temporary run files.
+     */
+    @Override
+    public void close() {
+        for (File run : runs) {
+            run.delete();
+        }
+        runs.clear();
+        runSizes.clear();
+        buffer.clear();
+    }
+
+    /**
+     * Reads one run file entry by entry.
+     */
+    private static class Run {
+        final int index;
+        final DataInputStream in;
+        int remaining;
+        Entry head;
+
+        Run(int index, File file, int size) throws IOException {
+            this.index = index;
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+            this.remaining = size;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                head = null;
+                return false;
+            }
+            remaining--;
+            head = new Entry(in.readUTF(), in.readUTF(), in.readUTF());
+            return true;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.seatingplan.service;
 
 import com.seatingplan.model.*;
 import com.seatingplan.util.SeatTraversal;
+import com.seatingplan.util.StudentOrdering;
 
 import java.util.*;
 
@@ -28,13 +29,17 @@ public class AlternateBranchAllocator implements SeatingAlgorithm {
         
         SeatingPlan plan = new SeatingPlan(freshClassrooms, new ArrayList<>(students));
         plan.setPatternUsed(PatternType.ALTERNATE_BRANCH);
+        plan.setConfig(config);
 
         List<Student> unassigned = new ArrayList<>();
 
+        // Sort once by roll number; filtering and grouping below keep this order
+        List<Student> rollOrder = StudentOrdering.sort(students, SeatingConfig.StudentSortOrder.ROLL_NUMBER);
+
         // Process each classroom
         for (Classroom classroom : freshClassrooms) {
             // Get students for this room based on branch assignments
-            List<Student> roomStudents = getStudentsForRoom(students, classroom, unassigned);
+            List<Student> roomStudents = getStudentsForRoom(rollOrder, classroom, unassigned);
             
             if (roomStudents.isEmpty()) continue;
 
@@ -44,11 +49,6 @@ public class AlternateBranchAllocator implements SeatingAlgorithm {
                 branchGroups.computeIfAbsent(student.getBranch(), k -> new ArrayList<>()).add(student);
             }
 
-            // Sort each group by roll number
-            for (List<Student> group : branchGroups.values()) {
-                group.sort(Comparator.comparing(Student::getRollNo));
-            }
-
             // Create interleaved list
             List<Student> interleavedStudents = interleave(branchGroups);
 
@@ -2,6 +2,7 @@ package com.seatingplan.service;
 
 import com.seatingplan.model.*;
 import com.seatingplan.util.SeatTraversal;
+import com.seatingplan.util.StudentOrdering;
 
 import java.util.*;
 
@@ -28,14 +29,18 @@ public class AlternateYearSemAllocator implements SeatingAlgorithm {
         
         SeatingPlan plan = new SeatingPlan(freshClassrooms, new ArrayList<>(students));
         plan.setPatternUsed(PatternType.ALTERNATE_YEAR_SEM);
+        plan.setConfig(config);
 
         List<Student> unassigned = new ArrayList<>();
 
+        // Sort once by roll number; filtering and grouping below keep this order
+        List<Student> rollOrder = StudentOrdering.sort(students, SeatingConfig.StudentSortOrder.ROLL_NUMBER);
+
         // Process each classroom
         for (Classroom classroom : freshClassrooms) {
             // Get students eligible for this room
             List<Student> roomStudents = new ArrayList<>();
-            for (Student student : students) {
+            for (Student student : rollOrder) {
                 if (classroom.isBranchAllowed(student.getBranch())) {
                     roomStudents.add(student);
                 }
@@ -50,11 +55,6 @@ public class AlternateYearSemAllocator implements SeatingAlgorithm {
                 yearSemGroups.computeIfAbsent(key, k -> new ArrayList<>()).add(student);
             }
 
-            // Sort each group by roll number
-            for (List<Student> group : yearSemGroups.values()) {
-                group.sort(Comparator.comparing(Student::getRollNo));
-            }
-
             // Create interleaved list
             List<Student> interleavedStudents = interleave(yearSemGroups);
 
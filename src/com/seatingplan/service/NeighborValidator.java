@@ -2,6 +2,7 @@ package com.seatingplan.service;
 
 import com.seatingplan.model.Classroom;
 import com.seatingplan.model.Seat;
+import com.seatingplan.model.SeatingConfig;
 import com.seatingplan.model.Student;
 
 /**
@@ -177,4 +178,56 @@ public class NeighborValidator {
 
         return violations;
     }
+
+    /**
+     * Check if placing a student at the given seat violates any constraint enabled in the config.
+     * With no constraint enabled, checks both branch and year/sem.
+     */
+    public static boolean hasConflict(Classroom classroom, int row, int col, Student student, SeatingConfig config) {
+        if (config.isEnforceNoSameBranchAdjacent() && 
+            hasSameBranchNeighbor(classroom, row, col, student)) {
+            return true;
+        }
+        
+        if (config.isEnforceNoSameYearAdjacent() && 
+            hasSameYearNeighbor(classroom, row, col, student)) {
+            return true;
+        }
+        
+        if (config.isEnforceNoSameSemesterAdjacent() && 
+            hasSameYearSemNeighbor(classroom, row, col, student)) {
+            return true;
+        }
+        
+        // Default behavior: check both branch and year/sem
+        if (!config.isEnforceNoSameBranchAdjacent() && !config.isEnforceNoSameYearAdjacent() &&
+            !config.isEnforceNoSameSemesterAdjacent()) {
+            return hasConflictingNeighbor(classroom, row, col, student);
+        }
+        
+        return false;
+    }
+
+    /**
+     * Count constraint violations for a student at a given position, based on the config.
+     */
+    public static int countViolations(Classroom classroom, int row, int col, Student student, SeatingConfig config) {
+        int violations = 0;
+        
+        if (config.isEnforceNoSameBranchAdjacent() && 
+            hasSameBranchNeighbor(classroom, row, col, student)) {
+            violations++;
+        }
+        
+        if (config.isEnforceNoSameYearAdjacent() && 
+            hasSameYearNeighbor(classroom, row, col, student)) {
+            violations++;
+        }
+        
+        if (!config.isEnforceNoSameBranchAdjacent() && !config.isEnforceNoSameYearAdjacent()) {
+            violations = countViolations(classroom, row, col, student);
+        }
+        
+        return violations;
+    }
 }
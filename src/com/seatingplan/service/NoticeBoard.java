@@ -0,0 +1,242 @@
+package com.seatingplan.service;
+
+import com.seatingplan.model.*;
+import com.seatingplan.util.StudentOrdering;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Door notices: for every room, the roll numbers seated there per branch,
+ * with runs of consecutive roll numbers collapsed into ranges such as
+ * "CSE2021001–CSE2021045".
+ *
+ * All seated students are ordered in one primitive sort by (room, branch,
+ * natural roll order), see {@link StudentOrdering#order(StudentOrdering.Source, int[])}.
+ * A single pass over that order then builds the ranges. Two roll numbers are
+ * consecutive when the second is the first with its trailing number
+ * incremented, keeping zero padding ("CSE009" is followed by "CSE010").
+ */
+public class NoticeBoard {
+
+    /**
+     * Separates the first and last roll number of a range (an en dash).
+     */
+    public static final String RANGE_SEPARATOR = "\u2013";
+
+    // Longest trailing digit run read as a number
+    private static final int MAX_DIGITS = 18;
+
+    /**
+     * The notice for one room.
+     */
+    public static class RoomNotice {
+        private final String roomName;
+        private final List<BranchRolls> branches = new ArrayList<>();
+        private int seated;
+
+        RoomNotice(String roomName) {
+            this.roomName = roomName;
+        }
+
+        public String getRoomName() {
+            return roomName;
+        }
+
+        public int getSeated() {
+            return seated;
+        }
+
+        /**
+         * Branches in alphabetical order (ignoring case).
+         */
+        public List<BranchRolls> getBranches() {
+            return Collections.unmodifiableList(branches);
+        }
+    }
+
+    /**
+     * The roll numbers of one branch in one room.
+     */
+    public static class BranchRolls {
+        private final String branch;
+        private final List<String> ranges = new ArrayList<>();
+        private int count;
+
+        BranchRolls(String branch) {
+            this.branch = branch;
+        }
+
+        /**
+         * Branch name as spelled by the first student in roll order ("" if missing).
+         */
+        public String getBranch() {
+            return branch;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Single roll numbers and ranges, in natural roll order.
+         */
+        public List<String> getRanges() {
+            return Collections.unmodifiableList(ranges);
+        }
+    }
+
+    /**
+     * Build the notices of all rooms that have students seated, in room order.
+     */
+    public static List<RoomNotice> build(SeatingPlan plan) {
+        List<Classroom> classrooms = plan.getClassrooms();
+
+        // Seated students in room order, with the room of each
+        List<Student> students = new ArrayList<>();
+        int[] rooms = new int[16];
+        for (int r = 0; r < classrooms.size(); r++) {
+            for (SeatingPlan.SeatAssignment assignment : SeatingPlan.assignments(classrooms.get(r))) {
+                if (students.size() == rooms.length) {
+                    rooms = Arrays.copyOf(rooms, rooms.length * 2);
+                }
+                rooms[students.size()] = r;
+                students.add(assignment.getStudent());
+            }
+        }
+
+        // Group = (room, branch), so one sort orders everything
+        StudentOrdering.Source source = StudentOrdering.of(students);
+        int[] branches = StudentOrdering.branchGroups(source);
+        int branchCount = 0;
+        for (int branch : branches) {
+            branchCount = Math.max(branchCount, branch + 1);
+        }
+        int[] groups = new int[students.size()];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = rooms[i] * branchCount + branches[i];
+        }
+        int[] order = StudentOrdering.order(source, groups);
+
+        List<RoomNotice> notices = new ArrayList<>();
+        RoomNotice notice = null;
+        BranchRolls rolls = null;
+        String first = null;
+        String last = null;
+        int room = -1;
+        int group = -1;
+        for (int index : order) {
+            Student student = students.get(index);
+            String roll = student.getRollNo() != null ? student.getRollNo() : "";
+            if (groups[index] != group) {
+                if (rolls != null) {
+                    rolls.ranges.add(range(first, last));
+                }
+                if (rooms[index] != room) {
+                    room = rooms[index];
+                    notice = new RoomNotice(classrooms.get(room).getRoomName());
+                    notices.add(notice);
+                }
+                group = groups[index];
+                rolls = new BranchRolls(student.getBranch() != null ? student.getBranch() : "");
+                notice.branches.add(rolls);
+                first = roll;
+            } else if (!isSuccessor(last, roll)) {
+                rolls.ranges.add(range(first, last));
+                first = roll;
+            }
+            last = roll;
+            rolls.count++;
+            notice.seated++;
+        }
+        if (rolls != null) {
+            rolls.ranges.add(range(first, last));
+        }
+        return notices;
+    }
+
+    private static String range(String first, String last) {
+        return first.equals(last) ? first : first + RANGE_SEPARATOR + last;
+    }
+
+    /**
+     * Whether {@code roll} directly follows {@code previous}: the same text
+     * with the trailing number one higher, zero padded to at least the same
+     * width.
+     */
+    static boolean isSuccessor(String previous, String roll) {
+        int start = previous.length();
+        while (start > 0 && previous.charAt(start - 1) >= '0' && previous.charAt(start - 1) <= '9') {
+            start--;
+        }
+        int width = previous.length() - start;
+        if (width == 0 || width > MAX_DIGITS || !roll.regionMatches(0, previous, 0, start)) {
+            return false;
+        }
+        String next = Long.toString(Long.parseLong(previous.substring(start)) + 1);
+        int padding = width - next.length();
+        if (roll.length() != start + Math.max(padding, 0) + next.length()) {
+            return false;
+        }
+        int i = start;
+        for (int p = 0; p < padding; p++, i++) {
+            if (roll.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return roll.startsWith(next, i);
+    }
+
+    /**
+     * Write the notices of a plan as UTF-8 text.
+     *
+     * @throws IOException If the file cannot be written
+     */
+    public static void writeText(SeatingPlan plan, String outputPath) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(outputPath), StandardCharsets.UTF_8))) {
+            writeText(plan, out);
+        }
+    }
+
+    /**
+     * Write the notices of a plan as text: an exam header, then per room its
+     * name and seat count and one line per branch. The writer is not closed.
+     */
+    public static void writeText(SeatingPlan plan, Writer out) throws IOException {
+        String examInfo = examInfo(plan);
+        if (!examInfo.isEmpty()) {
+            out.write(examInfo);
+            out.write("\n\n");
+        }
+        for (RoomNotice notice : build(plan)) {
+            out.write(notice.getRoomName().toUpperCase() + "  (" + notice.getSeated() + " students)\n");
+            for (BranchRolls rolls : notice.getBranches()) {
+                out.write("  " + branchLabel(rolls) + ": " + String.join(", ", rolls.getRanges()) + "\n");
+            }
+            out.write("\n");
+        }
+    }
+
+    /**
+     * "Exam: ...   Date: ..." for the parts the plan has, or "".
+     */
+    public static String examInfo(SeatingPlan plan) {
+        String examInfo = "";
+        if (plan.getExamName() != null && !plan.getExamName().isEmpty()) {
+            examInfo += "Exam: " + plan.getExamName() + "   ";
+        }
+        if (plan.getExamDate() != null && !plan.getExamDate().isEmpty()) {
+            examInfo += "Date: " + plan.getExamDate();
+        }
+        return examInfo.trim();
+    }
+
+    /**
+     * Branch name and student count, e.g. "CSE (45)".
+     */
+    public static String branchLabel(BranchRolls rolls) {
+        return (rolls.getBranch().isEmpty() ? "No branch" : rolls.getBranch()) + " (" + rolls.getCount() + ")";
+    }
+}
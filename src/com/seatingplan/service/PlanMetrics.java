@@ -0,0 +1,336 @@
+package com.seatingplan.service;
+
+import com.seatingplan.model.*;
+
+import java.util.*;
+
+/**
+ * Quality metrics for a finished seating plan.
+ *
+ * Everything is gathered in a single sweep over each room grid. Every seat is
+ * compared only with its left and front neighbours, so each adjacent pair is
+ * counted exactly once and the whole computation is O(seats). Branch, year and
+ * semester values of the previous row are kept in reusable int buffers, so no
+ * objects are created per seat.
+ */
+public class PlanMetrics {
+
+    private static final int EMPTY = -1;
+
+    // Branch dictionary (code -> branch name, branch name -> code)
+    private final List<String> branches = new ArrayList<>();
+    private final Map<String, Integer> branchCodes = new HashMap<>();
+
+    private final List<RoomMetrics> rooms = new ArrayList<>();
+
+    // Symmetric matrix of adjacent pairs per branch pair; the diagonal holds same-branch pairs
+    private int[][] branchAdjacency;
+
+    private int sameBranchPairs;
+    private int sameYearPairs;
+    private int sameYearSemPairs;
+    private int adjacentPairs;
+    private int totalCapacity;
+    private int totalOccupied;
+
+    private PlanMetrics() {
+    }
+
+    /**
+     * Compute all metrics for the given plan.
+     */
+    public static PlanMetrics compute(SeatingPlan plan) {
+        PlanMetrics metrics = new PlanMetrics();
+
+        // Seed the dictionary from the roster so the matrix is sized once
+        for (Student student : plan.getStudents()) {
+            metrics.branchCode(student.getBranch());
+        }
+        metrics.branchAdjacency = new int[metrics.branches.size()][metrics.branches.size()];
+
+        int maxColumns = 0;
+        for (Classroom classroom : plan.getClassrooms()) {
+            maxColumns = Math.max(maxColumns, classroom.getColumns());
+        }
+
+        // Row buffers shared by all rooms
+        int[] prevBranch = new int[maxColumns];
+        int[] prevYear = new int[maxColumns];
+        int[] prevSem = new int[maxColumns];
+
+        for (Classroom classroom : plan.getClassrooms()) {
+            metrics.rooms.add(metrics.sweepRoom(classroom, prevBranch, prevYear, prevSem));
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Sweep one room grid row by row.
+     */
+    private RoomMetrics sweepRoom(Classroom classroom, int[] prevBranch, int[] prevYear, int[] prevSem) {
+        int rows = classroom.getRows();
+        int cols = classroom.getColumns();
+        Seat[][] seats = classroom.getSeats();
+
+        RoomMetrics room = new RoomMetrics(classroom.getRoomName(), classroom.getCapacity(), branches.size());
+
+        for (int r = 0; r < rows; r++) {
+            int leftBranch = EMPTY;
+            int leftYear = 0;
+            int leftSem = 0;
+            int emptyRun = 0;
+
+            for (int c = 0; c < cols; c++) {
+                Seat seat = seats != null ? seats[r][c] : null;
+                Student student = seat != null ? seat.getAssignedStudent() : null;
+
+                if (student == null) {
+                    emptyRun++;
+                    leftBranch = EMPTY;
+                    prevBranch[c] = EMPTY;
+                    continue;
+                }
+
+                if (emptyRun > 0) {
+                    room.closeEmptyRun(emptyRun);
+                    emptyRun = 0;
+                }
+
+                int branch = branchCode(student.getBranch());
+                int year = student.getYear();
+                int sem = student.getSemester();
+
+                room.occupied++;
+                room.countBranch(branch);
+
+                // Left neighbour
+                if (leftBranch != EMPTY) {
+                    recordPair(room, branch, year, sem, leftBranch, leftYear, leftSem);
+                }
+
+                // Front neighbour (previous row)
+                if (r > 0 && prevBranch[c] != EMPTY) {
+                    recordPair(room, branch, year, sem, prevBranch[c], prevYear[c], prevSem[c]);
+                }
+
+                leftBranch = branch;
+                leftYear = year;
+                leftSem = sem;
+                prevBranch[c] = branch;
+                prevYear[c] = year;
+                prevSem[c] = sem;
+            }
+
+            if (emptyRun > 0) {
+                room.closeEmptyRun(emptyRun);
+            }
+        }
+
+        totalCapacity += room.capacity;
+        totalOccupied += room.occupied;
+        return room;
+    }
+
+    /**
+     * Record one adjacent pair of occupied seats.
+     */
+    private void recordPair(RoomMetrics room, int branch, int year, int sem,
+                            int otherBranch, int otherYear, int otherSem) {
+        adjacentPairs++;
+        room.adjacentPairs++;
+
+        branchAdjacency[branch][otherBranch]++;
+        if (branch != otherBranch) {
+            branchAdjacency[otherBranch][branch]++;
+        } else {
+            sameBranchPairs++;
+            room.sameBranchPairs++;
+        }
+
+        if (year == otherYear) {
+            sameYearPairs++;
+            room.sameYearPairs++;
+            if (sem == otherSem) {
+                sameYearSemPairs++;
+                room.sameYearSemPairs++;
+            }
+        }
+    }
+
+    /**
+     * Look up (or register) the dictionary code of a branch.
+     * Branches not present in the plan's roster grow the matrix on first sight.
+     */
+    private int branchCode(String branch) {
+        Integer code = branchCodes.get(branch);
+        if (code != null) {
+            return code;
+        }
+
+        int newCode = branches.size();
+        branches.add(branch);
+        branchCodes.put(branch, newCode);
+
+        if (branchAdjacency != null) {
+            int[][] grown = new int[newCode + 1][newCode + 1];
+            for (int i = 0; i < newCode; i++) {
+                System.arraycopy(branchAdjacency[i], 0, grown[i], 0, newCode);
+            }
+            branchAdjacency = grown;
+        }
+        return newCode;
+    }
+
+    // ==================== RESULTS ====================
+
+    /**
+     * Number of adjacent pairs that violate the constraints enabled in the config.
+     */
+    public int getViolations(SeatingConfig config) {
+        int violations = 0;
+        if (config.isEnforceNoSameBranchAdjacent()) violations += sameBranchPairs;
+        if (config.isEnforceNoSameYearAdjacent()) violations += sameYearPairs;
+        if (config.isEnforceNoSameSemesterAdjacent()) violations += sameYearSemPairs;
+        return violations;
+    }
+
+    public int getSameBranchPairs() {
+        return sameBranchPairs;
+    }
+
+    public int getSameYearPairs() {
+        return sameYearPairs;
+    }
+
+    public int getSameYearSemPairs() {
+        return sameYearSemPairs;
+    }
+
+    public int getAdjacentPairs() {
+        return adjacentPairs;
+    }
+
+    public int getTotalCapacity() {
+        return totalCapacity;
+    }
+
+    public int getTotalOccupied() {
+        return totalOccupied;
+    }
+
+    public double getFillRatio() {
+        return totalCapacity == 0 ? 0 : (double) totalOccupied / totalCapacity;
+    }
+
+    /**
+     * Branch names in dictionary order; indices match the histogram and matrix.
+     */
+    public List<String> getBranches() {
+        return Collections.unmodifiableList(branches);
+    }
+
+    /**
+     * Count of adjacent pairs between two branches.
+     */
+    public int getAdjacentCount(String branchA, String branchB) {
+        Integer a = branchCodes.get(branchA);
+        Integer b = branchCodes.get(branchB);
+        if (a == null || b == null) return 0;
+        return branchAdjacency[a][b];
+    }
+
+    /**
+     * Copy of the branch-pair adjacency matrix, indexed like {@link #getBranches()}.
+     */
+    public int[][] getBranchAdjacency() {
+        int[][] copy = new int[branchAdjacency.length][];
+        for (int i = 0; i < branchAdjacency.length; i++) {
+            copy[i] = branchAdjacency[i].clone();
+        }
+        return copy;
+    }
+
+    public List<RoomMetrics> getRooms() {
+        return Collections.unmodifiableList(rooms);
+    }
+
+    @Override
+    public String toString() {
+        return "PlanMetrics{" +
+                "rooms=" + rooms.size() +
+                ", occupied=" + totalOccupied + "/" + totalCapacity +
+                ", sameBranchPairs=" + sameBranchPairs +
+                ", sameYearPairs=" + sameYearPairs +
+                ", sameYearSemPairs=" + sameYearSemPairs +
+                '}';
+    }
+
+    /**
+     * Metrics for a single room.
+     */
+    public class RoomMetrics {
+        private final String roomName;
+        private final int capacity;
+        private int[] branchHistogram;
+        private int occupied;
+        private int adjacentPairs;
+        private int sameBranchPairs;
+        private int sameYearPairs;
+        private int sameYearSemPairs;
+        private int emptyRuns;
+        private int longestEmptyRun;
+
+        RoomMetrics(String roomName, int capacity, int branchCount) {
+            this.roomName = roomName;
+            this.capacity = capacity;
+            this.branchHistogram = new int[branchCount];
+        }
+
+        private void countBranch(int code) {
+            if (code >= branchHistogram.length) {
+                branchHistogram = Arrays.copyOf(branchHistogram, code + 1);
+            }
+            branchHistogram[code]++;
+        }
+
+        private void closeEmptyRun(int length) {
+            emptyRuns++;
+            longestEmptyRun = Math.max(longestEmptyRun, length);
+        }
+
+        public String getRoomName() { return roomName; }
+        public int getCapacity() { return capacity; }
+        public int getOccupied() { return occupied; }
+        public int getAdjacentPairs() { return adjacentPairs; }
+        public int getSameBranchPairs() { return sameBranchPairs; }
+        public int getSameYearPairs() { return sameYearPairs; }
+        public int getSameYearSemPairs() { return sameYearSemPairs; }
+
+        /** Number of maximal runs of empty seats along the rows. */
+        public int getEmptyRuns() { return emptyRuns; }
+
+        /** Length of the longest run of empty seats in any row. */
+        public int getLongestEmptyRun() { return longestEmptyRun; }
+
+        public double getFillRatio() {
+            return capacity == 0 ? 0 : (double) occupied / capacity;
+        }
+
+        /**
+         * Students seated in this room for the given branch.
+         */
+        public int getBranchCount(String branch) {
+            Integer code = branchCodes.get(branch);
+            if (code == null || code >= branchHistogram.length) return 0;
+            return branchHistogram[code];
+        }
+
+        /**
+         * Per-branch counts, indexed like {@link PlanMetrics#getBranches()}.
+         */
+        public int[] getBranchHistogram() {
+            return Arrays.copyOf(branchHistogram, branches.size());
+        }
+    }
+}
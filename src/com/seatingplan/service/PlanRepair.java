@@ -0,0 +1,430 @@
+package com.seatingplan.service;
+
+import com.seatingplan.model.*;
+import com.seatingplan.model.SeatingPlan.SeatLocation;
+
+import java.util.*;
+
+/**
+ * Incremental changes to an existing seating plan.
+ *
+ * Late registrations, withdrawals and room changes are applied in place
+ * instead of regenerating the whole plan, so notices that are already printed
+ * stay valid for every room the change does not touch. Only the affected
+ * students are (re)seated, plus at most one neighbour per placement when the
+ * placement creates a conflict. Seats are found through the plan's roll-number
+ * index and free-seat pools, and each placement examines a bounded number of
+ * candidate seats; the roster and waiting list are edited by roll number. The
+ * work therefore grows with the size of the change rather than the size of
+ * the plan.
+ */
+public class PlanRepair {
+
+    // Free seats examined per room when looking for a placement
+    private static final int CANDIDATES_PER_ROOM = 64;
+
+    /**
+     * Seat late registrations. Students already seated in the plan are ignored.
+     */
+    public static RepairResult addStudents(SeatingPlan plan, List<Student> students) {
+        RepairResult result = new RepairResult();
+        addStudents(plan, students, configOf(plan), result);
+        return result;
+    }
+
+    private static void addStudents(SeatingPlan plan, List<Student> students, SeatingConfig config,
+                                    RepairResult result) {
+
+        for (Student student : students) {
+            if (plan.findSeat(student.getRollNo()) != null) {
+                continue;
+            }
+            // Someone already waiting for a seat is in the roster already
+            if (!plan.removeUnassigned(student)) {
+                plan.addStudent(student);
+            }
+            placeOrQueue(plan, student, config, result);
+        }
+    }
+
+    /**
+     * Remove withdrawn students by roll number. Their seats are freed and
+     * offered to students who are still waiting for a seat; nobody else moves.
+     */
+    public static RepairResult removeStudents(SeatingPlan plan, Collection<String> rollNos) {
+        RepairResult result = new RepairResult();
+        removeStudents(plan, rollNos, configOf(plan), result);
+        return result;
+    }
+
+    private static void removeStudents(SeatingPlan plan, Collection<String> rollNos, SeatingConfig config,
+                                       RepairResult result) {
+        Set<String> removed = new HashSet<>(rollNos);
+
+        int freed = 0;
+        for (String rollNo : removed) {
+            SeatLocation location = plan.findSeat(rollNo);
+            if (location != null) {
+                Student student = plan.vacateSeat(location.getClassroom(), location.getSeat());
+                result.record(student, location, null);
+                freed++;
+            }
+        }
+        for (String rollNo : removed) {
+            plan.removeStudent(rollNo);
+        }
+
+        // Backfill freed seats from the waiting list, stopping once they are taken
+        List<Student> seated = new ArrayList<>();
+        Iterator<Student> waiting = plan.getUnassignedStudents().iterator();
+        while (freed > 0 && waiting.hasNext()) {
+            Student student = waiting.next();
+            if (place(plan, student, null, config, result) != null) {
+                seated.add(student);
+                freed--;
+            }
+        }
+        for (Student student : seated) {
+            plan.removeUnassigned(student);
+        }
+    }
+
+    /**
+     * Apply edited details (name, year, semester, branch) of students already in
+     * the plan, matched by roll number. A student keeps their seat unless the
+     * room no longer admits their branch or the new details conflict with a
+     * neighbour; then they are reseated, preferably in the same room. Students
+     * not in the plan are ignored.
+     */
+    public static RepairResult updateStudents(SeatingPlan plan, List<Student> students) {
+        RepairResult result = new RepairResult();
+        updateStudents(plan, students, configOf(plan), result);
+        return result;
+    }
+
+    private static void updateStudents(SeatingPlan plan, List<Student> students, SeatingConfig config,
+                                       RepairResult result) {
+        Map<String, Student> updated = new HashMap<>();
+        for (Student student : students) {
+            updated.put(student.getRollNo(), student);
+        }
+        if (updated.isEmpty()) {
+            return;
+        }
+        for (Student student : updated.values()) {
+            plan.replaceStudent(student);
+            SeatLocation location = plan.findSeat(student.getRollNo());
+            if (location == null) {
+                continue;
+            }
+            Classroom classroom = location.getClassroom();
+            Seat seat = location.getSeat();
+            plan.vacateSeat(classroom, seat);
+
+            if (classroom.isBranchAllowed(student.getBranch()) &&
+                    !NeighborValidator.hasConflict(classroom, seat.getRow(), seat.getColumn(), student, config)) {
+                // Same seat, new details: the room's notice still needs reprinting
+                plan.assignSeat(classroom, seat, student);
+                result.record(student, location, location);
+            } else {
+                reseat(plan, student, location, classroom, config, result);
+            }
+        }
+    }
+
+    /**
+     * Bring the plan in line with an edited roster: withdrawn students are
+     * removed first (freeing seats), then edited students are updated in place,
+     * then new students are seated.
+     */
+    public static RepairResult apply(SeatingPlan plan, RosterDiff diff) {
+        RepairResult result = new RepairResult();
+        SeatingConfig config = configOf(plan);
+
+        List<String> removed = new ArrayList<>(diff.getRemoved().size());
+        for (Student student : diff.getRemoved()) {
+            removed.add(student.getRollNo());
+        }
+        removeStudents(plan, removed, config, result);
+        updateStudents(plan, diff.getChanged(), config, result);
+        addStudents(plan, diff.getAdded(), config, result);
+        return result;
+    }
+
+    /**
+     * Take a room out of the plan and reseat its students in the remaining rooms.
+     *
+     * @throws IllegalArgumentException If the plan has no room with that name
+     */
+    public static RepairResult removeClassroom(SeatingPlan plan, String roomName) {
+        Classroom classroom = requireClassroom(plan, roomName);
+        RepairResult result = new RepairResult();
+        SeatingConfig config = configOf(plan);
+
+        Map<Student, SeatLocation> previous = locations(plan, classroom);
+        result.affectedRooms.add(roomName);
+
+        for (Student student : plan.removeClassroom(classroom)) {
+            reseat(plan, student, previous.get(student), null, config, result);
+        }
+        return result;
+    }
+
+    /**
+     * Change a room's grid. Students whose seat still exists keep it; the rest
+     * are reseated, preferably in the same room.
+     *
+     * @throws IllegalArgumentException If the plan has no room with that name
+     */
+    public static RepairResult resizeClassroom(SeatingPlan plan, String roomName, int rows, int columns) {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Rows and columns must be positive");
+        }
+        Classroom current = requireClassroom(plan, roomName);
+        RepairResult result = new RepairResult();
+        SeatingConfig config = configOf(plan);
+
+        Classroom resized = new Classroom(roomName, rows, columns);
+        resized.setAssignedBranches(current.getAssignedBranches());
+        resized.setMaxStudentsPerBranch(current.getMaxStudentsPerBranch());
+
+        Map<Student, SeatLocation> previous = locations(plan, current);
+        result.affectedRooms.add(roomName);
+
+        for (Student student : plan.replaceClassroom(current, resized)) {
+            reseat(plan, student, previous.get(student), resized, config, result);
+        }
+        return result;
+    }
+
+    // ==================== PLACEMENT ====================
+
+    private static void reseat(SeatingPlan plan, Student student, SeatLocation from, Classroom preferred,
+                               SeatingConfig config, RepairResult result) {
+        if (place(plan, student, preferred, config, result, from) == null) {
+            plan.addUnassigned(student);
+            result.record(student, from, null);
+            result.unplaced.add(student);
+        }
+    }
+
+    private static void placeOrQueue(SeatingPlan plan, Student student, SeatingConfig config,
+                                     RepairResult result) {
+        if (place(plan, student, null, config, result) == null) {
+            plan.addUnassigned(student);
+            result.unplaced.add(student);
+        }
+    }
+
+    private static SeatLocation place(SeatingPlan plan, Student student, Classroom preferred,
+                                      SeatingConfig config, RepairResult result) {
+        return place(plan, student, preferred, config, result, null);
+    }
+
+    /**
+     * Seat a student in a conflict-free free seat if one is found, otherwise in
+     * the free seat with the fewest violations, then try to move away any
+     * neighbour that the placement put in conflict.
+     *
+     * @return The new seat, or null if no room has a free seat for the student
+     */
+    private static SeatLocation place(SeatingPlan plan, Student student, Classroom preferred,
+                                      SeatingConfig config, RepairResult result, SeatLocation from) {
+        SeatLocation target = findSeat(plan, student, preferred, config, true);
+        if (target == null) {
+            return null;
+        }
+
+        plan.assignSeat(target.getClassroom(), target.getSeat(), student);
+        result.record(student, from, target);
+
+        if (NeighborValidator.hasConflict(target.getClassroom(), target.getSeat().getRow(),
+                                          target.getSeat().getColumn(), student, config)) {
+            moveConflictingNeighbours(plan, target, config, result);
+        }
+        return target;
+    }
+
+    /**
+     * Find a free seat for the student, trying the preferred room first.
+     *
+     * @param allowConflicts Fall back to the least-violation seat if no conflict-free seat is found
+     */
+    private static SeatLocation findSeat(SeatingPlan plan, Student student, Classroom preferred,
+                                         SeatingConfig config, boolean allowConflicts) {
+        List<Classroom> rooms = plan.getClassrooms();
+        if (preferred != null) {
+            rooms = new ArrayList<>(rooms);
+            rooms.remove(preferred);
+            rooms.add(0, preferred);
+        }
+
+        SeatLocation best = null;
+        int minViolations = Integer.MAX_VALUE;
+
+        for (Classroom classroom : rooms) {
+            if (!classroom.isBranchAllowed(student.getBranch())) {
+                continue;
+            }
+
+            int examined = 0;
+            for (Seat seat : plan.getFreeSeats(classroom)) {
+                if (examined++ == CANDIDATES_PER_ROOM) {
+                    break;
+                }
+                int row = seat.getRow();
+                int col = seat.getColumn();
+                if (!NeighborValidator.hasConflict(classroom, row, col, student, config)) {
+                    return new SeatLocation(classroom, seat);
+                }
+                if (allowConflicts) {
+                    int violations = Math.max(1, NeighborValidator.countViolations(classroom, row, col, student, config));
+                    if (violations < minViolations) {
+                        minViolations = violations;
+                        best = new SeatLocation(classroom, seat);
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Move each neighbour now in conflict with the student at the given seat to a
+     * conflict-free free seat, if there is one. Neighbours with nowhere better to
+     * go stay where they are.
+     */
+    private static void moveConflictingNeighbours(SeatingPlan plan, SeatLocation placed,
+                                                  SeatingConfig config, RepairResult result) {
+        Classroom classroom = placed.getClassroom();
+        int row = placed.getSeat().getRow();
+        int col = placed.getSeat().getColumn();
+        int[][] directions = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}};
+
+        for (int[] dir : directions) {
+            Seat seat = classroom.getSeat(row + dir[0], col + dir[1]);
+            if (seat == null || !seat.isOccupied()) {
+                continue;
+            }
+            Student neighbour = seat.getAssignedStudent();
+            if (!NeighborValidator.hasConflict(classroom, seat.getRow(), seat.getColumn(), neighbour, config)) {
+                continue;
+            }
+
+            SeatLocation from = new SeatLocation(classroom, seat);
+            plan.vacateSeat(classroom, seat);
+            SeatLocation to = findSeat(plan, neighbour, null, config, false);
+            if (to == null) {
+                to = from;
+            }
+            plan.assignSeat(to.getClassroom(), to.getSeat(), neighbour);
+            if (to != from) {
+                result.record(neighbour, from, to);
+            }
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    private static SeatingConfig configOf(SeatingPlan plan) {
+        return plan.getConfig() != null ? plan.getConfig() : new SeatingConfig();
+    }
+
+    private static Classroom requireClassroom(SeatingPlan plan, String roomName) {
+        Classroom classroom = plan.getClassroom(roomName);
+        if (classroom == null) {
+            throw new IllegalArgumentException("Room not in plan: " + roomName);
+        }
+        return classroom;
+    }
+
+    private static Map<Student, SeatLocation> locations(SeatingPlan plan, Classroom classroom) {
+        Map<Student, SeatLocation> locations = new HashMap<>();
+        Seat[][] seats = classroom.getSeats();
+        for (int r = 0; r < classroom.getRows(); r++) {
+            for (int c = 0; c < classroom.getColumns(); c++) {
+                if (seats[r][c] != null && seats[r][c].isOccupied()) {
+                    locations.put(seats[r][c].getAssignedStudent(), new SeatLocation(classroom, seats[r][c]));
+                }
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Seats changed by one repair, in the order they were changed.
+     */
+    public static class RepairResult {
+        private final List<SeatChange> changes = new ArrayList<>();
+        private final List<Student> unplaced = new ArrayList<>();
+        private final Set<String> affectedRooms = new LinkedHashSet<>();
+
+        private void record(Student student, SeatLocation from, SeatLocation to) {
+            changes.add(new SeatChange(student, from, to));
+            if (from != null) affectedRooms.add(from.getRoomName());
+            if (to != null) affectedRooms.add(to.getRoomName());
+        }
+
+        public List<SeatChange> getChanges() {
+            return Collections.unmodifiableList(changes);
+        }
+
+        /**
+         * Students left without a seat by this change (now in the plan's unassigned list).
+         */
+        public List<Student> getUnplaced() {
+            return Collections.unmodifiableList(unplaced);
+        }
+
+        /**
+         * Rooms whose notices need reprinting.
+         */
+        public Set<String> getAffectedRooms() {
+            return Collections.unmodifiableSet(affectedRooms);
+        }
+
+        public boolean isEmpty() {
+            return changes.isEmpty() && unplaced.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "RepairResult{" + changes.size() + " seat changes, " + unplaced.size() +
+                    " unplaced, rooms=" + affectedRooms + '}';
+        }
+    }
+
+    /**
+     * One student's seat before and after a repair. A null room means the
+     * student had (or now has) no seat.
+     */
+    public static class SeatChange {
+        private final Student student;
+        private final String fromRoom;
+        private final String fromSeat;
+        private final String toRoom;
+        private final String toSeat;
+
+        SeatChange(Student student, SeatLocation from, SeatLocation to) {
+            this.student = student;
+            this.fromRoom = from != null ? from.getRoomName() : null;
+            this.fromSeat = from != null ? from.getSeatLabel() : null;
+            this.toRoom = to != null ? to.getRoomName() : null;
+            this.toSeat = to != null ? to.getSeatLabel() : null;
+        }
+
+        public Student getStudent() { return student; }
+        public String getFromRoom() { return fromRoom; }
+        public String getFromSeat() { return fromSeat; }
+        public String getToRoom() { return toRoom; }
+        public String getToSeat() { return toSeat; }
+
+        @Override
+        public String toString() {
+            return student.getRollNo() + ": " +
+                    (fromRoom != null ? fromRoom + " " + fromSeat : "-") + " -> " +
+                    (toRoom != null ? toRoom + " " + toSeat : "-");
+        }
+    }
+}
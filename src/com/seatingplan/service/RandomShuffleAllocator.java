@@ -34,6 +34,7 @@ public class RandomShuffleAllocator implements SeatingAlgorithm {
         
         SeatingPlan plan = new SeatingPlan(freshClassrooms, new ArrayList<>(students));
         plan.setPatternUsed(PatternType.RANDOM_SHUFFLE);
+        plan.setConfig(config);
 
         // Shuffle students randomly
         List<Student> shuffledStudents = new ArrayList<>(students);
@@ -102,51 +103,14 @@ public class RandomShuffleAllocator implements SeatingAlgorithm {
      * Check if placing student at position violates any enabled constraints.
      */
     private boolean hasConflict(Classroom classroom, int row, int col, Student student, SeatingConfig config) {
-        if (config.isEnforceNoSameBranchAdjacent() && 
-            NeighborValidator.hasSameBranchNeighbor(classroom, row, col, student)) {
-            return true;
-        }
-        
-        if (config.isEnforceNoSameYearAdjacent() && 
-            NeighborValidator.hasSameYearNeighbor(classroom, row, col, student)) {
-            return true;
-        }
-        
-        if (config.isEnforceNoSameSemesterAdjacent() && 
-            NeighborValidator.hasSameYearSemNeighbor(classroom, row, col, student)) {
-            return true;
-        }
-        
-        // Default behavior: check both branch and year/sem
-        if (!config.isEnforceNoSameBranchAdjacent() && !config.isEnforceNoSameYearAdjacent() &&
-            !config.isEnforceNoSameSemesterAdjacent()) {
-            return NeighborValidator.hasConflictingNeighbor(classroom, row, col, student);
-        }
-        
-        return false;
+        return NeighborValidator.hasConflict(classroom, row, col, student, config);
     }
 
     /**
      * Count violations based on config.
      */
     private int countViolations(Classroom classroom, int row, int col, Student student, SeatingConfig config) {
-        int violations = 0;
-        
-        if (config.isEnforceNoSameBranchAdjacent() && 
-            NeighborValidator.hasSameBranchNeighbor(classroom, row, col, student)) {
-            violations++;
-        }
-        
-        if (config.isEnforceNoSameYearAdjacent() && 
-            NeighborValidator.hasSameYearNeighbor(classroom, row, col, student)) {
-            violations++;
-        }
-        
-        if (!config.isEnforceNoSameBranchAdjacent() && !config.isEnforceNoSameYearAdjacent()) {
-            violations = NeighborValidator.countViolations(classroom, row, col, student);
-        }
-        
-        return violations;
+        return NeighborValidator.countViolations(classroom, row, col, student, config);
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.seatingplan.service;
 
 import com.seatingplan.model.Classroom;
+import com.seatingplan.model.Roster;
 import com.seatingplan.model.SeatingConfig;
 import com.seatingplan.model.SeatingPlan;
 import com.seatingplan.model.Student;
@@ -36,6 +37,23 @@ public interface SeatingAlgorithm {
         return allocate(students, classrooms);
     }
 
+    /**
+     * Allocate students loaded as a roster. Allocators that sort use the
+     * roster's cached orders ({@link Roster#getOrder}), so generating again
+     * for the same roster does no sorting.
+     *
+     * @param students The roster's rows as student objects; row i is {@code students.get(i)}
+     * @param roster The roster the students were loaded from, or null
+     * @param classrooms List of classrooms available
+     * @param config Seating configuration options
+     * @return SeatingPlan with all assignments made
+     */
+    default SeatingPlan allocate(List<Student> students, Roster roster, List<Classroom> classrooms,
+                                 SeatingConfig config) {
+        // Default implementation does not sort by the configured order
+        return allocate(students, classrooms, config);
+    }
+
     /**
      * Get the display name of this algorithm.
      */
@@ -2,6 +2,7 @@ package com.seatingplan.service;
 
 import com.seatingplan.model.*;
 import com.seatingplan.util.SeatTraversal;
+import com.seatingplan.util.StudentOrdering;
 
 import java.util.*;
 
@@ -18,6 +19,17 @@ public class SequentialAllocator implements SeatingAlgorithm {
 
     @Override
     public SeatingPlan allocate(List<Student> students, List<Classroom> classrooms, SeatingConfig config) {
+        return allocate(students, null, classrooms, config);
+    }
+
+    @Override
+    public SeatingPlan allocate(List<Student> students, Roster roster, List<Classroom> classrooms,
+                                SeatingConfig config) {
+        if (roster != null && roster.size() != students.size()) {
+            throw new IllegalArgumentException("Roster has " + roster.size() + " rows for " +
+                                               students.size() + " students");
+        }
+
         // Create fresh classrooms to avoid modifying input
         List<Classroom> freshClassrooms = createFreshClassrooms(classrooms);
         
@@ -28,9 +40,12 @@ public class SequentialAllocator implements SeatingAlgorithm {
         
         SeatingPlan plan = new SeatingPlan(freshClassrooms, new ArrayList<>(students));
         plan.setPatternUsed(PatternType.SEQUENTIAL);
+        plan.setConfig(config);
 
-        // Sort students based on config
-        List<Student> sortedStudents = sortStudents(new ArrayList<>(students), config);
+        // Sort students based on config; a roster keeps the order from the last generation
+        List<Student> sortedStudents = roster != null
+                ? StudentOrdering.permute(students, roster.getOrder(config.getSortOrder()))
+                : sortStudents(students, config);
 
         // Separate students by room assignments if branch restrictions exist
         Map<Classroom, List<Student>> roomStudentMap = new LinkedHashMap<>();
@@ -94,28 +109,8 @@ public class SequentialAllocator implements SeatingAlgorithm {
     /**
      * Sort students based on configuration.
      */
-    private List<Student> sortStudents(List<Student> students, SeatingConfig config) {
-        switch (config.getSortOrder()) {
-            case NAME:
-                students.sort(Comparator.comparing(Student::getName, String.CASE_INSENSITIVE_ORDER));
-                break;
-            case BRANCH_THEN_ROLL:
-                students.sort(Comparator.comparing(Student::getBranch, String.CASE_INSENSITIVE_ORDER)
-                        .thenComparing(Student::getRollNo));
-                break;
-            case YEAR_THEN_ROLL:
-                students.sort(Comparator.comparingInt(Student::getYear)
-                        .thenComparing(Student::getRollNo));
-                break;
-            case RANDOM:
-                Collections.shuffle(students);
-                break;
-            case ROLL_NUMBER:
-            default:
-                students.sort(Comparator.comparing(Student::getRollNo));
-                break;
-        }
-        return students;
+    static List<Student> sortStudents(List<Student> students, SeatingConfig config) {
+        return StudentOrdering.sort(students, config.getSortOrder());
     }
 
     /**
@@ -0,0 +1,204 @@
+package com.seatingplan.service;
+
+import com.seatingplan.model.*;
+import com.seatingplan.util.SeatTraversal;
+import com.seatingplan.util.StudentOrdering;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Memory-bounded allocation for very large rosters.
+ *
+ * Students are first partitioned into rooms with one compact pass that only
+ * keeps int indices. Each room is then allocated on its own and handed to a
+ * {@link RoomSink} before the next room is built, so only one room's seat grid
+ * is alive at any time.
+ */
+public class StreamingAllocator {
+
+    /**
+     * Receives each room as soon as it has been allocated.
+     * The room plan holds exactly one classroom and that room's students.
+     */
+    public interface RoomSink {
+        void accept(SeatingPlan roomPlan) throws IOException;
+    }
+
+    /**
+     * Partition students into rooms.
+     * Students are taken in the configured sort order and routed to the first
+     * room that allows their branch and still has effective capacity.
+     */
+    public static Partition partition(List<Student> students, List<Classroom> classrooms, SeatingConfig config) {
+        int[] sortedOrder = StudentOrdering.order(students, config.getSortOrder());
+        return partition(StudentOrdering.of(students), students, sortedOrder, classrooms, config);
+    }
+
+    /**
+     * Partition a columnar roster into rooms, reusing its cached sort order.
+     * Student objects are only created when a room's students are read.
+     */
+    public static Partition partition(Roster roster, List<Classroom> classrooms, SeatingConfig config) {
+        return partition(roster, roster.asList(), roster.getOrder(config.getSortOrder()), classrooms, config);
+    }
+
+    private static Partition partition(StudentOrdering.Source columns, List<Student> rows, int[] sortedOrder,
+                                       List<Classroom> classrooms, SeatingConfig config) {
+        int roomCount = classrooms.size();
+        int[] remaining = new int[roomCount];
+        for (int i = 0; i < roomCount; i++) {
+            remaining[i] = SeatTraversal.getEffectiveCapacity(classrooms.get(i), config);
+        }
+
+        // First room that may still take each branch; rooms only ever fill up,
+        // so the cursor never moves backwards
+        Map<String, Integer> branchCursor = new HashMap<>();
+
+        int n = sortedOrder.length;
+        int[] roomOf = new int[n];
+        int[] roomSizes = new int[roomCount + 1];
+        int assigned = 0;
+
+        for (int s = 0; s < n; s++) {
+            String branch = columns.getBranch(sortedOrder[s]);
+            int room = branchCursor.getOrDefault(branch, 0);
+            while (room < roomCount &&
+                   (remaining[room] == 0 || !classrooms.get(room).isBranchAllowed(branch))) {
+                room++;
+            }
+            branchCursor.put(branch, room);
+
+            roomOf[s] = room;           // roomCount means unassigned
+            roomSizes[room]++;
+            if (room < roomCount) {
+                remaining[room]--;
+                assigned++;
+            }
+        }
+
+        // Counting sort by room keeps the sorted order within each room
+        int[] roomStart = new int[roomCount + 2];
+        for (int i = 0; i <= roomCount; i++) {
+            roomStart[i + 1] = roomStart[i] + roomSizes[i];
+        }
+        int[] next = Arrays.copyOf(roomStart, roomCount + 1);
+        int[] order = new int[n];
+        for (int s = 0; s < n; s++) {
+            order[next[roomOf[s]]++] = sortedOrder[s];
+        }
+
+        return new Partition(rows, order, roomStart, roomCount, assigned);
+    }
+
+    /**
+     * Allocate room by room, handing each finished room to the sink.
+     *
+     * @return Students that could not be seated in any room
+     */
+    public static List<Student> allocate(List<Student> students, List<Classroom> classrooms,
+                                         PatternType patternType, SeatingConfig config,
+                                         RoomSink sink) throws IOException {
+        return allocate(partition(students, classrooms, config), classrooms, patternType, config, sink);
+    }
+
+    /**
+     * Allocate a precomputed partition room by room.
+     *
+     * A room's seating pattern may leave some of its students unseated (for
+     * example when adjacency rules cannot be met). Those students are offered
+     * to the following rooms that allow their branch, but only up to each
+     * room's spare capacity so they never displace the students partitioned
+     * there; whoever does not fit is passed on to the next room.
+     *
+     * @return Students that could not be seated in any room
+     */
+    public static List<Student> allocate(Partition partition, List<Classroom> classrooms,
+                                         PatternType patternType, SeatingConfig config,
+                                         RoomSink sink) throws IOException {
+        SeatingAlgorithm algorithm = SeatingAlgorithmFactory.getAlgorithm(patternType);
+        List<Student> unassigned = new ArrayList<>(partition.getUnassigned());
+        List<Student> carried = new ArrayList<>();
+
+        for (int i = 0; i < classrooms.size(); i++) {
+            Classroom template = classrooms.get(i);
+            List<Student> roomStudents = partition.getRoomStudents(i);
+
+            int spare = SeatTraversal.getEffectiveCapacity(template, config) - partition.getRoomSize(i);
+            if (!carried.isEmpty() && spare > 0) {
+                List<Student> offered = new ArrayList<>(Math.min(carried.size(), spare) + roomStudents.size());
+                List<Student> passedOn = new ArrayList<>();
+                for (Student student : carried) {
+                    if (offered.size() < spare && template.isBranchAllowed(student.getBranch())) {
+                        offered.add(student);
+                    } else {
+                        passedOn.add(student);
+                    }
+                }
+                offered.addAll(roomStudents);
+                roomStudents = offered;
+                carried = passedOn;
+            }
+
+            SeatingPlan roomPlan = algorithm.allocate(roomStudents, Collections.singletonList(template), config);
+            carried.addAll(roomPlan.getUnassignedStudents());
+
+            sink.accept(roomPlan);
+        }
+
+        unassigned.addAll(carried);
+        return unassigned;
+    }
+
+    /**
+     * Result of the partition pass: row indices grouped by room in one flat int array.
+     */
+    public static class Partition {
+        private final List<Student> rows;
+        private final int[] order;
+        private final int[] roomStart;
+        private final int roomCount;
+        private final int assignedCount;
+
+        Partition(List<Student> rows, int[] order, int[] roomStart, int roomCount, int assignedCount) {
+            this.rows = rows;
+            this.order = order;
+            this.roomStart = roomStart;
+            this.roomCount = roomCount;
+            this.assignedCount = assignedCount;
+        }
+
+        public int getRoomSize(int roomIndex) {
+            return roomStart[roomIndex + 1] - roomStart[roomIndex];
+        }
+
+        public List<Student> getRoomStudents(int roomIndex) {
+            return slice(roomStart[roomIndex], roomStart[roomIndex + 1]);
+        }
+
+        public List<Student> getUnassigned() {
+            return slice(roomStart[roomCount], roomStart[roomCount + 1]);
+        }
+
+        private List<Student> slice(int from, int to) {
+            List<Student> students = new ArrayList<>(to - from);
+            for (int k = from; k < to; k++) {
+                students.add(rows.get(order[k]));
+            }
+            return students;
+        }
+
+        public int getRoomCount() {
+            return roomCount;
+        }
+
+        /**
+         * Students routed to a room. No room receives more than its effective
+         * capacity, but a room's seating pattern may still leave some of them
+         * unseated, so this is an upper bound on the number seated.
+         */
+        public int getAssignedCount() {
+            return assignedCount;
+        }
+    }
+}
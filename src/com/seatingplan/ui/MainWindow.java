@@ -1,12 +1,22 @@
 package com.seatingplan.ui;
 
-import com.seatingplan.excel.ExcelReader;
+import com.seatingplan.excel.CsvReader;
+import com.seatingplan.excel.ExcelExporter;
+import com.seatingplan.excel.RosterCache;
+import com.seatingplan.excel.RosterWatcher;
 import com.seatingplan.model.*;
 import com.seatingplan.model.SeatingConfig.*;
+import com.seatingplan.pdf.PageCache;
 import com.seatingplan.pdf.PdfGenerator;
+import com.seatingplan.service.NoticeBoard;
+import com.seatingplan.service.PlanMetrics;
+import com.seatingplan.service.PlanRepair;
+import com.seatingplan.service.PlanRepair.RepairResult;
 import com.seatingplan.service.SeatingAlgorithm;
 import com.seatingplan.service.SeatingAlgorithmFactory;
+import com.seatingplan.util.NaturalOrder;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -18,10 +28,12 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -38,11 +50,14 @@ public class MainWindow {
     // Data
     private List<Classroom> classrooms = new ArrayList<>();
     private List<Student> students = new ArrayList<>();
+    // Columns of the loaded students (row i is students.get(i)); keeps their sort orders across generations
+    private Roster roster;
     private SeatingPlan currentPlan = null;
     private SeatingConfig seatingConfig = new SeatingConfig();
     
     // Available branches (populated from loaded students)
     private Set<String> availableBranches = new LinkedHashSet<>();
+    private final RosterCache rosterCache = new RosterCache();
 
     // UI Components - Classroom Tab
     private Spinner<Integer> numRoomsSpinner;
@@ -53,6 +68,21 @@ public class MainWindow {
     private TableView<Student> studentTable;
     private Label studentCountLabel;
     private Label branchSummaryLabel;
+    private Button loadStudentsBtn;
+    private ProgressBar importProgress;
+    private Label importStatusLabel;
+
+    // Running import, and per-branch counts kept up to date as rows arrive
+    private RosterImportTask importTask;
+    private final Map<String, Long> branchCounts = new LinkedHashMap<>();
+
+    // Watch mode: edits to the loaded file are applied as row-level changes
+    private CheckBox watchFileCheck;
+    private File loadedFile;
+    private RosterWatcher rosterWatcher;
+
+    // Pages of earlier PDF exports, so re-exporting after an edit only renders changed pages
+    private final PageCache pdfPageCache = PageCache.inMemory(64L * 1024 * 1024);
 
     // UI Components - Pattern Tab
     private ToggleGroup patternGroup;
@@ -70,7 +100,9 @@ public class MainWindow {
     // UI Components - Generate Tab
     private ScrollPane previewScrollPane;
     private VBox previewContainer;
+    private final Map<String, VBox> roomPreviews = new HashMap<>();
     private Label statusLabel;
+    private CheckBox sheetPerRoomCheck;
 
     public MainWindow(Stage stage) {
         this.stage = stage;
@@ -253,15 +285,7 @@ public class MainWindow {
                     
                     // Add available branches
                     for (String branch : availableBranches) {
-                        CheckMenuItem branchItem = new CheckMenuItem(branch);
-                        branchItem.setOnAction(e -> {
-                            // Uncheck "All Branches" when specific branches are selected
-                            if (branchItem.isSelected()) {
-                                allBranchesItem.setSelected(false);
-                            }
-                            updateBranchButtonText(branchMenuBtn, allBranchesItem);
-                        });
-                        branchMenuBtn.getItems().add(branchItem);
+                        addBranchMenuItem(branchMenuBtn, allBranchesItem, branch);
                     }
                     
                     // Handle "All Branches" selection
@@ -277,20 +301,53 @@ public class MainWindow {
                         updateBranchButtonText(branchMenuBtn, allBranchesItem);
                     });
                     
-                    // Update hint visibility
-                    VBox container = (VBox) node;
-                    HBox branchRow = (HBox) container.getChildren().get(1);
-                    for (var child : branchRow.getChildren()) {
-                        if (child instanceof Label && ((Label) child).getId() != null && 
-                            ((Label) child).getId().startsWith("branchHint_")) {
-                            child.setVisible(availableBranches.isEmpty());
-                            child.setManaged(availableBranches.isEmpty());
-                        }
-                    }
+                    updateBranchHint((VBox) node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add one newly seen branch to every room's branch menu,
+     * leaving existing selections alone.
+     */
+    private void addBranchToMenus(String branch) {
+        for (var node : roomConfigBox.getChildren()) {
+            if (node instanceof VBox) {
+                Object[] data = (Object[]) node.getUserData();
+                if (data != null && data.length >= 5) {
+                    addBranchMenuItem((MenuButton) data[3], (CheckMenuItem) data[4], branch);
+                    updateBranchHint((VBox) node);
                 }
             }
         }
     }
+
+    private void addBranchMenuItem(MenuButton branchMenuBtn, CheckMenuItem allBranchesItem, String branch) {
+        CheckMenuItem branchItem = new CheckMenuItem(branch);
+        branchItem.setOnAction(e -> {
+            // Uncheck "All Branches" when specific branches are selected
+            if (branchItem.isSelected()) {
+                allBranchesItem.setSelected(false);
+            }
+            updateBranchButtonText(branchMenuBtn, allBranchesItem);
+        });
+        branchMenuBtn.getItems().add(branchItem);
+    }
+
+    /**
+     * Show the "load students first" hint only while no branches are known.
+     */
+    private void updateBranchHint(VBox container) {
+        HBox branchRow = (HBox) container.getChildren().get(1);
+        for (var child : branchRow.getChildren()) {
+            if (child instanceof Label && ((Label) child).getId() != null && 
+                ((Label) child).getId().startsWith("branchHint_")) {
+                child.setVisible(availableBranches.isEmpty());
+                child.setManaged(availableBranches.isEmpty());
+            }
+        }
+    }
     
     private void updateBranchButtonText(MenuButton btn, CheckMenuItem allItem) {
         if (allItem.isSelected()) {
@@ -407,14 +464,15 @@ public class MainWindow {
         filePathField.setEditable(false);
         filePathField.setPrefWidth(400);
         Button browseBtn = new Button("Browse...");
-        Button loadBtn = new Button("Load Students");
-        loadBtn.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white;");
+        loadStudentsBtn = new Button("Load Students");
+        loadStudentsBtn.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white;");
 
         browseBtn.setOnAction(e -> {
             FileChooser fileChooser = new FileChooser();
             fileChooser.setTitle("Select Student Excel File");
-            fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("Excel Files", "*.xlsx", "*.xls")
+            fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Excel Files", "*.xlsx", "*.xls"),
+                new FileChooser.ExtensionFilter("CSV / TSV Files", "*.csv", "*.tsv", "*.txt")
             );
             File file = fileChooser.showOpenDialog(stage);
             if (file != null) {
@@ -422,9 +480,30 @@ public class MainWindow {
             }
         });
 
-        loadBtn.setOnAction(e -> loadStudentsFromExcel(filePathField.getText()));
+        loadStudentsBtn.setOnAction(e -> {
+            if (importTask != null) {
+                importTask.cancel();
+            } else {
+                loadStudentsFromExcel(filePathField.getText());
+            }
+        });
+
+        watchFileCheck = new CheckBox("Watch file for changes");
+        watchFileCheck.setTooltip(new Tooltip("Apply edits to the loaded file automatically, " +
+                                              "including to a generated seating plan"));
+        watchFileCheck.setOnAction(e -> updateRosterWatch());
 
-        fileBox.getChildren().addAll(fileLabel, filePathField, browseBtn, loadBtn);
+        fileBox.getChildren().addAll(fileLabel, filePathField, browseBtn, loadStudentsBtn, watchFileCheck);
+
+        // Import progress
+        importProgress = new ProgressBar();
+        importProgress.setPrefWidth(200);
+        importStatusLabel = new Label();
+        importStatusLabel.setStyle("-fx-text-fill: #666;");
+        HBox progressBox = new HBox(10, importProgress, importStatusLabel);
+        progressBox.setAlignment(Pos.CENTER_LEFT);
+        progressBox.visibleProperty().bind(importStatusLabel.textProperty().isNotEmpty());
+        progressBox.managedProperty().bind(progressBox.visibleProperty());
 
         // Expected format info
         Label formatInfo = new Label("Expected columns: Name, Roll No, Year, Semester, Branch");
@@ -464,7 +543,7 @@ public class MainWindow {
         HBox summaryBox = new HBox(30);
         summaryBox.getChildren().addAll(studentCountLabel, branchSummaryLabel);
 
-        content.getChildren().addAll(header, fileBox, formatInfo, studentTable, summaryBox);
+        content.getChildren().addAll(header, fileBox, progressBox, formatInfo, studentTable, summaryBox);
 
         tab.setContent(content);
         return tab;
@@ -476,40 +555,235 @@ public class MainWindow {
             return;
         }
 
-        try {
-            students = ExcelReader.readStudents(filePath);
+        File file = new File(filePath);
+        stopRosterWatch();
 
-            ObservableList<Student> data = FXCollections.observableArrayList(students);
-            studentTable.setItems(data);
+        // Kept so a cancelled or failed import leaves the previous roster in place
+        List<Student> previousStudents = students;
+        Roster previousRoster = roster;
+        Set<String> previousBranches = new LinkedHashSet<>(availableBranches);
+        Map<String, Long> previousCounts = new LinkedHashMap<>(branchCounts);
 
-            studentCountLabel.setText("Students loaded: " + students.size());
+        ObservableList<Student> data = FXCollections.observableArrayList();
+        studentTable.setItems(data);
+        availableBranches.clear();
+        branchCounts.clear();
+        updateBranchMenus();
+        showStudentCounts(0);
 
-            // Calculate branch summary and populate available branches
-            availableBranches.clear();
-            Map<String, Long> branchCounts = new LinkedHashMap<>();
-            for (Student s : students) {
-                branchCounts.merge(s.getBranch(), 1L, Long::sum);
-                availableBranches.add(s.getBranch());
-            }
-            StringBuilder summary = new StringBuilder("Branches: ");
-            branchCounts.forEach((branch, count) -> summary.append(branch).append("(").append(count).append(") "));
-            branchSummaryLabel.setText(summary.toString());
-            
-            // Update branch menus in classroom tab
-            updateBranchMenus();
+        // Unchanged files load from the snapshot cache instead of being reparsed
+        RosterImportTask task = new RosterImportTask(file, rosterCache, batch -> {
+            data.addAll(batch);
+            countBranches(batch);
+            showStudentCounts(data.size());
+        });
+        importTask = task;
+
+        importProgress.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        importStatusLabel.textProperty().bind(task.messageProperty());
+        loadStudentsBtn.setText("Cancel");
+
+        task.setOnSucceeded(e -> {
+            finishImport();
+            students = task.getValue();
+            roster = task.getRoster();
+            data.setAll(students);          // final roll-number order
+            showStudentCounts(students.size());
+            loadedFile = file;
+            updateRosterWatch();
 
             showAlert(Alert.AlertType.INFORMATION, "Students Loaded", 
-                      "Loaded " + students.size() + " students from Excel file.\n" +
+                      "Loaded " + students.size() + " students from " + file.getName() + ".\n" +
                       "Found " + availableBranches.size() + " branches: " + 
                       String.join(", ", availableBranches) + "\n\n" +
                       "You can now go back to Tab 1 to assign specific branches to rooms.");
 
             tabPane.getSelectionModel().select(2); // Move to Pattern tab
+        });
+
+        task.setOnCancelled(e -> {
+            finishImport();
+            restoreStudents(previousStudents, previousRoster, previousBranches, previousCounts);
+        });
+
+        task.setOnFailed(e -> {
+            finishImport();
+            restoreStudents(previousStudents, previousRoster, previousBranches, previousCounts);
+            Throwable error = task.getException();
+            showAlert(Alert.AlertType.ERROR, "Error Loading File", error.getMessage());
+            error.printStackTrace();
+        });
+
+        Thread worker = new Thread(task, "roster-import");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Fold a batch of newly loaded students into the branch counts.
+     * Branch menus only change when a branch is seen for the first time.
+     */
+    private void countBranches(List<Student> batch) {
+        for (Student s : batch) {
+            branchCounts.merge(s.getBranch(), 1L, Long::sum);
+            if (availableBranches.add(s.getBranch())) {
+                addBranchToMenus(s.getBranch());
+            }
+        }
+        StringBuilder summary = new StringBuilder("Branches: ");
+        branchCounts.forEach((branch, count) -> summary.append(branch).append("(").append(count).append(") "));
+        branchSummaryLabel.setText(branchCounts.isEmpty() ? "Branches: -" : summary.toString());
+    }
+
+    private void showStudentCounts(int count) {
+        studentCountLabel.setText("Students loaded: " + count);
+    }
+
+    private void finishImport() {
+        importTask = null;
+        importStatusLabel.textProperty().unbind();
+        importStatusLabel.setText("");
+        loadStudentsBtn.setText("Load Students");
+    }
+
+    private void restoreStudents(List<Student> previous, Roster previousRoster, Set<String> branches,
+                                 Map<String, Long> counts) {
+        students = previous;
+        roster = previousRoster;
+        updateRosterWatch();
+        studentTable.setItems(FXCollections.observableArrayList(previous));
+        availableBranches.clear();
+        availableBranches.addAll(branches);
+        branchCounts.clear();
+        branchCounts.putAll(counts);
+        updateBranchMenus();
+        countBranches(Collections.emptyList());
+        showStudentCounts(previous.size());
+    }
+
+    // ==================== WATCH MODE ====================
 
-        } catch (Exception e) {
-            showAlert(Alert.AlertType.ERROR, "Error Loading File", e.getMessage());
-            e.printStackTrace();
+    /**
+     * Start or stop watching the loaded file to match the checkbox.
+     */
+    private void updateRosterWatch() {
+        stopRosterWatch();
+        if (!watchFileCheck.isSelected() || loadedFile == null) {
+            return;
+        }
+        // The listener outlives a stop/start cycle: callbacks already queued by
+        // an old watcher must not be applied once a new one has taken over.
+        RosterWatcher[] self = new RosterWatcher[1];
+        try {
+            self[0] = new RosterWatcher(loadedFile, rosterCache, students, new RosterWatcher.Listener() {
+                @Override
+                public void rosterChanged(RosterDiff diff, Roster currentRoster, List<Student> current) {
+                    Platform.runLater(() -> applyRosterChanges(self[0], diff, currentRoster, current));
+                }
+
+                @Override
+                public void reloadFailed(Exception error) {
+                    Platform.runLater(() -> {
+                        if (rosterWatcher == self[0] && importTask == null) {
+                            importStatusLabel.setText("Could not reload " + loadedFile.getName() + ": " +
+                                                      error.getMessage());
+                        }
+                    });
+                }
+            });
+            rosterWatcher = self[0];
+        } catch (IOException e) {
+            watchFileCheck.setSelected(false);
+            showAlert(Alert.AlertType.ERROR, "Cannot Watch File", e.getMessage());
+        }
+    }
+
+    private void stopRosterWatch() {
+        if (rosterWatcher != null) {
+            try {
+                rosterWatcher.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            rosterWatcher = null;
+        }
+    }
+
+    /**
+     * Apply an edit of the watched file: only the added, removed and changed
+     * rows touch the table, the branch counts and the current plan.
+     * Ignored unless {@code source} is still the active watcher.
+     */
+    private void applyRosterChanges(RosterWatcher source, RosterDiff diff, Roster currentRoster,
+                                    List<Student> current) {
+        if (rosterWatcher != source || importTask != null) {
+            return;     // watch stopped or restarted, or a full import started meanwhile
+        }
+        students = current;
+        roster = currentRoster;
+
+        ObservableList<Student> data = studentTable.getItems();
+        List<Student> oldVersions = new ArrayList<>(diff.getRemoved());
+
+        // Removed and changed rows, in one pass over the table
+        Set<String> removed = new HashSet<>();
+        for (Student student : diff.getRemoved()) {
+            removed.add(student.getRollNo());
+        }
+        Map<String, Student> changed = new HashMap<>();
+        for (Student student : diff.getChanged()) {
+            changed.put(student.getRollNo(), student);
+        }
+        for (ListIterator<Student> it = data.listIterator(); it.hasNext(); ) {
+            Student row = it.next();
+            if (removed.contains(row.getRollNo())) {
+                it.remove();
+            } else if (changed.containsKey(row.getRollNo())) {
+                oldVersions.add(row);
+                it.set(changed.get(row.getRollNo()));
+            }
+        }
+
+        // New rows at their roll-number position
+        Comparator<Student> byRoll = Comparator.comparing(Student::getRollNo, NaturalOrder.COMPARATOR);
+        for (Student student : diff.getAdded()) {
+            int index = Collections.binarySearch(data, student, byRoll);
+            data.add(index < 0 ? -index - 1 : index, student);
         }
+        showStudentCounts(data.size());
+
+        // Branch counts: take out the old rows, count the new ones
+        boolean branchGone = false;
+        for (Student student : oldVersions) {
+            if (branchCounts.merge(student.getBranch(), -1L, Long::sum) == 0) {
+                branchCounts.remove(student.getBranch());
+                availableBranches.remove(student.getBranch());
+                branchGone = true;
+            }
+        }
+        if (branchGone) {
+            updateBranchMenus();
+        }
+        List<Student> newVersions = new ArrayList<>(diff.getAdded());
+        newVersions.addAll(diff.getChanged());
+        countBranches(newVersions);
+
+        String summary = String.format("%s updated: %d added, %d removed, %d changed",
+                loadedFile.getName(), diff.getAdded().size(), diff.getRemoved().size(), diff.getChanged().size());
+
+        if (currentPlan != null) {
+            RepairResult repair = PlanRepair.apply(currentPlan, diff);
+            refreshPreview(repair.getAffectedRooms());
+            summary += " | Plan: " + repair.getChanges().size() + " seat changes";
+            if (!repair.getAffectedRooms().isEmpty()) {
+                summary += " in " + String.join(", ", repair.getAffectedRooms());
+            }
+            if (!repair.getUnplaced().isEmpty()) {
+                summary += ", " + repair.getUnplaced().size() + " without a seat";
+            }
+        }
+        importStatusLabel.setText(summary);
+        importProgress.setProgress(1);
     }
 
     // ==================== PATTERN TAB ====================
@@ -730,7 +1004,7 @@ public class MainWindow {
 
         // Generate plan with config
         SeatingAlgorithm algorithm = SeatingAlgorithmFactory.getAlgorithm(patternType);
-        currentPlan = algorithm.allocate(students, classrooms, seatingConfig);
+        currentPlan = algorithm.allocate(students, roster, classrooms, seatingConfig);
 
         // Set exam details
         currentPlan.setExamName(examNameField.getText().trim());
@@ -750,6 +1024,12 @@ public class MainWindow {
         summary.append("Spacing: ").append(seatingConfig.getSeatGapping().getDisplayName()).append("\n\n");
         summary.append("Students seated: ").append(currentPlan.getTotalOccupied())
                .append("/").append(students.size()).append("\n");
+
+        // Plan quality (single sweep over every room grid)
+        PlanMetrics metrics = PlanMetrics.compute(currentPlan);
+        summary.append("Seat fill: ").append(Math.round(metrics.getFillRatio() * 100)).append("%\n");
+        summary.append("Adjacent same-branch pairs: ").append(metrics.getSameBranchPairs()).append("\n");
+        summary.append("Adjacent same-year pairs: ").append(metrics.getSameYearPairs()).append("\n");
         
         if (!currentPlan.getUnassignedStudents().isEmpty()) {
             summary.append("\n⚠ ").append(currentPlan.getUnassignedStudents().size())
@@ -792,12 +1072,35 @@ public class MainWindow {
         exportPdfBtn.setPrefWidth(150);
         exportPdfBtn.setOnAction(e -> exportToPdf());
 
+        Button roomPdfsBtn = new Button("Room PDFs");
+        roomPdfsBtn.setTooltip(new Tooltip("Save one PDF per room and a summary PDF into a folder"));
+        roomPdfsBtn.setOnAction(e -> exportRoomPdfs());
+
+        Button admitSlipsBtn = new Button("Admit Slips");
+        admitSlipsBtn.setTooltip(new Tooltip("Save a PDF with an admit slip for every seated student"));
+        admitSlipsBtn.setOnAction(e -> exportAdmitSlips());
+
+        Button noticesBtn = new Button("Door Notices");
+        noticesBtn.setTooltip(new Tooltip("Save the roll numbers seated in each room, as a PDF or text file"));
+        noticesBtn.setOnAction(e -> exportNotices());
+
         Button regenerateBtn = new Button("Regenerate Plan");
         regenerateBtn.setOnAction(e -> {
             tabPane.getSelectionModel().select(2);
         });
 
-        buttonBox.getChildren().addAll(exportPdfBtn, regenerateBtn);
+        Button exportExcelBtn = new Button("Export to Excel");
+        exportExcelBtn.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white; -fx-font-size: 14;");
+        exportExcelBtn.setPrefWidth(150);
+        exportExcelBtn.setOnAction(e -> exportToExcel());
+
+        sheetPerRoomCheck = new CheckBox("One sheet per room");
+
+        Button writeBackBtn = new Button("Add Seats to Roster");
+        writeBackBtn.setTooltip(new Tooltip("Save a copy of the loaded roster with Room and Seat columns"));
+        writeBackBtn.setOnAction(e -> exportWriteBack());
+
+        buttonBox.getChildren().addAll(exportPdfBtn, roomPdfsBtn, admitSlipsBtn, noticesBtn, exportExcelBtn, sheetPerRoomCheck, writeBackBtn, regenerateBtn);
 
         content.getChildren().addAll(header, statusLabel, previewScrollPane, buttonBox);
 
@@ -807,67 +1110,109 @@ public class MainWindow {
 
     private void updatePreview() {
         previewContainer.getChildren().clear();
+        roomPreviews.clear();
 
         if (currentPlan == null) {
             statusLabel.setText("No seating plan generated yet.");
             return;
         }
 
-        statusLabel.setText("Pattern: " + currentPlan.getPatternUsed().getDisplayName() + 
-                           " | Students: " + currentPlan.getTotalOccupied() + "/" + currentPlan.getStudents().size());
+        updatePreviewStatus();
 
         // Create preview for each classroom
         for (Classroom classroom : currentPlan.getClassrooms()) {
-            VBox roomBox = new VBox(5);
-            roomBox.setPadding(new Insets(10));
-            roomBox.setStyle("-fx-border-color: #2196F3; -fx-border-width: 2; -fx-border-radius: 5;");
-
-            // Room header with branch info
-            String roomInfo = classroom.getRoomName() + " (" + 
-                              classroom.getOccupiedCount() + "/" + classroom.getCapacity() + " occupied)";
-            if (classroom.hasBranchRestrictions()) {
-                roomInfo += " - Branches: " + classroom.getBranchSummary();
-            }
-            Label roomLabel = new Label(roomInfo);
-            roomLabel.setFont(Font.font("System", FontWeight.BOLD, 14));
+            VBox roomBox = createRoomPreview(classroom);
+            roomPreviews.put(classroom.getRoomName(), roomBox);
+            previewContainer.getChildren().add(roomBox);
+        }
 
-            GridPane grid = new GridPane();
-            grid.setHgap(3);
-            grid.setVgap(3);
+        // Add unassigned students warning if any
+        if (!currentPlan.getUnassignedStudents().isEmpty()) {
+            previewContainer.getChildren().add(0, createUnassignedWarning());
+        }
+    }
 
-            // Column headers
-            for (int c = 0; c < classroom.getColumns(); c++) {
-                Label colHeader = new Label("C" + (c + 1));
-                colHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 10;");
-                colHeader.setAlignment(Pos.CENTER);
-                colHeader.setPrefWidth(80);
-                grid.add(colHeader, c + 1, 0);
+    /**
+     * Redraw only the given rooms after an incremental change to the plan.
+     */
+    private void refreshPreview(Collection<String> roomNames) {
+        if (currentPlan == null) {
+            return;
+        }
+        for (String roomName : roomNames) {
+            Classroom classroom = currentPlan.getClassroom(roomName);
+            VBox existing = roomPreviews.get(roomName);
+            if (classroom == null || existing == null) {
+                updatePreview();        // rooms were added or removed
+                return;
             }
+            VBox roomBox = createRoomPreview(classroom);
+            roomPreviews.put(roomName, roomBox);
+            previewContainer.getChildren().set(previewContainer.getChildren().indexOf(existing), roomBox);
+        }
 
-            // Rows with data
-            for (int r = 0; r < classroom.getRows(); r++) {
-                Label rowHeader = new Label("R" + (r + 1));
-                rowHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 10;");
-                grid.add(rowHeader, 0, r + 1);
+        previewContainer.getChildren().removeIf(node -> node.getStyleClass().contains("unassigned-warning"));
+        if (!currentPlan.getUnassignedStudents().isEmpty()) {
+            previewContainer.getChildren().add(0, createUnassignedWarning());
+        }
+        updatePreviewStatus();
+    }
 
-                for (int c = 0; c < classroom.getColumns(); c++) {
-                    Seat seat = classroom.getSeat(r, c);
-                    Label seatLabel = createSeatLabel(seat);
-                    grid.add(seatLabel, c + 1, r + 1);
-                }
-            }
+    private void updatePreviewStatus() {
+        statusLabel.setText("Pattern: " + currentPlan.getPatternUsed().getDisplayName() + 
+                           " | Students: " + currentPlan.getTotalOccupied() + "/" + currentPlan.getStudents().size());
+    }
 
-            roomBox.getChildren().addAll(roomLabel, grid);
-            previewContainer.getChildren().add(roomBox);
+    private VBox createRoomPreview(Classroom classroom) {
+        VBox roomBox = new VBox(5);
+        roomBox.setPadding(new Insets(10));
+        roomBox.setStyle("-fx-border-color: #2196F3; -fx-border-width: 2; -fx-border-radius: 5;");
+
+        // Room header with branch info
+        String roomInfo = classroom.getRoomName() + " (" + 
+                          classroom.getOccupiedCount() + "/" + classroom.getCapacity() + " occupied)";
+        if (classroom.hasBranchRestrictions()) {
+            roomInfo += " - Branches: " + classroom.getBranchSummary();
+        }
+        Label roomLabel = new Label(roomInfo);
+        roomLabel.setFont(Font.font("System", FontWeight.BOLD, 14));
+
+        GridPane grid = new GridPane();
+        grid.setHgap(3);
+        grid.setVgap(3);
+
+        // Column headers
+        for (int c = 0; c < classroom.getColumns(); c++) {
+            Label colHeader = new Label("C" + (c + 1));
+            colHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 10;");
+            colHeader.setAlignment(Pos.CENTER);
+            colHeader.setPrefWidth(80);
+            grid.add(colHeader, c + 1, 0);
         }
 
-        // Add unassigned students warning if any
-        if (!currentPlan.getUnassignedStudents().isEmpty()) {
-            Label warning = new Label("⚠ " + currentPlan.getUnassignedStudents().size() + 
-                                     " students could not be assigned seats.");
-            warning.setStyle("-fx-text-fill: #f44336; -fx-font-weight: bold;");
-            previewContainer.getChildren().add(0, warning);
+        // Rows with data
+        for (int r = 0; r < classroom.getRows(); r++) {
+            Label rowHeader = new Label("R" + (r + 1));
+            rowHeader.setStyle("-fx-font-weight: bold; -fx-font-size: 10;");
+            grid.add(rowHeader, 0, r + 1);
+
+            for (int c = 0; c < classroom.getColumns(); c++) {
+                Seat seat = classroom.getSeat(r, c);
+                Label seatLabel = createSeatLabel(seat);
+                grid.add(seatLabel, c + 1, r + 1);
+            }
         }
+
+        roomBox.getChildren().addAll(roomLabel, grid);
+        return roomBox;
+    }
+
+    private Label createUnassignedWarning() {
+        Label warning = new Label("⚠ " + currentPlan.getUnassignedStudents().size() + 
+                                 " students could not be assigned seats.");
+        warning.setStyle("-fx-text-fill: #f44336; -fx-font-weight: bold;");
+        warning.getStyleClass().add("unassigned-warning");
+        return warning;
     }
 
     private Label createSeatLabel(Seat seat) {
@@ -922,7 +1267,7 @@ public class MainWindow {
         File file = fileChooser.showSaveDialog(stage);
         if (file != null) {
             try {
-                PdfGenerator.generatePdf(currentPlan, file.getAbsolutePath());
+                PdfGenerator.generatePdf(currentPlan, file.getAbsolutePath(), pdfPageCache);
                 showAlert(Alert.AlertType.INFORMATION, "PDF Exported", 
                           "Seating plan saved to:\n" + file.getAbsolutePath());
             } catch (Exception e) {
@@ -933,6 +1278,156 @@ public class MainWindow {
         }
     }
 
+    private void exportRoomPdfs() {
+        if (currentPlan == null) {
+            showAlert(Alert.AlertType.WARNING, "No Plan", 
+                      "Please generate a seating plan first.");
+            return;
+        }
+
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Choose Folder for Room PDFs");
+
+        File directory = directoryChooser.showDialog(stage);
+        if (directory != null) {
+            try {
+                List<File> files = PdfGenerator.exportRoomPdfs(currentPlan, directory);
+                showAlert(Alert.AlertType.INFORMATION, "PDFs Exported", 
+                          (files.size() - 1) + " room PDFs and " + PdfGenerator.SUMMARY_FILE_NAME +
+                          " saved to:\n" + directory.getAbsolutePath());
+            } catch (Exception e) {
+                showAlert(Alert.AlertType.ERROR, "Export Failed", 
+                          "Failed to generate PDFs:\n" + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void exportAdmitSlips() {
+        if (currentPlan == null) {
+            showAlert(Alert.AlertType.WARNING, "No Plan", 
+                      "Please generate a seating plan first.");
+            return;
+        }
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Admit Slips PDF");
+        fileChooser.setInitialFileName("admit_slips.pdf");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("PDF Files", "*.pdf")
+        );
+
+        File file = fileChooser.showSaveDialog(stage);
+        if (file != null) {
+            try {
+                PdfGenerator.generateAdmitSlips(currentPlan, file.getAbsolutePath());
+                showAlert(Alert.AlertType.INFORMATION, "PDF Exported", 
+                          currentPlan.getTotalOccupied() + " admit slips saved to:\n" + file.getAbsolutePath());
+            } catch (Exception e) {
+                showAlert(Alert.AlertType.ERROR, "Export Failed", 
+                          "Failed to generate admit slips:\n" + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void exportNotices() {
+        if (currentPlan == null) {
+            showAlert(Alert.AlertType.WARNING, "No Plan", 
+                      "Please generate a seating plan first.");
+            return;
+        }
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Door Notices");
+        fileChooser.setInitialFileName("door_notices.pdf");
+        fileChooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("PDF Files", "*.pdf"),
+            new FileChooser.ExtensionFilter("Text Files", "*.txt")
+        );
+
+        File file = fileChooser.showSaveDialog(stage);
+        if (file != null) {
+            try {
+                if (file.getName().toLowerCase().endsWith(".txt")) {
+                    NoticeBoard.writeText(currentPlan, file.getAbsolutePath());
+                } else {
+                    PdfGenerator.generateNotices(currentPlan, file.getAbsolutePath());
+                }
+                showAlert(Alert.AlertType.INFORMATION, "Notices Exported", 
+                          "Door notices saved to:\n" + file.getAbsolutePath());
+            } catch (Exception e) {
+                showAlert(Alert.AlertType.ERROR, "Export Failed", 
+                          "Failed to generate door notices:\n" + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void exportToExcel() {
+        if (currentPlan == null) {
+            showAlert(Alert.AlertType.WARNING, "No Plan", 
+                      "Please generate a seating plan first.");
+            return;
+        }
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Seating Plan Spreadsheet");
+        fileChooser.setInitialFileName("seating_plan.xlsx");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Excel Files", "*.xlsx")
+        );
+
+        File file = fileChooser.showSaveDialog(stage);
+        if (file != null) {
+            try {
+                ExcelExporter.exportPlan(currentPlan, file, sheetPerRoomCheck.isSelected());
+                showAlert(Alert.AlertType.INFORMATION, "Spreadsheet Exported", 
+                          "Seating plan saved to:\n" + file.getAbsolutePath());
+            } catch (Exception e) {
+                showAlert(Alert.AlertType.ERROR, "Export Failed", 
+                          "Failed to write spreadsheet:\n" + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void exportWriteBack() {
+        if (currentPlan == null) {
+            showAlert(Alert.AlertType.WARNING, "No Plan", 
+                      "Please generate a seating plan first.");
+            return;
+        }
+        if (loadedFile == null || CsvReader.isDelimitedText(loadedFile)) {
+            showAlert(Alert.AlertType.WARNING, "No Roster Workbook", 
+                      "Load the students from an Excel roster first (Tab 2).");
+            return;
+        }
+
+        String baseName = loadedFile.getName().replaceFirst("\\.[^.]+$", "");
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Roster with Seats");
+        fileChooser.setInitialDirectory(loadedFile.getParentFile());
+        fileChooser.setInitialFileName(baseName + "_seats.xlsx");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Excel Files", "*.xlsx")
+        );
+
+        File file = fileChooser.showSaveDialog(stage);
+        if (file != null) {
+            try {
+                ExcelExporter.WriteBackResult result = ExcelExporter.writeBack(currentPlan, loadedFile, file);
+                String message = "Roster with seats saved to:\n" + file.getAbsolutePath() + "\n\n" +
+                                 result.getSeated() + " of " + result.getRows() + " students have a seat.";
+                showAlert(Alert.AlertType.INFORMATION, "Roster Exported", message);
+            } catch (Exception e) {
+                showAlert(Alert.AlertType.ERROR, "Export Failed", 
+                          "Failed to write roster:\n" + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
     private void showAlert(Alert.AlertType type, String title, String content) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
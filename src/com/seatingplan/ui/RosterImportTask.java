@@ -0,0 +1,113 @@
+package com.seatingplan.ui;
+
+import com.seatingplan.excel.RosterCache;
+import com.seatingplan.model.Roster;
+import com.seatingplan.model.Student;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Loads a roster file off the JavaFX application thread.
+ *
+ * Rows are queued as they are parsed and handed to the UI in batches, at most
+ * one pending {@link Platform#runLater} at a time, so the table fills while
+ * the import runs without flooding the event queue. The task message reports
+ * rows parsed and the current throughput. The value is the full roster sorted
+ * by roll number, as student objects; {@link #getRoster} keeps the columns.
+ */
+class RosterImportTask extends Task<List<Student>> {
+
+    // Minimum time between batches / status updates
+    private static final long UPDATE_INTERVAL_NANOS = 100_000_000L;
+    // Rows between clock checks
+    private static final int CHECK_EVERY = 1024;
+
+    private final File file;
+    private final RosterCache cache;
+    private final Consumer<List<Student>> onBatch;
+
+    private final ConcurrentLinkedQueue<Student> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private volatile Roster roster;
+    private long rows;
+    private long startNanos;
+    private long lastUpdateNanos;
+
+    /**
+     * @param onBatch Receives each batch of newly parsed rows on the FX thread
+     */
+    RosterImportTask(File file, RosterCache cache, Consumer<List<Student>> onBatch) {
+        this.file = file;
+        this.cache = cache;
+        this.onBatch = onBatch;
+    }
+
+    @Override
+    protected List<Student> call() throws Exception {
+        startNanos = System.nanoTime();
+        lastUpdateNanos = startNanos;
+        updateMessage("Reading " + file.getName() + "...");
+
+        Roster roster = cache.load(file, student -> {
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            pending.add(student);
+            if (++rows % CHECK_EVERY == 0) {
+                long now = System.nanoTime();
+                if (now - lastUpdateNanos >= UPDATE_INTERVAL_NANOS) {
+                    lastUpdateNanos = now;
+                    publish(now);
+                }
+            }
+        });
+
+        publish(System.nanoTime());
+        this.roster = roster;
+        return roster.toStudents();
+    }
+
+    /**
+     * The loaded roster once the task has succeeded; row i is element i of the value.
+     */
+    Roster getRoster() {
+        return roster;
+    }
+
+    private void publish(long now) {
+        double seconds = Math.max(now - startNanos, 1) / 1e9;
+        updateMessage(String.format("Parsed %,d rows (%,.0f rows/s)", rows, rows / seconds));
+        if (drainScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drain);
+        }
+    }
+
+    /**
+     * Hand everything queued so far to the UI (FX thread).
+     */
+    private void drain() {
+        drainScheduled.set(false);
+        if (isCancelled()) {
+            pending.clear();
+            return;
+        }
+        List<Student> batch = new ArrayList<>();
+        Student student;
+        while ((student = pending.poll()) != null) {
+            batch.add(student);
+        }
+        if (!batch.isEmpty()) {
+            onBatch.accept(batch);
+        }
+    }
+}
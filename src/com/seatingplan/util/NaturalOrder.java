@@ -0,0 +1,120 @@
+package com.seatingplan.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Natural ordering for roll numbers: digit runs compare by numeric value,
+ * so "CSE9" sorts before "CSE10". Everything else compares character by
+ * character, case-sensitively, like plain String order.
+ */
+public class NaturalOrder {
+
+    /**
+     * Natural-order comparator. Strings that differ only in leading zeros
+     * fall back to plain String order so the ordering stays total.
+     */
+    public static final Comparator<String> COMPARATOR = NaturalOrder::compare;
+
+    // Digit runs longer than this share one length byte in collation keys
+    private static final int MAX_RUN_LENGTH = 255;
+
+    /**
+     * Compare two strings in natural order without allocating.
+     */
+    public static int compare(String a, String b) {
+        int result = compareRuns(a, b);
+        return result != 0 ? result : a.compareTo(b);
+    }
+
+    private static int compareRuns(String a, String b) {
+        int i = 0;
+        int j = 0;
+        int lenA = a.length();
+        int lenB = b.length();
+
+        while (i < lenA && j < lenB) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(j);
+
+            if (isDigit(ca) && isDigit(cb)) {
+                // Skip leading zeros
+                while (i < lenA && a.charAt(i) == '0') i++;
+                while (j < lenB && b.charAt(j) == '0') j++;
+
+                int endA = i;
+                while (endA < lenA && isDigit(a.charAt(endA))) endA++;
+                int endB = j;
+                while (endB < lenB && isDigit(b.charAt(endB))) endB++;
+
+                // Longer run (without leading zeros) is the larger number
+                int runA = Math.min(endA - i, MAX_RUN_LENGTH);
+                int runB = Math.min(endB - j, MAX_RUN_LENGTH);
+                if (runA != runB) {
+                    return runA - runB;
+                }
+
+                for (; i < endA && j < endB; i++, j++) {
+                    if (a.charAt(i) != b.charAt(j)) {
+                        return a.charAt(i) - b.charAt(j);
+                    }
+                }
+                i = endA;
+                j = endB;
+            } else {
+                if (ca != cb) {
+                    return ca - cb;
+                }
+                i++;
+                j++;
+            }
+        }
+
+        return (lenA - i) - (lenB - j);
+    }
+
+    /**
+     * Byte key whose unsigned lexicographic order matches {@link #compare}
+     * (up to the leading-zero tie break). Digit runs are written as
+     * '0', run length, digits; other characters as UTF-8.
+     */
+    public static byte[] collationKey(String value) {
+        int len = value.length();
+        // At most 3 bytes per char (a lone digit takes 2, non-ASCII UTF-8 up to 3)
+        byte[] key = new byte[len * 3];
+        int size = 0;
+        int i = 0;
+
+        while (i < len) {
+            char c = value.charAt(i);
+            if (isDigit(c)) {
+                while (i < len && value.charAt(i) == '0') i++;
+                int end = i;
+                while (end < len && isDigit(value.charAt(end))) end++;
+
+                key[size++] = '0';
+                key[size++] = (byte) Math.min(end - i, MAX_RUN_LENGTH);
+                for (; i < end; i++) {
+                    key[size++] = (byte) value.charAt(i);
+                }
+            } else if (c < 0x80) {
+                key[size++] = (byte) c;
+                i++;
+            } else {
+                int end = i + 1;
+                while (end < len && value.charAt(end) >= 0x80) end++;
+                byte[] text = value.substring(i, end).getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(text, 0, key, size, text.length);
+                size += text.length;
+                i = end;
+            }
+        }
+
+        return Arrays.copyOf(key, size);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -1,14 +1,29 @@
 package com.seatingplan.util;
 
+import com.seatingplan.model.Classroom;
+
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
-import java.io.FileOutputStream;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 /**
- * Utility to generate a sample student Excel file for testing.
- * Run this after setting up the libraries.
+ * Utility to generate sample student rosters (and matching room layouts) for
+ * testing and benchmarking.
+ *
+ * Rows are produced one at a time and written through SXSSF or plain CSV, so
+ * millions of rows can be generated in constant memory. Branch and year
+ * distributions, the roll-number format and the random seed are configurable
+ * through {@link Options}; the same options always produce the same file.
+ *
+ * Usage: SampleDataGenerator [output.xlsx|output.csv] [count] [--seed N]
+ *        [--skew S] [--years W1,W2,W3,W4] [--roll FORMAT] [--rooms]
  */
 public class SampleDataGenerator {
 
@@ -23,32 +38,177 @@ public class SampleDataGenerator {
         "Sharma", "Verma", "Gupta", "Singh", "Kumar", "Patel", "Reddy", "Rao", "Nair", "Menon",
         "Iyer", "Pillai", "Joshi", "Desai", "Shah", "Mehta", "Agarwal", "Mishra", "Pandey", "Saxena"
     };
+    private static final String[] HEADERS = {"Name", "Roll No", "Year", "Semester", "Branch"};
+    private static final int[] COLUMN_WIDTHS = {22, 16, 6, 10, 8};   // in characters
+
+    // Typical room grids (rows x columns); smaller rooms are more common
+    private static final int[][] ROOM_LAYOUTS = {{5, 6}, {6, 8}, {8, 8}, {8, 10}, {10, 12}, {12, 15}};
+    private static final double[] ROOM_LAYOUT_WEIGHTS = {3, 4, 3, 2, 1, 0.5};
+
+    private static final int ROW_WINDOW = 200;
+    private static final int MAX_SHEET_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows() - 1;
+
+    /**
+     * Roll number layouts, shown for a 2nd-year CSE student.
+     */
+    public enum RollFormat {
+        BRANCH_YEAR_SEQUENCE("CSE2023001"),
+        YEAR_BRANCH_SEQUENCE("23CSE0001"),
+        NUMERIC("23010001"),
+        SLASHED("2023/CSE/0001");
+
+        private final String example;
+
+        RollFormat(String example) {
+            this.example = example;
+        }
+
+        public String getExample() { return example; }
+    }
+
+    /**
+     * What to generate. Defaults: seed 42, the five standard branches and four
+     * years with uniform weights, BRANCH_YEAR_SEQUENCE roll numbers.
+     */
+    public static class Options {
+        private long seed = 42;
+        private String[] branches = BRANCHES;
+        private double branchSkew = 0;
+        private double[] yearWeights = {1, 1, 1, 1};
+        private RollFormat rollFormat = RollFormat.BRANCH_YEAR_SEQUENCE;
+        private int admissionYear = 2024;
+        private double roomHeadroom = 1.1;
+
+        public long getSeed() { return seed; }
+        public void setSeed(long seed) { this.seed = seed; }
+
+        public String[] getBranches() { return branches.clone(); }
+        public void setBranches(String... branches) {
+            if (branches.length == 0) {
+                throw new IllegalArgumentException("At least one branch is required");
+            }
+            this.branches = branches.clone();
+        }
+
+        /**
+         * Zipf exponent for branch sizes: branch k gets weight 1/k^skew.
+         * 0 gives equal branches; around 1 gives a few large and many small branches.
+         */
+        public double getBranchSkew() { return branchSkew; }
+        public void setBranchSkew(double branchSkew) {
+            if (branchSkew < 0) {
+                throw new IllegalArgumentException("Branch skew must not be negative");
+            }
+            this.branchSkew = branchSkew;
+        }
+
+        /**
+         * Relative number of students per year (index 0 = year 1).
+         */
+        public double[] getYearWeights() { return yearWeights.clone(); }
+        public void setYearWeights(double... yearWeights) {
+            if (yearWeights.length == 0 || Arrays.stream(yearWeights).anyMatch(w -> w < 0) ||
+                    Arrays.stream(yearWeights).sum() <= 0) {
+                throw new IllegalArgumentException("Year weights must be non-negative with a positive sum");
+            }
+            this.yearWeights = yearWeights.clone();
+        }
+
+        public RollFormat getRollFormat() { return rollFormat; }
+        public void setRollFormat(RollFormat rollFormat) { this.rollFormat = rollFormat; }
+
+        /**
+         * Admission year of current first-year students.
+         */
+        public int getAdmissionYear() { return admissionYear; }
+        public void setAdmissionYear(int admissionYear) { this.admissionYear = admissionYear; }
+
+        /**
+         * Generated room capacity as a multiple of the student count.
+         */
+        public double getRoomHeadroom() { return roomHeadroom; }
+        public void setRoomHeadroom(double roomHeadroom) {
+            if (roomHeadroom < 1) {
+                throw new IllegalArgumentException("Room headroom must be at least 1");
+            }
+            this.roomHeadroom = roomHeadroom;
+        }
+    }
 
     public static void main(String[] args) {
         String outputPath = "resources/sample_students.xlsx";
-        int numberOfStudents = 60;
+        long numberOfStudents = 60;
+        Options options = new Options();
+        boolean writeRooms = false;
 
-        if (args.length > 0) {
-            outputPath = args[0];
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed":
+                    options.setSeed(Long.parseLong(args[++i]));
+                    break;
+                case "--skew":
+                    options.setBranchSkew(Double.parseDouble(args[++i]));
+                    break;
+                case "--years":
+                    options.setYearWeights(Arrays.stream(args[++i].split(",")).mapToDouble(Double::parseDouble).toArray());
+                    break;
+                case "--roll":
+                    options.setRollFormat(RollFormat.valueOf(args[++i].toUpperCase()));
+                    break;
+                case "--rooms":
+                    writeRooms = true;
+                    break;
+                default:
+                    positional.add(args[i]);
+            }
+        }
+        if (positional.size() > 0) {
+            outputPath = positional.get(0);
         }
-        if (args.length > 1) {
-            numberOfStudents = Integer.parseInt(args[1]);
+        if (positional.size() > 1) {
+            numberOfStudents = Long.parseLong(positional.get(1));
         }
 
         try {
-            generateSampleExcel(outputPath, numberOfStudents);
-            System.out.println("Sample Excel file created: " + outputPath);
-            System.out.println("Students generated: " + numberOfStudents);
+            long start = System.nanoTime();
+            if (outputPath.toLowerCase().endsWith(".csv")) {
+                writeCsv(outputPath, numberOfStudents, options);
+            } else {
+                writeExcel(outputPath, numberOfStudents, options);
+            }
+            System.out.println("Sample file created: " + outputPath);
+            System.out.println("Students generated: " + numberOfStudents +
+                               " (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+
+            if (writeRooms) {
+                String roomsPath = outputPath.replaceFirst("\\.[^.]+$", "") + "_rooms.csv";
+                List<Classroom> rooms = generateRooms(numberOfStudents, options);
+                writeRoomLayout(roomsPath, rooms);
+                System.out.println("Room layout created: " + roomsPath + " (" + rooms.size() + " rooms, " +
+                                   rooms.stream().mapToInt(Classroom::getCapacity).sum() + " seats)");
+            }
         } catch (IOException e) {
             System.err.println("Error creating file: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Write a sample roster with the default options.
+     */
     public static void generateSampleExcel(String outputPath, int count) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Students");
+        writeExcel(outputPath, count, new Options());
+    }
 
+    /**
+     * Write a roster as .xlsx through a streaming workbook. Rosters larger than
+     * one sheet continue on "Students (2)", "Students (3)", ...
+     */
+    public static void writeExcel(String outputPath, long count, Options options) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputPath))) {
             // Create header style
             CellStyle headerStyle = workbook.createCellStyle();
             Font headerFont = workbook.createFont();
@@ -57,55 +217,208 @@ public class SampleDataGenerator {
             headerStyle.setFillForegroundColor(IndexedColors.LIGHT_BLUE.getIndex());
             headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
 
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"Name", "Roll No", "Year", "Semester", "Branch"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
+            RowGenerator rows = new RowGenerator(options, count);
+            Sheet sheet = null;
+            int rowNum = 0;
+            for (long i = 0; i < count; i++) {
+                if (sheet == null || rowNum > MAX_SHEET_ROWS) {
+                    int part = workbook.getNumberOfSheets() + 1;
+                    sheet = createSheet(workbook, part == 1 ? "Students" : "Students (" + part + ")", headerStyle);
+                    rowNum = 1;
+                }
+                rows.next();
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue(rows.name);
+                row.createCell(1).setCellValue(rows.rollNo);
+                row.createCell(2).setCellValue(rows.year);
+                row.createCell(3).setCellValue(rows.semester);
+                row.createCell(4).setCellValue(rows.branch);
+            }
+            if (sheet == null) {
+                createSheet(workbook, "Students", headerStyle);
             }
 
-            // Generate student data
-            java.util.Random random = new java.util.Random(42); // Fixed seed for reproducibility
+            workbook.write(out);
+        } finally {
+            workbook.close();
+        }
+    }
+
+    private static Sheet createSheet(SXSSFWorkbook workbook, String name, CellStyle headerStyle) {
+        Sheet sheet = workbook.createSheet(name);
+        // Fixed widths: autoSizeColumn would have to measure every row
+        for (int i = 0; i < COLUMN_WIDTHS.length; i++) {
+            sheet.setColumnWidth(i, COLUMN_WIDTHS[i] * 256);
+        }
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < HEADERS.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(HEADERS[i]);
+            cell.setCellStyle(headerStyle);
+        }
+        return sheet;
+    }
 
-            for (int i = 0; i < count; i++) {
-                Row row = sheet.createRow(i + 1);
+    /**
+     * Write a roster as UTF-8 CSV (the format read by the CSV importer).
+     */
+    public static void writeCsv(String outputPath, long count, Options options) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(outputPath), StandardCharsets.UTF_8), 1 << 20)) {
+            out.write(String.join(",", HEADERS));
+            out.write('\n');
 
-                // Random name
-                String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
-                String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
-                row.createCell(0).setCellValue(firstName + " " + lastName);
+            RowGenerator rows = new RowGenerator(options, count);
+            StringBuilder line = new StringBuilder(64);
+            for (long i = 0; i < count; i++) {
+                rows.next();
+                line.setLength(0);
+                line.append(rows.name).append(',').append(rows.rollNo).append(',')
+                    .append(rows.year).append(',').append(rows.semester).append(',')
+                    .append(rows.branch).append('\n');
+                out.append(line);
+            }
+        }
+    }
+
+    /**
+     * Room layouts with enough seats for a roster of the given size (times the
+     * configured headroom), using a seeded mix of typical room sizes.
+     */
+    public static List<Classroom> generateRooms(long students, Options options) {
+        Random random = new Random(options.seed ^ 0x5DEECE66DL);
+        double[] layoutWeights = cumulative(ROOM_LAYOUT_WEIGHTS);
+        long needed = (long) Math.ceil(students * options.roomHeadroom);
+
+        List<Classroom> rooms = new ArrayList<>();
+        long capacity = 0;
+        while (capacity < needed) {
+            int[] layout = ROOM_LAYOUTS[pick(layoutWeights, random)];
+            int floor = rooms.size() / 20 + 1;
+            String name = "R" + floor + String.format("%02d", rooms.size() % 20 + 1);
+            rooms.add(new Classroom(name, layout[0], layout[1]));
+            capacity += (long) layout[0] * layout[1];
+        }
+        return rooms;
+    }
 
-                // Branch
-                String branch = BRANCHES[i % BRANCHES.length]; // Distribute evenly
+    /**
+     * Write room layouts as CSV: Room, Rows, Columns.
+     */
+    public static void writeRoomLayout(String outputPath, List<Classroom> rooms) throws IOException {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(outputPath), StandardCharsets.UTF_8))) {
+            out.println("Room,Rows,Columns");
+            for (Classroom room : rooms) {
+                out.println(room.getRoomName() + "," + room.getRows() + "," + room.getColumns());
+            }
+        }
+    }
 
-                // Year (1-4) and corresponding roll number prefix
-                int year = (i / 15) % 4 + 1; // Groups of 15 students per year
-                int enrollmentYear = 2024 - year + 1;
+    // ==================== ROW GENERATION ====================
 
-                // Roll number format: BRANCH + YEAR + SEQUENCE
-                String rollNo = branch + enrollmentYear + String.format("%03d", (i % 100) + 1);
-                row.createCell(1).setCellValue(rollNo);
+    /**
+     * Produces one student row per call to {@link #next()}. Roll numbers are
+     * unique: each (branch, year) pair has its own sequence.
+     */
+    private static class RowGenerator {
+        private final Random random;
+        private final String[] branches;
+        private final double[] branchWeights;
+        private final double[] yearWeights;
+        private final RollFormat rollFormat;
+        private final int admissionYear;
+        private final int sequenceWidth;
+        private final int[][] sequences;
 
-                row.createCell(2).setCellValue(year);
+        String name;
+        String rollNo;
+        int year;
+        int semester;
+        String branch;
 
-                // Semester (odd semester of that year)
-                int semester = (year * 2) - 1;
-                row.createCell(3).setCellValue(semester);
+        RowGenerator(Options options, long count) {
+            this.random = new Random(options.seed);
+            this.branches = options.branches;
+            this.rollFormat = options.rollFormat;
+            this.admissionYear = options.admissionYear;
+            this.yearWeights = cumulative(options.yearWeights);
+            this.sequences = new int[branches.length][options.yearWeights.length];
+            this.sequenceWidth = Math.max(3, Long.toString(count).length());
 
-                row.createCell(4).setCellValue(branch);
+            double[] zipf = new double[branches.length];
+            for (int k = 0; k < zipf.length; k++) {
+                zipf[k] = 1 / Math.pow(k + 1, options.branchSkew);
             }
+            this.branchWeights = cumulative(zipf);
+        }
+
+        void next() {
+            name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " +
+                   LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+
+            int branchIndex = pick(branchWeights, random);
+            int yearIndex = pick(yearWeights, random);
+            branch = branches[branchIndex];
+            year = yearIndex + 1;
+            semester = year * 2 - 1;    // odd semester of that year
+
+            int enrollmentYear = admissionYear - year + 1;
+            int sequence = ++sequences[branchIndex][yearIndex];
+            rollNo = formatRoll(enrollmentYear, branchIndex, sequence);
+        }
 
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+        private String formatRoll(int enrollmentYear, int branchIndex, int sequence) {
+            StringBuilder roll = new StringBuilder(20);
+            switch (rollFormat) {
+                case YEAR_BRANCH_SEQUENCE:
+                    pad(roll, enrollmentYear % 100, 2).append(branch);
+                    return pad(roll, sequence, sequenceWidth + 1).toString();
+                case NUMERIC:
+                    pad(roll, enrollmentYear % 100, 2);
+                    pad(roll, branchIndex + 1, 2);
+                    return pad(roll, sequence, sequenceWidth + 1).toString();
+                case SLASHED:
+                    roll.append(enrollmentYear).append('/').append(branch).append('/');
+                    return pad(roll, sequence, sequenceWidth + 1).toString();
+                case BRANCH_YEAR_SEQUENCE:
+                default:
+                    roll.append(branch).append(enrollmentYear);
+                    return pad(roll, sequence, sequenceWidth).toString();
             }
+        }
 
-            // Write to file
-            try (FileOutputStream fos = new FileOutputStream(outputPath)) {
-                workbook.write(fos);
+        private static StringBuilder pad(StringBuilder out, int value, int width) {
+            String digits = Integer.toString(value);
+            for (int i = digits.length(); i < width; i++) {
+                out.append('0');
             }
+            return out.append(digits);
+        }
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] sums = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            sums[i] = total;
+        }
+        return sums;
+    }
+
+    /**
+     * Index drawn with probability proportional to its weight.
+     */
+    private static int pick(double[] cumulativeWeights, Random random) {
+        double target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, target);
+        index = index < 0 ? -index - 1 : index + 1;
+        // Skip zero-weight entries that share the same cumulative sum
+        while (index < cumulativeWeights.length - 1 &&
+               cumulativeWeights[index] == (index > 0 ? cumulativeWeights[index - 1] : 0)) {
+            index++;
         }
+        return Math.min(index, cumulativeWeights.length - 1);
     }
 }
@@ -0,0 +1,403 @@
+package com.seatingplan.util;
+
+import com.seatingplan.model.SeatingConfig.StudentSortOrder;
+import com.seatingplan.model.Student;
+
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Computes student orderings from precomputed primitive keys.
+ *
+ * Every roll number (or name) gets a byte collation key once per call (see
+ * {@link NaturalOrder#collationKey}). The keys are then sorted as longs with
+ * {@link Arrays#parallelSort(long[])}: each long holds the next few key bytes
+ * in its high bits and the row index in its low bits, and only rows whose
+ * bytes are equal so far are sorted again on the following bytes. Grouped
+ * orders pack (group, roll rank) into one long per student the same way, so
+ * no comparator runs over String fields.
+ *
+ * Nothing is cached here; {@link com.seatingplan.model.Roster#getOrder}
+ * caches the result per sort order for callers that keep a Roster.
+ */
+public class StudentOrdering {
+
+    /**
+     * Column access to a list of students.
+     */
+    public interface Source {
+        int size();
+        String getName(int index);
+        String getRollNo(int index);
+        int getYear(int index);
+        String getBranch(int index);
+    }
+
+    /**
+     * Sort a list of students into a new list.
+     */
+    public static List<Student> sort(List<Student> students, StudentSortOrder order) {
+        if (order == StudentSortOrder.RANDOM) {
+            List<Student> shuffled = new ArrayList<>(students);
+            Collections.shuffle(shuffled);
+            return shuffled;
+        }
+
+        return permute(students, order(students, order));
+    }
+
+    /**
+     * The students at the given indices, in that order.
+     */
+    public static List<Student> permute(List<Student> students, int[] permutation) {
+        List<Student> permuted = new ArrayList<>(permutation.length);
+        for (int index : permutation) {
+            permuted.add(students.get(index));
+        }
+        return permuted;
+    }
+
+    /**
+     * Indices of the list's students in the requested order.
+     */
+    public static int[] order(List<Student> students, StudentSortOrder order) {
+        // Common case: input is already in roll order (e.g. straight from the importer)
+        if (order == StudentSortOrder.ROLL_NUMBER && isSortedByRollNo(students)) {
+            return identity(students.size());
+        }
+        return order(of(students), order);
+    }
+
+    /**
+     * Row indices of the source in the requested order.
+     * Ties keep their original relative order.
+     */
+    public static int[] order(Source source, StudentSortOrder order) {
+        switch (order) {
+            case NAME:
+                return nameOrder(source);
+            case BRANCH_THEN_ROLL:
+                return groupedOrder(source, rollRanks(source), branchGroups(source));
+            case YEAR_THEN_ROLL: {
+                int[] years = new int[source.size()];
+                for (int i = 0; i < years.length; i++) {
+                    years[i] = source.getYear(i);
+                }
+                return groupedOrder(source, rollRanks(source), years);
+            }
+            case RANDOM: {
+                int[] permutation = identity(source.size());
+                Random random = new Random();
+                for (int i = permutation.length - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int tmp = permutation[i];
+                    permutation[i] = permutation[j];
+                    permutation[j] = tmp;
+                }
+                return permutation;
+            }
+            case ROLL_NUMBER:
+            default:
+                return invert(rollRanks(source));
+        }
+    }
+
+    /**
+     * Row indices sorted by group, then by natural roll order within a group.
+     * Ties keep their original relative order.
+     *
+     * @param groups Non-negative group number per row, e.g. from {@link #branchGroups}
+     */
+    public static int[] order(Source source, int[] groups) {
+        if (groups.length != source.size()) {
+            throw new IllegalArgumentException("Expected " + source.size() + " groups, got " + groups.length);
+        }
+        return groupedOrder(source, rollRanks(source), groups);
+    }
+
+    /**
+     * Natural-order rank of every roll number (0 = first).
+     * Collation keys are computed once per student.
+     */
+    public static int[] rollRanks(Source source) {
+        int n = source.size();
+        byte[][] keys = new byte[n][];
+        String[] rolls = new String[n];
+        for (int i = 0; i < n; i++) {
+            rolls[i] = source.getRollNo(i) != null ? source.getRollNo(i) : "";
+            keys[i] = NaturalOrder.collationKey(rolls[i]);
+        }
+        // Equal keys only differ in leading zeros, see NaturalOrder.compare
+        return invert(new KeySorter(keys, (a, b) -> rolls[a].compareTo(rolls[b])).sort());
+    }
+
+    /**
+     * Sort by (group, roll rank) packed into one long per student.
+     * Roll ranks are unique, so the low half identifies the student.
+     */
+    private static int[] groupedOrder(Source source, int[] rollRanks, int[] groups) {
+        int n = source.size();
+        long[] keys = new long[n];
+        int[] byRank = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) groups[i] << 32) | rollRanks[i];
+            byRank[rollRanks[i]] = i;
+        }
+
+        Arrays.parallelSort(keys);
+
+        int[] permutation = new int[n];
+        for (int k = 0; k < n; k++) {
+            permutation[k] = byRank[(int) keys[k]];
+        }
+        return permutation;
+    }
+
+    /**
+     * Case-insensitive branch rank per student; branches equal ignoring case share a rank.
+     * A missing branch counts as "".
+     */
+    public static int[] branchGroups(Source source) {
+        int n = source.size();
+        TreeMap<String, Integer> ranks = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < n; i++) {
+            ranks.put(branchOf(source, i), 0);
+        }
+        int rank = 0;
+        for (Map.Entry<String, Integer> entry : ranks.entrySet()) {
+            entry.setValue(rank++);
+        }
+
+        int[] groups = new int[n];
+        for (int i = 0; i < n; i++) {
+            groups[i] = ranks.get(branchOf(source, i));
+        }
+        return groups;
+    }
+
+    private static String branchOf(Source source, int index) {
+        String branch = source.getBranch(index);
+        return branch != null ? branch : "";
+    }
+
+    private static int[] nameOrder(Source source) {
+        int n = source.size();
+        byte[][] keys = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            keys[i] = caseInsensitiveKey(source.getName(i) != null ? source.getName(i) : "");
+        }
+        return new KeySorter(keys, null).sort();
+    }
+
+    /**
+     * Byte key whose unsigned order matches {@link String#CASE_INSENSITIVE_ORDER}:
+     * every char folded the same way, as two big-endian bytes.
+     */
+    private static byte[] caseInsensitiveKey(String value) {
+        byte[] key = new byte[value.length() * 2];
+        for (int i = 0; i < value.length(); i++) {
+            char c = Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+            key[2 * i] = (byte) (c >>> 8);
+            key[2 * i + 1] = (byte) c;
+        }
+        return key;
+    }
+
+    /**
+     * Orders rows by unsigned byte keys with primitive sorts only.
+     *
+     * Each pass packs up to {@code chunkBytes} key bytes from the current
+     * offset into the high bits of a long (sign bit flipped, so signed order
+     * is unsigned byte order) and the row index into the low bits, then sorts
+     * a range of longs. Runs of rows whose bytes are equal so far are sorted
+     * again on the next bytes, or by insertion sort on the remaining bytes
+     * when they are short. A run whose keys are used up is ordered by key
+     * length, then by the tie break, then by row index.
+     */
+    private static class KeySorter {
+        // Runs up to this length are finished by insertion sort
+        private static final int SMALL_RUN = 16;
+
+        private final byte[][] keys;
+        private final IntBinaryOperator ties;     // null: equal keys stay in row order
+        private final int indexBits;
+        private final int chunkBytes;
+        private final long[] packed;
+
+        KeySorter(byte[][] keys, IntBinaryOperator ties) {
+            this.keys = keys;
+            this.ties = ties;
+            this.indexBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(keys.length));
+            this.chunkBytes = (64 - indexBits) / 8;
+            this.packed = new long[keys.length];
+        }
+
+        int[] sort() {
+            for (int i = 0; i < keys.length; i++) {
+                packed[i] = pack(i, 0);
+            }
+            sortPass(0, keys.length, 0);
+
+            int[] order = new int[keys.length];
+            for (int k = 0; k < order.length; k++) {
+                order[k] = index(packed[k]);
+            }
+            return order;
+        }
+
+        private void sortPass(int from, int to, int offset) {
+            Arrays.parallelSort(packed, from, to);
+            int start = from;
+            for (int k = from + 1; k <= to; k++) {
+                if (k == to || (packed[k] >>> indexBits) != (packed[start] >>> indexBits)) {
+                    if (k - start > 1) {
+                        sortRun(start, k, offset + chunkBytes);
+                    }
+                    start = k;
+                }
+            }
+        }
+
+        /**
+         * Order a run of rows whose keys match in all bytes before {@code offset}.
+         */
+        private void sortRun(int from, int to, int offset) {
+            if (to - from <= SMALL_RUN) {
+                insertionSort(from, to, offset);
+                return;
+            }
+            boolean more = false;
+            for (int k = from; k < to && !more; k++) {
+                more = keys[index(packed[k])].length > offset;
+            }
+            if (more) {
+                for (int k = from; k < to; k++) {
+                    packed[k] = pack(index(packed[k]), offset);
+                }
+                sortPass(from, to, offset);
+                return;
+            }
+
+            // Keys equal apart from trailing zero bytes: shorter first
+            for (int k = from; k < to; k++) {
+                int index = index(packed[k]);
+                packed[k] = ((long) keys[index].length << indexBits) | index;
+            }
+            Arrays.parallelSort(packed, from, to);
+            if (ties == null) {
+                return;
+            }
+            int start = from;
+            for (int k = from + 1; k <= to; k++) {
+                if (k == to || (packed[k] >>> indexBits) != (packed[start] >>> indexBits)) {
+                    if (k - start > 1) {
+                        breakTies(start, k);
+                    }
+                    start = k;
+                }
+            }
+        }
+
+        /**
+         * Stable insertion sort of rows with identical keys by the tie break.
+         * Such rows are rare (e.g. rolls differing only in leading zeros), so
+         * runs are short and mostly already in order.
+         */
+        private void breakTies(int from, int to) {
+            for (int k = from + 1; k < to; k++) {
+                long value = packed[k];
+                int j = k - 1;
+                while (j >= from && ties.applyAsInt(index(packed[j]), index(value)) > 0) {
+                    packed[j + 1] = packed[j];
+                    j--;
+                }
+                packed[j + 1] = value;
+            }
+        }
+
+        /**
+         * Stable insertion sort comparing the remaining key bytes directly;
+         * cheaper than further passes for the short runs most passes end with.
+         */
+        private void insertionSort(int from, int to, int offset) {
+            for (int k = from + 1; k < to; k++) {
+                long value = packed[k];
+                int j = k - 1;
+                while (j >= from && compare(index(packed[j]), index(value), offset) > 0) {
+                    packed[j + 1] = packed[j];
+                    j--;
+                }
+                packed[j + 1] = value;
+            }
+        }
+
+        private int compare(int a, int b, int offset) {
+            byte[] keyA = keys[a];
+            byte[] keyB = keys[b];
+            int cmp = Arrays.compareUnsigned(keyA, Math.min(offset, keyA.length), keyA.length,
+                                             keyB, Math.min(offset, keyB.length), keyB.length);
+            if (cmp == 0) {
+                // Both used up before the offset: equal apart from trailing zero bytes
+                cmp = Integer.compare(keyA.length, keyB.length);
+            }
+            if (cmp == 0 && ties != null) {
+                cmp = ties.applyAsInt(a, b);
+            }
+            return cmp != 0 ? cmp : Integer.compare(a, b);
+        }
+
+        private long pack(int index, int offset) {
+            byte[] key = keys[index];
+            long chunk = 0;
+            for (int b = offset; b < offset + chunkBytes; b++) {
+                chunk = (chunk << 8) | (b < key.length ? key[b] & 0xFF : 0);
+            }
+            return ((chunk << (64 - 8 * chunkBytes)) ^ Long.MIN_VALUE) | index;
+        }
+
+        private int index(long value) {
+            return (int) (value & ((1L << indexBits) - 1));
+        }
+    }
+
+    private static boolean isSortedByRollNo(List<Student> students) {
+        String previous = null;
+        for (Student student : students) {
+            String roll = student.getRollNo() != null ? student.getRollNo() : "";
+            if (previous != null && NaturalOrder.compare(previous, roll) > 0) {
+                return false;
+            }
+            previous = roll;
+        }
+        return true;
+    }
+
+    /**
+     * Column view over a list of student objects.
+     */
+    public static Source of(List<Student> students) {
+        return new Source() {
+            @Override public int size() { return students.size(); }
+            @Override public String getName(int index) { return students.get(index).getName(); }
+            @Override public String getRollNo(int index) { return students.get(index).getRollNo(); }
+            @Override public int getYear(int index) { return students.get(index).getYear(); }
+            @Override public String getBranch(int index) { return students.get(index).getBranch(); }
+        };
+    }
+
+    private static int[] invert(int[] ranks) {
+        int[] permutation = new int[ranks.length];
+        for (int i = 0; i < ranks.length; i++) {
+            permutation[ranks[i]] = i;
+        }
+        return permutation;
+    }
+
+    private static int[] identity(int n) {
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutation[i] = i;
+        }
+        return permutation;
+    }
+}